@@ -0,0 +1,551 @@
+package com.jewelleryapp.dao;
+
+import com.kanchancast.model.StageEnum;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Dashboard KPIs and chart series, computed by SQLite.
+ *
+ * Each method is one grouped query that returns only the numbers a card or a
+ * chart shows, so the Owner/Admin refresh no longer pulls every order into memory.
+ */
+public class AnalyticsDAO {
+
+    /** Order counts + revenue of completed orders (each at the price it completed at). */
+    public record OrderKpis(long total, long completed, long inProgress, double completedRevenue) {
+        public static final OrderKpis EMPTY = new OrderKpis(0, 0, 0, 0.0);
+    }
+
+    /** One bar of the "top products" chart. */
+    public record ProductCount(int productId, String name, long orders) {}
+
+    // ---------- KPI CARDS ----------
+    // One row kept current by triggers on orders (installOrderCounters), not a pass over orders
+    static final String SQL_ORDER_KPIS = """
+        SELECT orders              AS total,
+               completed,
+               orders - completed  AS in_progress,
+               revenue_completed   AS revenue
+        FROM order_totals
+        WHERE id = 1
+        """;
+
+    public OrderKpis orderKpis() {
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_ORDER_KPIS);
+             ResultSet rs = ps.executeQuery()) {
+
+            if (rs.next()) {
+                return new OrderKpis(
+                        rs.getLong("total"),
+                        rs.getLong("completed"),
+                        rs.getLong("in_progress"),
+                        rs.getDouble("revenue"));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ orderKpis: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderKpis.EMPTY;
+    }
+
+    // ---------- TOP PRODUCTS ----------
+    // products.order_count is kept by triggers; idx_products_order_count hands back the top rows in order
+    static final String SQL_TOP_PRODUCTS = """
+        SELECT product_id, name, order_count
+        FROM products
+        ORDER BY order_count DESC, name COLLATE NOCASE ASC
+        LIMIT ?
+        """;
+
+    /**
+     * Products ranked by number of orders (ties by name), at most {@code limit} rows.
+     * Products without orders are included with 0, so a new shop still fills the chart.
+     */
+    public List<ProductCount> topProducts(int limit) {
+        List<ProductCount> out = new ArrayList<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_TOP_PRODUCTS)) {
+
+            ps.setInt(1, Math.max(0, limit));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new ProductCount(
+                            rs.getInt("product_id"),
+                            rs.getString("name"),
+                            rs.getLong("order_count")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ topProducts: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return out;
+    }
+
+    /** Name of the most-ordered product, or null if there are no orders yet. */
+    public String topProductName() {
+        List<ProductCount> top = topProducts(1);
+        if (top.isEmpty() || top.get(0).orders() == 0) return null;
+        return top.get(0).name();
+    }
+
+    // ---------- MONTHLY TREND ----------
+    // Range on the rollup's (day, product_id) key; day is 'YYYY-MM-DD' so the month is its prefix
+    static final String SQL_ORDERS_PER_MONTH = """
+        SELECT substr(r.day, 1, 7) AS ym, SUM(r.orders_placed) AS n
+        FROM order_daily_rollup r
+        WHERE r.day >= ? AND r.day < ?
+        GROUP BY ym
+        """;
+
+    /**
+     * Orders placed per month for {@code from}..{@code to} (inclusive).
+     * Months with no orders are absent from the map.
+     * Reads order_daily_rollup, so a 5-year chart costs O(days), not O(orders).
+     */
+    public Map<YearMonth, Long> ordersPerMonth(YearMonth from, YearMonth to) {
+        Map<YearMonth, Long> out = new HashMap<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_ORDERS_PER_MONTH)) {
+
+            ps.setString(1, from.atDay(1).toString());
+            ps.setString(2, to.plusMonths(1).atDay(1).toString());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long n = rs.getLong("n");
+                    if (n > 0) out.put(YearMonth.parse(rs.getString("ym")), n);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ ordersPerMonth: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return out;
+    }
+
+    // ---------- STAGE CYCLE TIMES ----------
+    /** Median / 90th percentile time from "ready" to "done" for one stage. */
+    public record StageCycleTime(String stage, long samples, double p50Hours, double p90Hours) {}
+
+    /** How many stages an employee finished in the window, and their rank (1 = most). */
+    public record EmployeeThroughput(int employeeId, String name, String workArea,
+                                     long completed, double perWeek, int rank) {}
+
+    /** Stages being worked on now (previous stage done, this one not) and how long they have waited. */
+    public record StageWip(String stage, long inProgress, double avgAgeDays, double maxAgeDays) {}
+
+    // A stage is "ready" at the latest of: its assignment, the order's previous stage completing,
+    // and its last reopen. Stages are ordered by stage_id (rows are inserted in StageEnum order).
+    private static final String READY_AT = """
+        MAX(COALESCE(CAST(strftime('%s', s.assigned_at) AS INTEGER), 0),
+            COALESCE(LAG(s.completed_at) OVER (PARTITION BY s.order_id ORDER BY s.stage_id), 0),
+            COALESCE(s.reopened_at, 0))""";
+
+    static final String SQL_STAGE_CYCLE_TIMES = """
+        WITH timed AS (
+            SELECT s.stage_name, s.completed_at,
+                   MAX(0, s.completed_at - %s) AS secs
+            FROM order_stages s
+            WHERE s.order_id IN (SELECT r.order_id FROM order_stages r WHERE r.completed_at >= ?)
+        ),
+        ranked AS (
+            SELECT stage_name, secs,
+                   ROW_NUMBER() OVER (PARTITION BY stage_name ORDER BY secs) AS rn,
+                   COUNT(*)     OVER (PARTITION BY stage_name)               AS n
+            FROM timed
+            WHERE completed_at >= ?
+        )
+        SELECT stage_name, MAX(n) AS samples,
+               MAX(CASE WHEN rn = (n * 50 + 99) / 100 THEN secs END) / 3600.0 AS p50_hours,
+               MAX(CASE WHEN rn = (n * 90 + 99) / 100 THEN secs END) / 3600.0 AS p90_hours
+        FROM ranked
+        GROUP BY stage_name
+        """.formatted(READY_AT);
+
+    /**
+     * p50/p90 cycle time per stage over stages completed in the last {@code days} days
+     * (completion times are recorded since OrderDAO.installStageTimestamps). Percentiles
+     * are nearest-rank, picked with ROW_NUMBER() over each stage's sorted cycle times.
+     */
+    public List<StageCycleTime> stageCycleTimes(int days) {
+        List<StageCycleTime> out = new ArrayList<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_STAGE_CYCLE_TIMES)) {
+
+            long since = windowStart(days);
+            ps.setLong(1, since);
+            ps.setLong(2, since);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    out.add(new StageCycleTime(
+                            rs.getString("stage_name"),
+                            rs.getLong("samples"),
+                            rs.getDouble("p50_hours"),
+                            rs.getDouble("p90_hours")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ stageCycleTimes: " + e.getMessage());
+            e.printStackTrace();
+        }
+        out.sort(Comparator.comparingInt(t -> stageOrder(t.stage())));
+        return out;
+    }
+
+    // ---------- EMPLOYEE THROUGHPUT ----------
+    static final String SQL_EMPLOYEE_THROUGHPUT = """
+        SELECT u.user_id, u.user_name, u.work_area,
+               COUNT(s.stage_id)                             AS completed,
+               RANK() OVER (ORDER BY COUNT(s.stage_id) DESC) AS rnk
+        FROM users u
+        LEFT JOIN order_stages s
+               ON s.employee_id = u.user_id AND s.completed_at >= ?
+        WHERE LOWER(u.user_type) = 'employee'
+        GROUP BY u.user_id
+        ORDER BY rnk, u.user_name COLLATE NOCASE
+        """;
+
+    /** Stages each employee completed in the last {@code days} days, busiest first (idle employees included). */
+    public List<EmployeeThroughput> employeeThroughput(int days) {
+        List<EmployeeThroughput> out = new ArrayList<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_EMPLOYEE_THROUGHPUT)) {
+
+            ps.setLong(1, windowStart(days));
+            double weeks = Math.max(1, days) / 7.0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long completed = rs.getLong("completed");
+                    out.add(new EmployeeThroughput(
+                            rs.getInt("user_id"),
+                            rs.getString("user_name"),
+                            rs.getString("work_area"),
+                            completed,
+                            completed / weeks,
+                            rs.getInt("rnk")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ employeeThroughput: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return out;
+    }
+
+    // ---------- WORK IN PROGRESS ----------
+    static final String SQL_WIP_AGES = """
+        WITH staged AS (
+            SELECT s.stage_name, s.completed,
+                   LAG(LOWER(COALESCE(s.completed,'no'))) OVER (PARTITION BY s.order_id ORDER BY s.stage_id) AS prev_state,
+                   MAX(%s,
+                       COALESCE(CAST(strftime('%%s', o.date_ordered) AS INTEGER), 0)) AS ready_at
+            FROM orders o
+            JOIN order_stages s ON s.order_id = o.order_id
+            WHERE (o.progress >= 100) = 0
+        )
+        SELECT stage_name, COUNT(*) AS wip,
+               AVG(CAST(strftime('%%s','now') AS INTEGER) - ready_at) / 86400.0 AS avg_age_days,
+               MAX(CAST(strftime('%%s','now') AS INTEGER) - ready_at) / 86400.0 AS max_age_days
+        FROM staged
+        WHERE LOWER(COALESCE(completed,'no')) != 'yes'
+          AND (prev_state IS NULL OR prev_state = 'yes')
+        GROUP BY stage_name
+        """.formatted(READY_AT);
+
+    /** Per stage: open orders currently at that stage and how long it has been ready. */
+    public List<StageWip> wipAges() {
+        List<StageWip> out = new ArrayList<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_WIP_AGES);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                out.add(new StageWip(
+                        rs.getString("stage_name"),
+                        rs.getLong("wip"),
+                        rs.getDouble("avg_age_days"),
+                        rs.getDouble("max_age_days")));
+            }
+        } catch (SQLException e) {
+            System.err.println("❌ wipAges: " + e.getMessage());
+            e.printStackTrace();
+        }
+        out.sort(Comparator.comparingInt(w -> stageOrder(w.stage())));
+        return out;
+    }
+
+    // ---------- DAILY ROLLUP ----------
+    /**
+     * Recomputes order_daily_rollup and the order counters from orders (e.g. after editing
+     * the DB by hand). Completed revenue comes from orders.completed_price, the price each
+     * order realized. Returns the number of rollup rows written, or -1 on error.
+     */
+    public int rebuildDailyRollup() {
+        try {
+            return WriteQueue.execute(c -> {
+                try (Statement st = c.createStatement()) {
+                    int rows = rebuildDailyRollup(st);
+                    rebuildOrderCounters(st);
+                    return rows;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ rebuildDailyRollup: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // ---------------- internals ----------------
+
+    private static long windowStart(int days) {
+        return System.currentTimeMillis() / 1000 - Math.max(1, days) * 86_400L;
+    }
+
+    // StageEnum position, so charts read in production order; unknown names go last
+    private static int stageOrder(String stage) {
+        String[] stages = StageEnum.labels();
+        for (int i = 0; i < stages.length; i++) {
+            if (stages[i].equals(stage)) return i;
+        }
+        return stages.length;
+    }
+
+    /**
+     * One-shot: order_daily_rollup (one row per day + product) plus orders.completed_date and
+     * orders.completed_price, kept current by triggers on orders.
+     *
+     * - placed:    +1 on the order's date_ordered when the order is inserted (createOrder)
+     * - completed: +1 (and +completed_price, the product price when progress reached 100) on
+     *              completed_date, reversed on the same day bucket by the same amount when the
+     *              order is reopened, so later price edits never skew a past day
+     * - deleted orders are subtracted from both buckets
+     */
+    static void installDailyRollup(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "orders", "completed_date", "TEXT");
+        SchemaMigrations.addColumnIfMissing(st, "orders", "completed_price", "REAL");
+
+        // Completion day and price were never recorded: use the planned delivery date, capped at
+        // today, and the current product price
+        st.executeUpdate("""
+            UPDATE orders
+            SET completed_date  = MIN(COALESCE(DATE(delivery_date), DATE(date_ordered), DATE('now')), DATE('now')),
+                completed_price = COALESCE((SELECT price FROM products WHERE product_id = orders.product_id), 0)
+            WHERE progress >= 100 AND completed_date IS NULL
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS order_daily_rollup (
+                day               TEXT    NOT NULL,
+                product_id        INTEGER NOT NULL,
+                category          TEXT,
+                orders_placed     INTEGER NOT NULL DEFAULT 0,
+                orders_completed  INTEGER NOT NULL DEFAULT 0,
+                revenue_completed REAL    NOT NULL DEFAULT 0,
+                PRIMARY KEY (day, product_id)
+            )
+        """);
+
+        // ---- completed_date / completed_price follow progress ----
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_orders_completed_date_ins
+            AFTER INSERT ON orders
+            WHEN NEW.progress >= 100 AND NEW.completed_date IS NULL
+            BEGIN
+                UPDATE orders
+                SET completed_date  = DATE('now'),
+                    completed_price = %s
+                WHERE order_id = NEW.order_id;
+            END
+        """.formatted(PRICE_NOW));
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_orders_completed_date_upd
+            AFTER UPDATE OF progress ON orders
+            WHEN (NEW.progress >= 100) IS NOT (OLD.progress >= 100)
+            BEGIN
+                UPDATE orders
+                SET completed_date  = CASE WHEN NEW.progress >= 100 THEN DATE('now') END,
+                    completed_price = CASE WHEN NEW.progress >= 100 THEN %s END
+                WHERE order_id = NEW.order_id;
+            END
+        """.formatted(PRICE_NOW));
+
+        // ---- rollup follows orders ----
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_rollup_orders_ins
+            AFTER INSERT ON orders
+            WHEN DATE(NEW.date_ordered) IS NOT NULL
+            BEGIN
+                INSERT INTO order_daily_rollup (day, product_id, category, orders_placed)
+                VALUES (DATE(NEW.date_ordered), NEW.product_id,
+                        (SELECT type FROM products WHERE product_id = NEW.product_id), 1)
+                ON CONFLICT (day, product_id) DO UPDATE SET orders_placed = orders_placed + 1;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_rollup_orders_completed
+            AFTER UPDATE OF completed_date ON orders
+            WHEN NEW.completed_date IS NOT OLD.completed_date
+            BEGIN
+                %s
+                INSERT INTO order_daily_rollup (day, product_id, category, orders_completed, revenue_completed)
+                SELECT NEW.completed_date, NEW.product_id,
+                       (SELECT type FROM products WHERE product_id = NEW.product_id), 1,
+                       COALESCE(NEW.completed_price, 0)
+                WHERE NEW.completed_date IS NOT NULL
+                ON CONFLICT (day, product_id) DO UPDATE
+                    SET orders_completed  = orders_completed + 1,
+                        revenue_completed = revenue_completed + excluded.revenue_completed;
+            END
+        """.formatted(UNDO_COMPLETION));
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_rollup_orders_del
+            AFTER DELETE ON orders
+            BEGIN
+                UPDATE order_daily_rollup SET orders_placed = orders_placed - 1
+                WHERE day = DATE(OLD.date_ordered) AND product_id = OLD.product_id;
+                %s
+                DELETE FROM order_daily_rollup
+                WHERE product_id = OLD.product_id
+                  AND day IN (DATE(OLD.date_ordered), OLD.completed_date)
+                  AND orders_placed <= 0 AND orders_completed <= 0;
+            END
+        """.formatted(UNDO_COMPLETION));
+
+        int rows = rebuildDailyRollup(st);
+        System.out.println("✅ Built order_daily_rollup (" + rows + " row(s))");
+    }
+
+    // Price an order realizes at the moment it completes (NEW = the order row in a trigger)
+    private static final String PRICE_NOW =
+            "COALESCE((SELECT price FROM products WHERE product_id = NEW.product_id), 0)";
+
+    // Takes an order back out of its completion-day bucket (OLD = the row before the change)
+    private static final String UNDO_COMPLETION = """
+        UPDATE order_daily_rollup
+        SET orders_completed  = orders_completed - 1,
+            revenue_completed = revenue_completed - COALESCE(OLD.completed_price, 0)
+        WHERE OLD.completed_date IS NOT NULL
+          AND day = OLD.completed_date AND product_id = OLD.product_id;
+    """;
+
+    static int rebuildDailyRollup(Statement st) throws SQLException {
+        st.executeUpdate("DELETE FROM order_daily_rollup");
+        return st.executeUpdate("""
+            INSERT INTO order_daily_rollup
+                (day, product_id, category, orders_placed, orders_completed, revenue_completed)
+            SELECT day, product_id, MAX(category), SUM(placed), SUM(completed), TOTAL(revenue)
+            FROM (
+                SELECT DATE(o.date_ordered) AS day, o.product_id, p.type AS category,
+                       1 AS placed, 0 AS completed, 0.0 AS revenue
+                FROM orders o
+                LEFT JOIN products p ON p.product_id = o.product_id
+                WHERE DATE(o.date_ordered) IS NOT NULL
+                UNION ALL
+                SELECT o.completed_date, o.product_id, p.type,
+                       0, 1, COALESCE(o.completed_price, 0)
+                FROM orders o
+                LEFT JOIN products p ON p.product_id = o.product_id
+                WHERE o.completed_date IS NOT NULL
+            )
+            GROUP BY day, product_id
+        """);
+    }
+
+    /**
+     * One-shot: order_totals (a single row of order/completion/revenue totals) and
+     * products.order_count, kept current by triggers on orders, so the KPI cards and the
+     * top-products chart read a few rows instead of every order.
+     *
+     * - insert: +1 order, +1 on the product
+     * - completed_date set / cleared: +1 / -1 completed, +/- completed_price
+     * - delete: all of the above taken back
+     */
+    static void installOrderCounters(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "products", "order_count", "INTEGER NOT NULL DEFAULT 0");
+        st.execute("""
+            CREATE INDEX IF NOT EXISTS idx_products_order_count
+            ON products(order_count DESC, name COLLATE NOCASE)
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS order_totals (
+                id                INTEGER PRIMARY KEY CHECK (id = 1),
+                orders            INTEGER NOT NULL DEFAULT 0,
+                completed         INTEGER NOT NULL DEFAULT 0,
+                revenue_completed REAL    NOT NULL DEFAULT 0
+            )
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_totals_orders_ins
+            AFTER INSERT ON orders
+            BEGIN
+                UPDATE order_totals SET orders = orders + 1 WHERE id = 1;
+                UPDATE products SET order_count = order_count + 1 WHERE product_id = NEW.product_id;
+            END
+        """);
+
+        // completed_date and completed_price change together (see installDailyRollup)
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_totals_orders_completed
+            AFTER UPDATE OF completed_date ON orders
+            WHEN NEW.completed_date IS NOT OLD.completed_date
+            BEGIN
+                UPDATE order_totals
+                SET completed         = completed + (NEW.completed_date IS NOT NULL) - (OLD.completed_date IS NOT NULL),
+                    revenue_completed = revenue_completed + COALESCE(NEW.completed_price, 0)
+                                                          - COALESCE(OLD.completed_price, 0)
+                WHERE id = 1;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_totals_orders_product
+            AFTER UPDATE OF product_id ON orders
+            WHEN NEW.product_id IS NOT OLD.product_id
+            BEGIN
+                UPDATE products SET order_count = order_count - 1 WHERE product_id = OLD.product_id;
+                UPDATE products SET order_count = order_count + 1 WHERE product_id = NEW.product_id;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_totals_orders_del
+            AFTER DELETE ON orders
+            BEGIN
+                UPDATE order_totals
+                SET orders            = orders - 1,
+                    completed         = completed - (OLD.completed_date IS NOT NULL),
+                    revenue_completed = revenue_completed - COALESCE(OLD.completed_price, 0)
+                WHERE id = 1;
+                UPDATE products SET order_count = order_count - 1 WHERE product_id = OLD.product_id;
+            END
+        """);
+
+        rebuildOrderCounters(st);
+    }
+
+    static void rebuildOrderCounters(Statement st) throws SQLException {
+        st.executeUpdate("INSERT OR IGNORE INTO order_totals (id) VALUES (1)");
+        st.executeUpdate("""
+            UPDATE order_totals
+            SET orders            = (SELECT COUNT(*) FROM orders),
+                completed         = (SELECT COUNT(*) FROM orders WHERE completed_date IS NOT NULL),
+                revenue_completed = (SELECT TOTAL(completed_price) FROM orders WHERE completed_date IS NOT NULL)
+            WHERE id = 1
+        """);
+        st.executeUpdate("""
+            UPDATE products
+            SET order_count = (SELECT COUNT(*) FROM orders o WHERE o.product_id = products.product_id)
+        """);
+    }
+}
@@ -0,0 +1,201 @@
+package com.jewelleryapp.dao;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Automatic stage assignment: gives every unassigned, unfinished stage of an order to
+ * an employee whose work area is that stage.
+ *
+ * One run = one WriteQueue unit, so it is a single transaction:
+ *   1. one grouped query for every employee's open-stage load
+ *   2. one query for the stages to fill
+ *   3. choices made in memory (loads go up as stages are handed out)
+ *   4. one batched UPDATE
+ *
+ * Stages someone already has are never touched, so it can run after a partial manual
+ * assignment (OrderDetailsDialog) or repeatedly over the backlog.
+ */
+public class AssignmentEngine {
+
+    public enum Policy {
+        /** Each stage goes to the area's employee with the fewest open stages (ties: lowest id). */
+        LEAST_LOADED,
+        /** Stages rotate through the area's employees, starting with the least loaded one. */
+        ROUND_ROBIN
+    }
+
+    /** What one run did. {@code unstaffedStages} = stages left empty because no employee works that area. */
+    public record Result(int orders, int stagesAssigned, Set<String> unstaffedStages) {
+        public static final Result EMPTY = new Result(0, 0, Set.of());
+    }
+
+    public static final int DEFAULT_BATCH = 500;
+
+    // ---------- ONE ORDER ----------
+    static final String SQL_PENDING_FOR_ORDER = """
+        SELECT s.order_id, s.stage_name
+        FROM order_stages s
+        WHERE s.order_id = ?
+          AND s.employee_id IS NULL
+          AND LOWER(COALESCE(s.completed,'no')) != 'yes'
+        ORDER BY s.stage_id
+        """;
+
+    /** Fills the empty stages of one order (e.g. right after it is placed). */
+    public Result assignOrder(int orderId, Policy policy) {
+        return run("assignOrder", policy, SQL_PENDING_FOR_ORDER, orderId);
+    }
+
+    // ---------- BACKLOG ----------
+    static final String SQL_PENDING_BACKLOG = """
+        SELECT s.order_id, s.stage_name
+        FROM order_stages s
+        WHERE s.employee_id IS NULL
+          AND LOWER(COALESCE(s.completed,'no')) != 'yes'
+          AND s.order_id IN (
+              SELECT DISTINCT p.order_id
+              FROM order_stages p
+              WHERE p.employee_id IS NULL
+                AND LOWER(COALESCE(p.completed,'no')) != 'yes'
+              ORDER BY p.order_id
+              LIMIT ?)
+        ORDER BY s.order_id, s.stage_id
+        """;
+
+    /** Fills the empty stages of up to {@code maxOrders} orders, oldest first. */
+    public Result assignBacklog(int maxOrders, Policy policy) {
+        return run("assignBacklog", policy, SQL_PENDING_BACKLOG, Math.max(0, maxOrders));
+    }
+
+    // ---------------- internals ----------------
+
+    private record Pick(int employeeId, int orderId, String stage) {}
+
+    static final String SQL_ASSIGN = """
+        UPDATE order_stages
+        SET employee_id = ?
+        WHERE order_id = ? AND stage_name = ? AND employee_id IS NULL
+        """;
+
+    // Every employee with their open-stage count (areas are grouped in Java)
+    static final String SQL_POOLS = """
+        SELECT u.user_id, u.work_area, COUNT(s.stage_id) AS open_stages
+        FROM users u
+        LEFT JOIN order_stages s
+               ON s.employee_id = u.user_id
+              AND LOWER(COALESCE(s.completed,'no')) != 'yes'
+        WHERE LOWER(u.user_type) = 'employee'
+        GROUP BY u.user_id
+        """;
+
+    private Result run(String label, Policy policy, String pendingSql, int param) {
+        try {
+            return WriteQueue.execute(c -> {
+                Map<String, Pool> pools = loadPools(c, policy);
+
+                List<Pick> updates = new ArrayList<>();
+                Set<Integer> orders = new HashSet<>();
+                Set<String> unstaffed = new TreeSet<>();
+
+                try (PreparedStatement ps = c.prepareStatement(pendingSql)) {
+                    ps.setInt(1, param);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            int orderId = rs.getInt("order_id");
+                            String stage = rs.getString("stage_name");
+
+                            Pool pool = pools.get(areaKey(stage));
+                            if (pool == null) {
+                                unstaffed.add(stage);
+                                continue;
+                            }
+                            updates.add(new Pick(pool.next(), orderId, stage));
+                            orders.add(orderId);
+                        }
+                    }
+                }
+
+                if (updates.isEmpty()) return new Result(0, 0, unstaffed);
+
+                int assigned = 0;
+                try (PreparedStatement ps = c.prepareStatement(SQL_ASSIGN)) {
+                    for (Pick p : updates) {
+                        ps.setInt(1, p.employeeId());
+                        ps.setInt(2, p.orderId());
+                        ps.setString(3, p.stage());
+                        ps.addBatch();
+                    }
+                    for (int n : ps.executeBatch()) assigned += Math.max(0, n);
+                }
+                return new Result(orders.size(), assigned, unstaffed);
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ " + label + ": " + e.getMessage());
+            e.printStackTrace();
+            return Result.EMPTY;
+        }
+    }
+
+    /** Every employee with a work area, grouped by area, with their current open-stage count. */
+    private static Map<String, Pool> loadPools(Connection c, Policy policy) throws SQLException {
+        Map<String, Pool> pools = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(SQL_POOLS);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String area = rs.getString("work_area");
+                if (area == null || area.isBlank()) continue;
+                pools.computeIfAbsent(areaKey(area), k -> new Pool(policy))
+                        .add(rs.getInt("user_id"), rs.getInt("open_stages"));
+            }
+        }
+        return pools;
+    }
+
+    // Stage names and work areas are both StageEnum labels; compare them the way the dialog does
+    private static String areaKey(String s) {
+        return s.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Employees of one work area. load = open stages, including the ones handed out this run. */
+    private static final class Pool {
+        private final Policy policy;
+        private final List<int[]> workers = new ArrayList<>(); // {userId, load}
+        private PriorityQueue<int[]> byLoad;
+        private int cursor = -1;
+
+        Pool(Policy policy) {
+            this.policy = policy;
+        }
+
+        void add(int userId, int load) {
+            workers.add(new int[]{userId, load});
+        }
+
+        int next() {
+            if (policy == Policy.ROUND_ROBIN) {
+                if (cursor < 0) {
+                    workers.sort(Pool::byLoadThenId);
+                    cursor = 0;
+                }
+                int[] w = workers.get(cursor);
+                cursor = (cursor + 1) % workers.size();
+                w[1]++;
+                return w[0];
+            }
+
+            if (byLoad == null) {
+                byLoad = new PriorityQueue<>(Pool::byLoadThenId);
+                byLoad.addAll(workers);
+            }
+            int[] w = byLoad.poll();
+            w[1]++;
+            byLoad.add(w);
+            return w[0];
+        }
+
+        private static int byLoadThenId(int[] a, int[] b) {
+            return a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[0], b[0]);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.jewelleryapp.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The DAO statements checked by dev.QueryPlanAudit, read straight from the DAOs'
+ * SQL constants so the audit always plans exactly what the app runs.
+ *
+ * hot  = every table is reached through an index range, a partial index, or an in-order
+ *        walk cut short by LIMIT (the rule is in QueryPlanAudit.fullScans)
+ * full = a complete listing: reading every row is the point; the comment says why
+ *
+ * Add the constant here when a DAO gains a query on a hot path.
+ */
+public final class AuditedQueries {
+
+    public record Query(String name, String sql, boolean fullScanExpected) {}
+
+    private static final List<Query> ALL = build();
+
+    private AuditedQueries() {}
+
+    public static List<Query> all() {
+        return ALL;
+    }
+
+    private static List<Query> build() {
+        List<Query> q = new ArrayList<>();
+
+        // ---------- OrderDAO ----------
+        hot(q, "OrderDAO.getOrdersForUser", OrderDAO.SQL_ORDERS_FOR_USER);
+        // Every combination listPage runs (a status filter always pages newest first)
+        for (boolean filterStatus : new boolean[] {false, true}) {
+            for (boolean openFirst : filterStatus ? new boolean[] {false} : new boolean[] {true, false}) {
+                for (boolean hasCursor : new boolean[] {false, true}) {
+                    hot(q, "OrderDAO.listPage (" + (openFirst ? "open first" : "newest first")
+                                    + (filterStatus ? ", status" : "") + (hasCursor ? ", next page" : ", first page") + ")",
+                            OrderDAO.listPageSql(filterStatus, hasCursor, openFirst));
+                }
+            }
+        }
+        hot(q, "OrderDAO.listStagesForOrder", OrderDAO.SQL_STAGES_FOR_ORDER);
+        hot(q, "OrderDAO.listStagesForCustomerTracking", OrderDAO.SQL_STAGES_FOR_TRACKING);
+        hot(q, "OrderDAO.getAssignedEmployeeIdsForOrder", OrderDAO.SQL_ASSIGNED_FOR_ORDER);
+        hot(q, "OrderDAO.stageExists", OrderDAO.SQL_STAGE_EXISTS);
+        hot(q, "OrderDAO.applyStageDelta", OrderDAO.SQL_APPLY_STAGE_DELTA);
+        hot(q, "OrderDAO.listTasksAssignedToEmployee", OrderDAO.SQL_TASKS_FOR_EMPLOYEE);
+        hot(q, "OrderDAO.listDueBetween", OrderDAO.SQL_DUE_BETWEEN);
+        hot(q, "OrderDAO.setStagesCompletion", OrderDAO.SQL_FLIP_STAGE);
+        hot(q, "OrderDAO.assignStages", OrderDAO.SQL_ASSIGN_STAGE);
+        hot(q, "OrderDAO.deleteOrder (stages)", OrderDAO.SQL_DELETE_ORDER_STAGES);
+        hot(q, "OrderDAO.deleteOrder (order)", OrderDAO.SQL_DELETE_ORDER);
+        // Unpaged listing of every order; the app's tables page through listPage instead
+        full(q, "OrderDAO.listAll", OrderDAO.SQL_LIST_ALL);
+
+        // ---------- ProductDAO ----------
+        hot(q, "ProductDAO.deleteProduct (stages)", ProductDAO.SQL_DELETE_PRODUCT_STAGES);
+        hot(q, "ProductDAO.deleteProduct (orders)", ProductDAO.SQL_DELETE_PRODUCT_ORDERS);
+        hot(q, "ProductDAO.deleteProduct (product)", ProductDAO.SQL_DELETE_PRODUCT);
+        hot(q, "ProductDAO.deleteCategory (check)", ProductDAO.SQL_CATEGORY_IN_USE);
+        hot(q, "ProductDAO.deleteCategory (delete)", ProductDAO.SQL_DELETE_CATEGORY);
+        hot(q, "ProductDAO.search", ProductDAO.SQL_SEARCH);
+        // Catalog snapshot: the whole table is loaded once and served from memory afterwards
+        full(q, "ProductDAO.catalog", ProductDAO.SQL_SELECT_ALL);
+
+        // ---------- AnalyticsDAO ----------
+        hot(q, "AnalyticsDAO.ordersPerMonth", AnalyticsDAO.SQL_ORDERS_PER_MONTH);
+        hot(q, "AnalyticsDAO.orderKpis", AnalyticsDAO.SQL_ORDER_KPIS);
+        hot(q, "AnalyticsDAO.topProducts", AnalyticsDAO.SQL_TOP_PRODUCTS);
+        hot(q, "AnalyticsDAO.stageCycleTimes", AnalyticsDAO.SQL_STAGE_CYCLE_TIMES);
+        hot(q, "AnalyticsDAO.employeeThroughput", AnalyticsDAO.SQL_EMPLOYEE_THROUGHPUT);
+        hot(q, "AnalyticsDAO.wipAges", AnalyticsDAO.SQL_WIP_AGES);
+
+        // ---------- ProductionScheduler ----------
+        hot(q, "ProductionScheduler.loadEmployees", ProductionScheduler.SQL_EMPLOYEES);
+        hot(q, "ProductionScheduler.loadOpenStages", ProductionScheduler.SQL_OPEN_STAGES);
+        hot(q, "ProductionScheduler.loadDurations", ProductionScheduler.SQL_DURATIONS);
+
+        // ---------- UserDAO / EmployeeDAO ----------
+        hot(q, "UserDAO.authenticate", UserDAO.SQL_AUTH_BY_NAME);
+        hot(q, "UserDAO.authenticateByCode", UserDAO.SQL_AUTH_BY_CODE);
+        hot(q, "UserDAO.authenticateFull", UserDAO.SQL_AUTH_BY_CODE_AND_NAME);
+        hot(q, "UserDAO.findById", UserDAO.SQL_BY_ID);
+        hot(q, "UserDAO.findByUsername", UserDAO.SQL_BY_USERNAME);
+        // Unpaged listing of every account (owner's admin list and its user-code uniqueness check)
+        full(q, "UserDAO.listAll", UserDAO.SQL_LIST_ALL);
+        hot(q, "UserDAO.listEmployeesOnly", UserDAO.SQL_EMPLOYEES_ONLY);
+        hot(q, "UserDAO.listEmployeeStats", UserDAO.SQL_EMPLOYEE_STATS);
+        hot(q, "EmployeeDAO.listByWorkArea", EmployeeDAO.SQL_BY_WORK_AREA);
+        hot(q, "EmployeeDAO.listAll", EmployeeDAO.SQL_LIST_ALL);
+        hot(q, "EmployeeDAO.countActiveProductsForEmployee", EmployeeDAO.SQL_ACTIVE_FOR_EMPLOYEE);
+        // Grouped over idx_order_stages_employee: one query instead of one COUNT per employee
+        hot(q, "EmployeeDAO.countActiveStagesByEmployee", EmployeeDAO.SQL_ACTIVE_BY_EMPLOYEE);
+
+        // ---------- AssignmentEngine ----------
+        hot(q, "AssignmentEngine.loadPools", AssignmentEngine.SQL_POOLS);
+        hot(q, "AssignmentEngine.assignOrder", AssignmentEngine.SQL_PENDING_FOR_ORDER);
+        hot(q, "AssignmentEngine.assignBacklog", AssignmentEngine.SQL_PENDING_BACKLOG);
+        hot(q, "AssignmentEngine (update)", AssignmentEngine.SQL_ASSIGN);
+
+        return Collections.unmodifiableList(q);
+    }
+
+    private static void hot(List<Query> q, String name, String sql) { q.add(new Query(name, sql, false)); }
+    private static void full(List<Query> q, String name, String sql) { q.add(new Query(name, sql, true)); }
+}
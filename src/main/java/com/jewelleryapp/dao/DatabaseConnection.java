@@ -1,13 +1,33 @@
 package com.jewelleryapp.dao;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Centralized database connection manager for KanchanCast.
  * Uses root-level kanchancast.db and applies safe PRAGMAs.
- * Adds retry logic to handle SQLITE_BUSY (database locked).
+ *
+ * Connections are pooled: a fixed set of reader connections plus ONE writer
+ * connection are opened once (PRAGMAs applied once per connection) and handed
+ * out on borrow. Calling close() on a borrowed connection returns it to the pool.
+ *
+ * - getConnection() / getReadConnection(): borrow a reader (SELECT paths)
+ * - getWriteConnection(): borrow the single writer (INSERT/UPDATE/DELETE/DDL).
+ *   Re-entrant per thread, so a write helper may call another write helper.
+ * - connect(): opens a raw, unpooled connection (dev tools only).
  */
 public class DatabaseConnection {
 
@@ -17,11 +37,240 @@ public class DatabaseConnection {
     private static volatile boolean bootstrapped = false;
     private static final Object BOOTSTRAP_LOCK = new Object();
 
+    // ---- Pool configuration ----
+    private static final int READER_POOL_SIZE = Math.max(1, Integer.getInteger("kanchancast.db.readers", 4));
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+
+    private static final Object POOL_LOCK = new Object();
+    private static volatile boolean poolReady = false;
+    private static BlockingQueue<Connection> idleReaders;
+    private static Connection writer;
+    private static final ReentrantLock WRITER_LOCK = new ReentrantLock(true);
+
+    // ---- Pool metrics ----
+    private static final AtomicLong readerBorrows = new AtomicLong();
+    private static final AtomicLong writerBorrows = new AtomicLong();
+    private static final AtomicLong exhaustedWaits = new AtomicLong();
+    private static final AtomicLong exhaustedFailures = new AtomicLong();
+    private static final AtomicInteger readersInUse = new AtomicInteger();
+    private static final AtomicInteger peakReadersInUse = new AtomicInteger();
+
+    /** Borrow a pooled reader connection. close() returns it to the pool. */
     public static Connection getConnection() throws SQLException {
-        return connect();
+        return getReadConnection();
     }
 
+    public static Connection getReadConnection() throws SQLException {
+        ensurePool();
+
+        Connection physical = idleReaders.poll();
+        if (physical == null) {
+            // Every reader is busy: count it and wait a bounded amount of time
+            exhaustedWaits.incrementAndGet();
+            try {
+                physical = idleReaders.poll(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a reader connection", ie);
+            }
+            if (physical == null) {
+                exhaustedFailures.incrementAndGet();
+                throw new SQLException("Reader pool exhausted (" + READER_POOL_SIZE + " connections busy for "
+                        + BORROW_TIMEOUT_MS + " ms)");
+            }
+        }
+
+        if (physical.isClosed()) {
+            physical = openPhysical();
+        }
+
+        readerBorrows.incrementAndGet();
+        int inUse = readersInUse.incrementAndGet();
+        peakReadersInUse.accumulateAndGet(inUse, Math::max);
+
+        return wrap(physical, false);
+    }
+
+    /** Borrow the single writer connection. Blocks while another thread holds it. */
+    public static Connection getWriteConnection() throws SQLException {
+        ensurePool();
+
+        try {
+            if (!WRITER_LOCK.tryLock(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                exhaustedFailures.incrementAndGet();
+                throw new SQLException("Writer connection busy for " + BORROW_TIMEOUT_MS + " ms");
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", ie);
+        }
+
+        try {
+            if (writer == null || writer.isClosed()) {
+                writer = openPhysical();
+            }
+        } catch (SQLException e) {
+            WRITER_LOCK.unlock();
+            throw e;
+        }
+
+        writerBorrows.incrementAndGet();
+        return wrap(writer, true);
+    }
+
+    /** Opens a raw, unpooled connection (callers must close it). Used by dev tools. */
     public static Connection connect() throws SQLException {
+        ensureBootstrapped();
+        Connection conn = openPhysical();
+        System.out.println("✅ Connected to SQLite database: " + DB_PATH.toAbsolutePath());
+        return conn;
+    }
+
+    /**
+     * Pre-opens the pool (call once at startup, off the FX thread).
+     * Throws if the DB cannot be opened or migrated: the app must not run on an unknown schema.
+     */
+    public static void warmUp() throws SQLException {
+        ensurePool();
+    }
+
+    /** Closes every pooled connection. Safe to call more than once. */
+    public static void shutdown() {
+        synchronized (POOL_LOCK) {
+            if (!poolReady) return;
+            poolReady = false;
+
+            List<Connection> readers = new ArrayList<>();
+            idleReaders.drainTo(readers);
+            for (Connection c : readers) {
+                try { c.close(); } catch (SQLException ignored) {}
+            }
+
+            WRITER_LOCK.lock();
+            try {
+                if (writer != null) {
+                    try { writer.close(); } catch (SQLException ignored) {}
+                    writer = null;
+                }
+            } finally {
+                WRITER_LOCK.unlock();
+            }
+        }
+    }
+
+    /** One-line pool summary for logs/diagnostics. */
+    public static String poolStats() {
+        return "readers=" + READER_POOL_SIZE
+                + " inUse=" + readersInUse.get()
+                + " peak=" + peakReadersInUse.get()
+                + " readerBorrows=" + readerBorrows.get()
+                + " writerBorrows=" + writerBorrows.get()
+                + " exhaustedWaits=" + exhaustedWaits.get()
+                + " exhaustedFailures=" + exhaustedFailures.get();
+    }
+
+    public static long getExhaustedWaits() { return exhaustedWaits.get(); }
+    public static long getExhaustedFailures() { return exhaustedFailures.get(); }
+    public static int getPeakReadersInUse() { return peakReadersInUse.get(); }
+
+    // ---------------- Pool internals ----------------
+
+    private static void ensurePool() throws SQLException {
+        if (poolReady) return;
+
+        synchronized (POOL_LOCK) {
+            if (poolReady) return;
+
+            // Schema bootstrap runs BEFORE the pool opens so pooled connections see the final schema;
+            // if it fails the pool stays closed and every borrow reports the failure
+            ensureBootstrapped();
+
+            BlockingQueue<Connection> readers = new ArrayBlockingQueue<>(READER_POOL_SIZE);
+            try {
+                for (int i = 0; i < READER_POOL_SIZE; i++) {
+                    readers.add(openPhysical());
+                }
+                writer = openPhysical();
+            } catch (SQLException e) {
+                for (Connection c : readers) {
+                    try { c.close(); } catch (SQLException ignored) {}
+                }
+                throw e;
+            }
+
+            idleReaders = readers;
+            poolReady = true;
+            System.out.println("✅ SQLite pool ready (" + READER_POOL_SIZE + " readers + 1 writer): "
+                    + DB_PATH.toAbsolutePath());
+        }
+    }
+
+    private static void release(Connection physical, boolean isWriter) {
+        if (isWriter) {
+            try {
+                // Only reset state when the outermost borrow is returned
+                if (WRITER_LOCK.getHoldCount() == 1) resetState(physical);
+            } finally {
+                WRITER_LOCK.unlock();
+            }
+            return;
+        }
+
+        readersInUse.decrementAndGet();
+        resetState(physical);
+
+        if (!poolReady || !idleReaders.offer(physical)) {
+            // Pool was shut down (or is somehow full): don't leak the connection
+            try { physical.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    // A borrower that forgot to commit must not leak an open transaction to the next borrower
+    private static void resetState(Connection physical) {
+        try {
+            if (!physical.isClosed() && !physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException ignored) {}
+    }
+
+    private static Connection wrap(Connection physical, boolean isWriter) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+
+                if (name.equals("close")) {
+                    if (!returned) {
+                        returned = true;
+                        release(physical, isWriter);
+                    }
+                    return null;
+                }
+                if (name.equals("isClosed")) {
+                    return returned || physical.isClosed();
+                }
+                if (returned) {
+                    throw new SQLException("Connection already returned to the pool");
+                }
+
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+
+        return (Connection) Proxy.newProxyInstance(
+                DatabaseConnection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    // Opens one physical connection with busy retries and PRAGMAs applied
+    private static Connection openPhysical() throws SQLException {
         final int maxAttempts = 10;
         final long sleepMs = 200;
         SQLException last = null;
@@ -31,12 +280,6 @@ public class DatabaseConnection {
             try {
                 conn = DriverManager.getConnection(URL);
                 applyPragmas(conn);
-
-                System.out.println("✅ Connected to SQLite database: " + DB_PATH.toAbsolutePath());
-
-                // Bootstrap once (but ONLY mark successful after it actually succeeds)
-                ensureBootstrapped();
-
                 return conn;
 
             } catch (SQLException e) {
@@ -73,60 +316,28 @@ public class DatabaseConnection {
         }
     }
 
-    private static void ensureBootstrapped() {
+    private static void ensureBootstrapped() throws SQLException {
         if (bootstrapped) return;
 
         synchronized (BOOTSTRAP_LOCK) {
             if (bootstrapped) return;
 
-            boolean ok = false;
-
             // IMPORTANT: do bootstrap using a fresh short-lived connection
             // so you don’t keep a long-running app connection holding locks.
             try (Connection c = DriverManager.getConnection(URL)) {
                 applyPragmas(c);
 
-                // Do schema updates as a transaction (reduces locking window)
-                c.setAutoCommit(false);
-
-                try (Statement st = c.createStatement()) {
-
-                    st.execute("""
-                        CREATE TABLE IF NOT EXISTS categories (
-                            name TEXT PRIMARY KEY
-                        )
-                    """);
-
-                    st.execute("""
-                        INSERT OR IGNORE INTO categories(name)
-                        VALUES ('ring'), ('necklace'), ('bracelet'), ('earrings')
-                    """);
-
-                    // Safe schema upgrades (ignore "duplicate column" errors)
-                    try { st.execute("ALTER TABLE products ADD COLUMN stone_weight REAL DEFAULT 0"); }
-                    catch (SQLException ignored) {}
-
-                    try { st.execute("ALTER TABLE products ADD COLUMN duration_amount INTEGER DEFAULT 0"); }
-                    catch (SQLException ignored) {}
-
-                    try { st.execute("ALTER TABLE products ADD COLUMN duration_unit TEXT DEFAULT 'DAYS'"); }
-                    catch (SQLException ignored) {}
-
-                    c.commit();
-                    ok = true;
-
+                // Pending schema migrations run in one transaction; a current DB costs one PRAGMA read
+                try {
+                    SchemaMigrations.migrate(c);
                 } catch (SQLException e) {
-                    try { c.rollback(); } catch (SQLException ignored) {}
-                    System.err.println("⚠️ DB bootstrap skipped/failed: " + e.getMessage());
-                } finally {
-                    try { c.setAutoCommit(true); } catch (SQLException ignored) {}
+                    System.err.println("❌ Schema migration failed: " + e.getMessage());
+                    throw new SQLException("Schema migration failed for " + DB_PATH.toAbsolutePath()
+                            + " (the database was left unchanged): " + e.getMessage(), e);
                 }
-
-            } catch (SQLException e) {
-                System.err.println("⚠️ DB bootstrap skipped/failed: " + e.getMessage());
             }
 
-            bootstrapped = ok; // ONLY true if success; otherwise will retry later
+            bootstrapped = true; // ONLY set on success; a failed bootstrap is retried on the next borrow
         }
     }
 
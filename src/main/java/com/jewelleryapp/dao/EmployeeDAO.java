@@ -4,46 +4,32 @@ import com.kanchancast.auth.PasswordUtil;
 import com.kanchancast.model.StaffRow;
 import com.kanchancast.model.User;
 
+import com.kanchancast.util.DobUtil;
+
 import java.sql.*;
-import java.time.LocalDate;
-import java.time.Period;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class EmployeeDAO {
 
-    // ---- helper: compute age in Java (used for inserts/backward compatibility) ----
-    private static int computeAgeFromDobIso(String dobIso) {
-        if (dobIso == null || dobIso.isBlank()) return 0;
-        try {
-            LocalDate dob = LocalDate.parse(dobIso.trim()); // expects YYYY-MM-DD
-            if (dob.isAfter(LocalDate.now())) return 0;
-            int years = Period.between(dob, LocalDate.now()).getYears();
-            return Math.max(0, years);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
+    private static final UserDAO USER_DAO = new UserDAO();
 
     // --------- LIST BY WORK AREA ----------
+    // Plain column reads (idx_users_type_area); age is derived from dob in StaffRow
+    static final String SQL_BY_WORK_AREA = """
+        SELECT user_id, user_name, work_area, gender, address, dob
+        FROM users
+        WHERE user_type = 'employee' AND work_area = ?
+        """;
+
     public List<StaffRow> listByWorkArea(String workArea) {
         List<StaffRow> list = new ArrayList<>();
 
-        // ✅ If dob exists then compute age. Else fallback to stored age
-        String sql = """
-            SELECT user_id, user_name, work_area, gender, address, dob,
-                   CASE
-                       WHEN dob IS NOT NULL AND dob <> ''
-                       THEN CAST((julianday('now') - julianday(dob)) / 365.25 AS INT)
-                       ELSE COALESCE(age, 0)
-                   END AS calc_age
-            FROM users
-            WHERE user_type = 'employee' AND work_area = ?
-        """;
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_BY_WORK_AREA)) {
 
             ps.setString(1, workArea);
             try (ResultSet rs = ps.executeQuery()) {
@@ -55,7 +41,6 @@ public class EmployeeDAO {
                     s.setGender(rs.getString("gender"));
                     s.setAddress(rs.getString("address"));
                     s.setDob(rs.getString("dob"));
-                    s.setAge(rs.getInt("calc_age"));
                     list.add(s);
                 }
             }
@@ -68,44 +53,10 @@ public class EmployeeDAO {
     }
 
     // --------- FIND EMPLOYEE BY ID ----------
+    // Same row/projection as UserDAO.findById, so dialogs share its hot-user cache
     public Optional<User> findEmployeeById(int userId) {
-        String sql = """
-            SELECT user_id, user_code, user_name, user_type, password, gender, address, work_area, dob,
-                   CASE
-                       WHEN dob IS NOT NULL AND dob <> ''
-                       THEN CAST((julianday('now') - julianday(dob)) / 365.25 AS INT)
-                       ELSE COALESCE(age, 0)
-                   END AS calc_age
-            FROM users
-            WHERE user_type = 'employee' AND user_id = ? LIMIT 1
-        """;
-
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    User u = new User();
-                    u.setUserId(rs.getInt("user_id"));
-                    u.setUserCode(rs.getString("user_code"));
-                    u.setUserName(rs.getString("user_name"));
-                    u.setUserType(rs.getString("user_type"));
-                    u.setPassword(rs.getString("password"));
-                    u.setGender(rs.getString("gender"));
-                    u.setAddress(rs.getString("address"));
-                    u.setArea(rs.getString("work_area"));
-                    u.setDob(rs.getString("dob"));
-                    u.setAge(rs.getInt("calc_age"));
-                    return Optional.of(u);
-                }
-            }
-
-        } catch (SQLException e) {
-            System.err.println("❌ Error in findEmployeeById: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return Optional.empty();
+        return USER_DAO.findById(userId)
+                .filter(u -> "employee".equalsIgnoreCase(u.getUserType()));
     }
 
     // --------- UPDATE EMPLOYEE PASSWORD (RESET) ----------
@@ -117,11 +68,16 @@ public class EmployeeDAO {
         String hashed = PasswordUtil.hashPassword(newRawPassword);
         String sql = "UPDATE users SET password = ? WHERE user_type = 'employee' AND user_id = ?";
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, hashed);
-            ps.setInt(2, userId);
-            return ps.executeUpdate() == 1;
+        try {
+            boolean ok = WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, hashed);
+                    ps.setInt(2, userId);
+                    return ps.executeUpdate() == 1;
+                }
+            });
+            UserDAO.invalidateCachedUser(userId);
+            return ok;
         } catch (SQLException e) {
             System.err.println("❌ Error in updateEmployeePassword: " + e.getMessage());
             e.printStackTrace();
@@ -130,23 +86,18 @@ public class EmployeeDAO {
     }
 
     // --------- LIST ALL EMPLOYEES ----------
+    static final String SQL_LIST_ALL = """
+        SELECT user_id, user_name, work_area, gender, address, dob
+        FROM users
+        WHERE LOWER(user_type) = 'employee'   -- same test as UserDAO; uses idx_users_type_lower
+        ORDER BY user_id ASC
+        """;
+
     public List<StaffRow> listAll() {
         List<StaffRow> list = new ArrayList<>();
 
-        String sql = """
-            SELECT user_id, user_name, work_area, gender, address, dob,
-                   CASE
-                       WHEN dob IS NOT NULL AND dob <> ''
-                       THEN CAST((julianday('now') - julianday(dob)) / 365.25 AS INT)
-                       ELSE COALESCE(age, 0)
-                   END AS calc_age
-            FROM users
-            WHERE user_type = 'employee'
-            ORDER BY user_id ASC
-        """;
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
+             PreparedStatement ps = c.prepareStatement(SQL_LIST_ALL);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -157,7 +108,6 @@ public class EmployeeDAO {
                 s.setGender(rs.getString("gender"));
                 s.setAddress(rs.getString("address"));
                 s.setDob(rs.getString("dob"));
-                s.setAge(rs.getInt("calc_age"));
                 list.add(s);
             }
 
@@ -169,15 +119,16 @@ public class EmployeeDAO {
     }
 
     // --------- COUNT PRODUCTS ASSIGNED TO AN EMPLOYEE ----------
-    public int countActiveProductsForEmployee(int userId) {
-        String sql = """
-            SELECT COUNT(*)
-            FROM order_stages
-            WHERE employee_id = ?
-              AND LOWER(COALESCE(completed,'no')) != 'yes'
+    static final String SQL_ACTIVE_FOR_EMPLOYEE = """
+        SELECT COUNT(*)
+        FROM order_stages
+        WHERE employee_id = ?
+          AND LOWER(COALESCE(completed,'no')) != 'yes'
         """;
+
+    public int countActiveProductsForEmployee(int userId) {
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_ACTIVE_FOR_EMPLOYEE)) {
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return rs.getInt(1);
@@ -188,6 +139,30 @@ public class EmployeeDAO {
         return 0;
     }
 
+    // --------- OPEN STAGES PER EMPLOYEE (one grouped query) ----------
+    static final String SQL_ACTIVE_BY_EMPLOYEE = """
+        SELECT employee_id, COUNT(*) AS open_stages
+        FROM order_stages
+        WHERE employee_id IS NOT NULL
+          AND LOWER(COALESCE(completed,'no')) != 'yes'
+        GROUP BY employee_id
+        """;
+
+    /** employee_id -> open (not completed) stages. Employees with none are absent. */
+    public Map<Integer, Integer> countActiveStagesByEmployee() {
+        Map<Integer, Integer> out = new HashMap<>();
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_ACTIVE_BY_EMPLOYEE);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.put(rs.getInt("employee_id"), rs.getInt("open_stages"));
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ Error counting active stages: " + e.getMessage());
+        }
+        return out;
+    }
+
     // --------- CREATE EMPLOYEE (NEW: DOB) ----------
     // ✅ This is the one your UI should call now (no age input).
     public boolean createEmployee(String userName, String rawPassword, String gender,
@@ -198,31 +173,38 @@ public class EmployeeDAO {
             return false;
         }
 
+        String dob;
+        try {
+            dob = DobUtil.normalizeForWrite(dobIso);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Invalid input for createEmployee: " + e.getMessage());
+            return false;
+        }
+
         String genderFormatted = (gender != null && gender.equalsIgnoreCase("female")) ? "Female" : "Male";
         String hashed = PasswordUtil.hashPassword(rawPassword);
         String code = "KC-" + java.util.UUID.randomUUID().toString().substring(0, 8);
 
-        // Keep age column filled too (backward compatibility), but dob is the source of truth
-        int computedAge = computeAgeFromDobIso(dobIso);
-
+        // dob is the only stored birth data; age is derived from it when read
         String sql = """
-            INSERT INTO users (user_type, user_name, password, gender, address, work_area, dob, age, user_code)
-            VALUES ('employee', ?, ?, ?, ?, ?, ?, ?, ?)
+            INSERT INTO users (user_type, user_name, password, gender, address, work_area, dob, user_code)
+            VALUES ('employee', ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setString(1, userName.trim());
-            ps.setString(2, hashed);
-            ps.setString(3, genderFormatted);
-            ps.setString(4, address == null ? "" : address.trim());
-            ps.setString(5, workArea == null ? "" : workArea.trim());
-            ps.setString(6, dobIso == null ? "" : dobIso.trim());
-            ps.setInt(7, computedAge);
-            ps.setString(8, code);
-
-            int affected = ps.executeUpdate();
+        try {
+            int affected = WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, userName.trim());
+                    ps.setString(2, hashed);
+                    ps.setString(3, genderFormatted);
+                    ps.setString(4, address == null ? "" : address.trim());
+                    ps.setString(5, workArea == null ? "" : workArea.trim());
+                    ps.setString(6, dob);
+                    ps.setString(7, code);
+                    return ps.executeUpdate();
+                }
+            });
+
             if (affected > 0) {
                 System.out.println("✅ Employee created successfully: " + userName);
                 return true;
@@ -236,24 +218,18 @@ public class EmployeeDAO {
         return false;
     }
 
-    // --------- CREATE EMPLOYEE (OLD SIGNATURE kept so old code still compiles) ----------
-    // ⚠️ Keep this temporarily so you don’t “break working code”.
-    // Your UI should stop using this once you add DatePicker DOB.
-    public boolean createEmployee(String userName, String rawPassword, String gender,
-                                  String address, String workArea, int age) {
-        // Store blank dob; keep age as entered (legacy)
-        return createEmployee(userName, rawPassword, gender, address, workArea, "");
-    }
-
     // --------- DELETE EMPLOYEE ----------
     public boolean deleteEmployee(int userId) {
         String sql = "DELETE FROM users WHERE user_id = ? AND user_type = 'employee'";
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setInt(1, userId);
-            int rows = ps.executeUpdate();
+        try {
+            int rows = WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, userId);
+                    return ps.executeUpdate();
+                }
+            });
+            UserDAO.invalidateCachedUser(userId);
 
             if (rows > 0) {
                 System.out.println("✅ Employee with ID " + userId + " deleted successfully.");
@@ -1,32 +1,39 @@
 package com.jewelleryapp.dao;
 
 import com.kanchancast.model.AssignedTask;
+import com.kanchancast.model.OrderPage;
 import com.kanchancast.model.OrderSummary;
+import com.kanchancast.model.OrderUpdate;
 import com.kanchancast.model.StageRow;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class OrderDAO {
 
     // Single source of truth: 11 stages
     private static final String[] STAGES = com.kanchancast.model.StageEnum.labels();
+    private static final Set<String> OFFICIAL_STAGES = Set.of(STAGES);
 
     // ✅ Delivery date calculation (uses products.duration_amount + products.duration_unit)
     // - DAYS:   +N days
     // - WEEKS:  +N*7 days
     // - MONTHS: +N months
     // - if duration missing/0: delivery_date = date_ordered
-    private static final String DELIVERY_DATE_EXPR = """
+    // %1$s = the order date expression. Evaluated ONCE per order (createOrder / backfill)
+    // and stored in orders.delivery_date; listings just read the column.
+    private static final String DELIVERY_DATE_TEMPLATE = """
         CASE
-          WHEN p.duration_amount IS NULL OR p.duration_amount <= 0 THEN o.date_ordered
+          WHEN p.duration_amount IS NULL OR p.duration_amount <= 0 THEN %1$s
           WHEN UPPER(COALESCE(p.duration_unit,'DAYS')) = 'DAYS'
-            THEN DATE(o.date_ordered, '+' || p.duration_amount || ' days')
+            THEN DATE(%1$s, '+' || p.duration_amount || ' days')
           WHEN UPPER(COALESCE(p.duration_unit,'DAYS')) = 'WEEKS'
-            THEN DATE(o.date_ordered, '+' || (p.duration_amount * 7) || ' days')
+            THEN DATE(%1$s, '+' || (p.duration_amount * 7) || ' days')
           WHEN UPPER(COALESCE(p.duration_unit,'DAYS')) = 'MONTHS'
-            THEN DATE(o.date_ordered, '+' || p.duration_amount || ' months')
-          ELSE DATE(o.date_ordered, '+' || p.duration_amount || ' days')
+            THEN DATE(%1$s, '+' || p.duration_amount || ' months')
+          ELSE DATE(%1$s, '+' || p.duration_amount || ' days')
         END
     """;
 
@@ -44,58 +51,70 @@ public class OrderDAO {
 
     // ---------- CREATE ORDER ----------
     public boolean createOrder(int userId, int productId, String status) {
-        String sql = """
-            INSERT INTO orders (user_id, product_id, date_ordered, status, progress)
-            VALUES (?, ?, DATE('now'), ?, 0)
-        """;
+        try {
+            return WriteQueue.execute(c -> createOrder(c, userId, productId, status));
+        } catch (SQLException e) {
+            System.err.println("❌ createOrder: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    /** Async variant: resolves once the order (and its stage rows) are committed. */
+    public CompletableFuture<Boolean> createOrderAsync(int userId, int productId, String status) {
+        return WriteQueue.submit(c -> createOrder(c, userId, productId, status));
+    }
 
+    private boolean createOrder(Connection c, int userId, int productId, String status) throws SQLException {
+        // delivery_date is fixed at creation from the product's duration
+        String sql = """
+            INSERT INTO orders (user_id, product_id, date_ordered, delivery_date, status, progress)
+            SELECT ?, p.product_id, DATE('now'), %s, ?, 0
+            FROM products p
+            WHERE p.product_id = ?
+        """.formatted(DELIVERY_DATE_TEMPLATE.formatted("DATE('now')"));
+
+        int orderId = -1;
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setInt(1, userId);
-            ps.setInt(2, productId);
-            ps.setString(3, status);
+            ps.setString(2, status);
+            ps.setInt(3, productId);
 
             int rows = ps.executeUpdate();
             if (rows != 1) return false;
 
-            int orderId = -1;
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 if (keys.next()) orderId = keys.getInt(1);
             }
+        }
 
-            if (orderId > 0) {
-                ensureOrderStagesExist(orderId);
-                recalculateAndUpdateOrderProgress(orderId);
-            }
-
-            return true;
-
-        } catch (SQLException e) {
-            System.err.println("❌ createOrder: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+        // Stage rows are created here, in the same transaction, and nowhere else.
+        // A new order has 0/11 stages done, so progress=0 needs no recalculation.
+        if (orderId > 0) {
+            insertStagesForNewOrder(c, orderId);
         }
+
+        return true;
     }
 
     // ---------- FETCH ORDERS FOR SPECIFIC USER ----------
+    static final String SQL_ORDERS_FOR_USER = """
+        SELECT o.order_id, o.product_id, o.user_id,
+               p.name AS product_name,
+               o.date_ordered,
+               o.delivery_date,
+               o.status, o.progress
+        FROM orders o
+        JOIN products p ON o.product_id = p.product_id
+        WHERE o.user_id = ?
+        ORDER BY (o.progress >= 100) ASC, o.order_id DESC
+        """;
+
     public List<OrderSummary> getOrdersForUser(int userId) {
         List<OrderSummary> list = new ArrayList<>();
 
-        String sql = """
-            SELECT o.order_id, o.product_id, o.user_id,
-                   p.name AS product_name,
-                   o.date_ordered,
-                   %s AS delivery_date,
-                   o.status, o.progress
-            FROM orders o
-            JOIN products p ON o.product_id = p.product_id
-            WHERE o.user_id = ?
-            ORDER BY (CASE WHEN o.progress >= 100 THEN 1 ELSE 0 END) ASC, o.order_id DESC
-        """.formatted(DELIVERY_DATE_EXPR);
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_ORDERS_FOR_USER)) {
 
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -110,24 +129,68 @@ public class OrderDAO {
                     // ✅ NEW
                     os.setDeliveryDate(rs.getString("delivery_date"));
 
-                    int progress = rs.getInt("progress");
-                    String status = rs.getString("status");
+                    // status is kept in sync with progress by the DB triggers (see installStatusInvariant)
+                    os.setStatus(rs.getString("status"));
+                    os.setProgressPercent(rs.getInt("progress"));
+                    list.add(os);
+                }
+            }
 
-                    // Safety-net: if DB has old status text, reconcile it from progress.
-                    String canonical = canonicalStatusFromProgress(progress);
-                    if (canonical != null && (status == null || !canonical.equalsIgnoreCase(status))) {
-                        updateOrderStatusOnly(rs.getInt("order_id"), canonical);
-                        status = canonical;
-                    }
+        } catch (SQLException e) {
+            System.err.println("❌ getOrdersForUser: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return list;
+    }
+
+    // ---------- ORDERS DUE IN A DATE RANGE ----------
+    static final String SQL_DUE_BETWEEN = """
+        SELECT o.order_id, o.product_id, o.user_id,
+               u.user_name AS customer_name,
+               p.name AS product_name,
+               o.date_ordered,
+               o.delivery_date,
+               o.status, o.progress
+        FROM orders o
+        JOIN users u ON o.user_id = u.user_id
+        JOIN products p ON o.product_id = p.product_id
+        WHERE o.delivery_date BETWEEN ? AND ?
+          AND o.progress < 100
+        ORDER BY o.delivery_date ASC, o.order_id ASC
+        """;
 
-                    os.setStatus(status);
-                    os.setProgressPercent(progress);
+    /**
+     * Open orders whose delivery date falls in [from, to] (inclusive), soonest first.
+     * Served by idx_orders_delivery; e.g. "due this week" = (today, today + 6).
+     */
+    public List<OrderSummary> listDueBetween(LocalDate from, LocalDate to) {
+        List<OrderSummary> list = new ArrayList<>();
+        if (from == null || to == null) return list;
+
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(SQL_DUE_BETWEEN)) {
+
+            ps.setString(1, from.toString()); // ISO yyyy-MM-dd, same as DATE()
+            ps.setString(2, to.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    OrderSummary os = new OrderSummary();
+                    os.setOrderId(rs.getInt("order_id"));
+                    os.setProductId(rs.getInt("product_id"));
+                    os.setUserId(rs.getInt("user_id"));
+                    os.setCustomerName(rs.getString("customer_name"));
+                    os.setProductName(rs.getString("product_name"));
+                    os.setDateOrdered(rs.getString("date_ordered"));
+                    os.setDeliveryDate(rs.getString("delivery_date"));
+                    os.setStatus(rs.getString("status"));
+                    os.setProgressPercent(rs.getInt("progress"));
                     list.add(os);
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("❌ getOrdersForUser: " + e.getMessage());
+            System.err.println("❌ listDueBetween: " + e.getMessage());
             e.printStackTrace();
         }
 
@@ -135,24 +198,24 @@ public class OrderDAO {
     }
 
     // ---------- FETCH ALL ORDERS (ADMIN / OWNER VIEW) ----------
+    static final String SQL_LIST_ALL = """
+        SELECT o.order_id, o.product_id, o.user_id,
+               u.user_name AS customer_name,
+               p.name AS product_name,
+               o.date_ordered,
+               o.delivery_date,
+               o.status, o.progress
+        FROM orders o
+        JOIN users u ON o.user_id = u.user_id
+        JOIN products p ON o.product_id = p.product_id
+        ORDER BY (o.progress >= 100) ASC, o.order_id DESC
+        """;
+
     public List<OrderSummary> listAll() {
         List<OrderSummary> list = new ArrayList<>();
 
-        String sql = """
-            SELECT o.order_id, o.product_id, o.user_id,
-                   u.user_name AS customer_name,
-                   p.name AS product_name,
-                   o.date_ordered,
-                   %s AS delivery_date,
-                   o.status, o.progress
-            FROM orders o
-            JOIN users u ON o.user_id = u.user_id
-            JOIN products p ON o.product_id = p.product_id
-            ORDER BY (CASE WHEN o.progress >= 100 THEN 1 ELSE 0 END) ASC, o.order_id DESC
-        """.formatted(DELIVERY_DATE_EXPR);
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
+             PreparedStatement ps = c.prepareStatement(SQL_LIST_ALL);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -167,18 +230,8 @@ public class OrderDAO {
                 // ✅ NEW
                 os.setDeliveryDate(rs.getString("delivery_date"));
 
-                int progress = rs.getInt("progress");
-                String status = rs.getString("status");
-
-                // Safety-net: reconcile old status text for existing completed orders.
-                String canonical = canonicalStatusFromProgress(progress);
-                if (canonical != null && (status == null || !canonical.equalsIgnoreCase(status))) {
-                    updateOrderStatusOnly(rs.getInt("order_id"), canonical);
-                    status = canonical;
-                }
-
-                os.setStatus(status);
-                os.setProgressPercent(progress);
+                os.setStatus(rs.getString("status"));
+                os.setProgressPercent(rs.getInt("progress"));
                 list.add(os);
             }
 
@@ -190,65 +243,123 @@ public class OrderDAO {
         return list;
     }
 
-    // ---------- ENSURE ALL 11 STAGES EXIST ----------
-    // IMPORTANT: inserts missing stages even if some rows already exist
-    public boolean ensureOrderStagesExist(int orderId) {
-        String fetchSql = "SELECT stage_name FROM order_stages WHERE order_id = ?";
-        String insertSql = "INSERT INTO order_stages (order_id, stage_name, employee_id, completed) VALUES (?, ?, NULL, 'No')";
-
-        try (Connection c = DatabaseConnection.getConnection()) {
+    // ---------- PAGED ORDERS (ADMIN / OWNER TABLES) ----------
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Keyset-paginated listing: never materializes more than pageSize rows.
+     *
+     * @param after     last row of the previous page (null = first page)
+     * @param pageSize  rows per page (clamped to 1..500)
+     * @param status    PENDING / PROCESSING / COMPLETED, or null/"ALL" for every order
+     * @param sort      OPEN_FIRST matches listAll(); NEWEST_FIRST ignores completion
+     */
+    public OrderPage listPage(OrderPage.Cursor after, int pageSize, String status, OrderPage.Sort sort) {
+        int limit = Math.max(1, Math.min(500, pageSize));
+        boolean filterStatus = status != null && !status.isBlank() && !status.equalsIgnoreCase("ALL");
+        // One status is all open or all done (triggers derive it from progress), so open-first
+        // within a status is newest-first, served by idx_orders_status
+        boolean openFirst = (sort != OrderPage.Sort.NEWEST_FIRST) && !filterStatus;
+
+        List<OrderSummary> rows = new ArrayList<>(limit + 1);
 
-            Set<String> existing = new HashSet<>();
-            try (PreparedStatement ps = c.prepareStatement(fetchSql)) {
-                ps.setInt(1, orderId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        existing.add(canonicalStageName(rs.getString("stage_name")));
-                    }
-                }
+        try (Connection c = DatabaseConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(listPageSql(filterStatus, after != null, openFirst))) {
+
+            int i = 1;
+            if (filterStatus) ps.setString(i++, status.trim().toUpperCase());
+            if (after != null && openFirst) {
+                int done = after.isCompleted() ? 1 : 0;
+                ps.setInt(i++, done);
+                ps.setInt(i++, after.getOrderId());
+                ps.setInt(i++, limit + 1);
+                ps.setInt(i++, done);
+                ps.setInt(i++, limit + 1);
+            } else if (after != null) {
+                ps.setInt(i++, after.getOrderId());
             }
+            ps.setInt(i, limit + 1); // one extra row tells us whether another page exists
 
-            // Insert missing official stages
-            try (PreparedStatement ins = c.prepareStatement(insertSql)) {
-                for (String stage : STAGES) {
-                    if (!existing.contains(stage)) {
-                        ins.setInt(1, orderId);
-                        ins.setString(2, stage);
-                        ins.addBatch();
-                    }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    OrderSummary os = new OrderSummary();
+                    os.setOrderId(rs.getInt("order_id"));
+                    os.setProductId(rs.getInt("product_id"));
+                    os.setUserId(rs.getInt("user_id"));
+                    os.setCustomerName(rs.getString("customer_name"));
+                    os.setProductName(rs.getString("product_name"));
+                    os.setDateOrdered(rs.getString("date_ordered"));
+                    os.setDeliveryDate(rs.getString("delivery_date"));
+                    os.setStatus(rs.getString("status"));
+                    os.setProgressPercent(rs.getInt("progress"));
+                    rows.add(os);
                 }
-                ins.executeBatch();
             }
 
-            return true;
-
         } catch (SQLException e) {
-            System.err.println("⚠️ ensureOrderStagesExist: " + e.getMessage());
+            System.err.println("❌ listPage: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return new OrderPage(List.of(), null);
         }
-    }
 
-    // ---------- ASSIGN EMPLOYEE TO STAGE ----------
-    public boolean assignEmployeeToStage(int orderId, String stageName, int employeeId) {
-        ensureOrderStagesExist(orderId);
-        stageName = canonicalStageName(stageName);
+        OrderPage.Cursor next = null;
+        if (rows.size() > limit) {
+            rows.remove(limit);
+            OrderSummary last = rows.get(limit - 1);
+            next = new OrderPage.Cursor(last.getProgressPercent() >= 100, last.getOrderId());
+        }
+        return new OrderPage(rows, next);
+    }
 
-        String updateSql = """
-            UPDATE order_stages
-            SET employee_id = ?
-            WHERE order_id = ? AND stage_name = ?
+    private static final String PAGE_SELECT = """
+            SELECT o.order_id, o.product_id, o.user_id,
+                   u.user_name AS customer_name,
+                   p.name AS product_name,
+                   o.date_ordered,
+                   o.delivery_date,
+                   o.status, o.progress
+            FROM orders o
+            JOIN users u ON o.user_id = u.user_id
+            JOIN products p ON o.product_id = p.product_id
         """;
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(updateSql)) {
+    /**
+     * listPage() SQL for one filter/cursor/sort combination (all of them are plan-audited).
+     * openFirst is only used without a status filter (see listPage).
+     */
+    static String listPageSql(boolean filterStatus, boolean hasCursor, boolean openFirst) {
+        if (openFirst && hasCursor) {
+            // Rest of the cursor's group, then the later group from its top: two idx_orders_open_first
+            // ranges instead of an OR that walks the index from the start. UNION ALL keeps arm order.
+            return """
+                SELECT * FROM (%1$s WHERE (o.progress >= 100) = ? AND o.order_id < ?
+                               ORDER BY o.order_id DESC LIMIT ?)
+                UNION ALL
+                SELECT * FROM (%1$s WHERE (o.progress >= 100) > ?
+                               ORDER BY (o.progress >= 100) ASC, o.order_id DESC LIMIT ?)
+                LIMIT ?
+            """.formatted(PAGE_SELECT);
+        }
 
-            ps.setInt(1, employeeId);
-            ps.setInt(2, orderId);
-            ps.setString(3, stageName);
+        StringBuilder where = new StringBuilder("WHERE 1 = 1");
+        if (filterStatus) where.append(" AND o.status = ?");
+        if (hasCursor) where.append(" AND o.order_id < ?");
 
-            return ps.executeUpdate() > 0;
+        String orderBy = openFirst ? "(o.progress >= 100) ASC, o.order_id DESC" : "o.order_id DESC";
 
+        return """
+            %s
+            %s
+            ORDER BY %s
+            LIMIT ?
+        """.formatted(PAGE_SELECT, where, orderBy);
+    }
+
+    // ---------- ASSIGN EMPLOYEE TO STAGE ----------
+    public boolean assignEmployeeToStage(int orderId, String stageName, int employeeId) {
+        String stage = canonicalStageName(stageName);
+        try {
+            return WriteQueue.execute(c -> assignEmployeeToStage(c, orderId, stage, employeeId));
         } catch (SQLException e) {
             System.err.println("❌ assignEmployeeToStage: " + e.getMessage());
             e.printStackTrace();
@@ -256,26 +367,71 @@ public class OrderDAO {
         }
     }
 
-    // ---------- MARK STAGE COMPLETION ----------
-    public boolean setStageCompletion(int orderId, String stageName, boolean completed) {
-        ensureOrderStagesExist(orderId);
-        stageName = canonicalStageName(stageName);
+    public CompletableFuture<Boolean> assignEmployeeToStageAsync(int orderId, String stageName, int employeeId) {
+        String stage = canonicalStageName(stageName);
+        return WriteQueue.submit(c -> assignEmployeeToStage(c, orderId, stage, employeeId));
+    }
 
-        String sql = "UPDATE order_stages SET completed = ? WHERE order_id = ? AND stage_name = ?";
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    /**
+     * Assigns several stages of one order in one transaction (one batched UPDATE).
+     * A null employee id clears that stage's assignment.
+     * Returns stage -> saved, in the map's iteration order; all false if the transaction failed.
+     */
+    public Map<String, Boolean> assignStages(int orderId, Map<String, Integer> employeeByStage) {
+        List<String> stages = new ArrayList<>(employeeByStage.size());
+        List<Integer> employees = new ArrayList<>(employeeByStage.size());
+        employeeByStage.forEach((stage, employeeId) -> {
+            stages.add(canonicalStageName(stage));
+            employees.add(employeeId);
+        });
+
+        boolean[] saved;
+        try {
+            saved = stages.isEmpty() ? new boolean[0]
+                    : WriteQueue.execute(c -> assignStages(c, orderId, stages, employees));
+        } catch (SQLException e) {
+            System.err.println("❌ assignStages: " + e.getMessage());
+            e.printStackTrace();
+            saved = new boolean[stages.size()];
+        }
+
+        Map<String, Boolean> out = new LinkedHashMap<>();
+        int i = 0;
+        for (String stage : employeeByStage.keySet()) out.put(stage, saved[i++]);
+        return out;
+    }
 
-            ps.setString(1, completed ? "Yes" : "No");
-            ps.setInt(2, orderId);
-            ps.setString(3, stageName);
+    private boolean assignEmployeeToStage(Connection c, int orderId, String stageName, int employeeId) throws SQLException {
+        return assignStages(c, orderId, List.of(stageName), List.of(employeeId))[0];
+    }
 
-            int rows = ps.executeUpdate();
-            if (rows > 0) {
-                recalculateAndUpdateOrderProgress(orderId);
-                return true;
+    static final String SQL_ASSIGN_STAGE = """
+        UPDATE order_stages
+        SET employee_id = ?
+        WHERE order_id = ? AND stage_name = ?
+        """;
+
+    private boolean[] assignStages(Connection c, int orderId, List<String> stages, List<Integer> employees) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(SQL_ASSIGN_STAGE)) {
+            for (int i = 0; i < stages.size(); i++) {
+                ps.setObject(1, employees.get(i));
+                ps.setInt(2, orderId);
+                ps.setString(3, stages.get(i));
+                ps.addBatch();
             }
-            return false;
+            int[] counts = ps.executeBatch();
 
+            boolean[] saved = new boolean[counts.length];
+            for (int i = 0; i < counts.length; i++) saved[i] = counts[i] > 0;
+            return saved;
+        }
+    }
+
+    // ---------- MARK STAGE COMPLETION ----------
+    public boolean setStageCompletion(int orderId, String stageName, boolean completed) {
+        String stage = canonicalStageName(stageName);
+        try {
+            return WriteQueue.execute(c -> setStageCompletion(c, orderId, stage, completed));
         } catch (SQLException e) {
             System.err.println("❌ setStageCompletion: " + e.getMessage());
             e.printStackTrace();
@@ -283,6 +439,99 @@ public class OrderDAO {
         }
     }
 
+    /** Async variant: many employees ticking stages get group-committed together. */
+    public CompletableFuture<Boolean> setStageCompletionAsync(int orderId, String stageName, boolean completed) {
+        String stage = canonicalStageName(stageName);
+        return WriteQueue.submit(c -> setStageCompletion(c, orderId, stage, completed));
+    }
+
+    /**
+     * Applies many stage ticks (any mix of orders) in one transaction: one batched UPDATE,
+     * then progress is recomputed once per affected order.
+     * Returns one result per update, in the same order (true = stage is now in the
+     * requested state); all false if the transaction failed.
+     */
+    public List<Boolean> setStagesCompletion(List<OrderUpdate> updates) {
+        if (updates == null || updates.isEmpty()) return List.of();
+
+        List<OrderUpdate> canonical = new ArrayList<>(updates.size());
+        for (OrderUpdate u : updates) {
+            canonical.add(new OrderUpdate(u.getOrderId(), canonicalStageName(u.getStage()), u.isCompleted()));
+        }
+
+        boolean[] ok;
+        try {
+            ok = WriteQueue.execute(c -> setStagesCompletion(c, canonical));
+        } catch (SQLException e) {
+            System.err.println("❌ setStagesCompletion: " + e.getMessage());
+            e.printStackTrace();
+            ok = new boolean[canonical.size()];
+        }
+
+        List<Boolean> out = new ArrayList<>(ok.length);
+        for (boolean b : ok) out.add(b);
+        return out;
+    }
+
+    private boolean setStageCompletion(Connection c, int orderId, String stageName, boolean completed) throws SQLException {
+        return setStagesCompletion(c, List.of(new OrderUpdate(orderId, stageName, completed)))[0];
+    }
+
+    // Conditional flip: only touches the row if the state actually changes
+    static final String SQL_FLIP_STAGE =
+            "UPDATE order_stages SET completed = ? WHERE order_id = ? AND stage_name = ? AND completed IS NOT ?";
+
+    private boolean[] setStagesCompletion(Connection c, List<OrderUpdate> updates) throws SQLException {
+        int[] flipped;
+        try (PreparedStatement ps = c.prepareStatement(SQL_FLIP_STAGE)) {
+            for (OrderUpdate u : updates) {
+                String value = u.isCompleted() ? "Yes" : "No";
+                ps.setString(1, value);
+                ps.setInt(2, u.getOrderId());
+                ps.setString(3, u.getStage());
+                ps.setString(4, value);
+                ps.addBatch();
+            }
+            flipped = ps.executeBatch();
+        }
+
+        boolean[] ok = new boolean[updates.size()];
+        Map<Integer, Integer> deltaByOrder = new LinkedHashMap<>();
+
+        for (int i = 0; i < ok.length; i++) {
+            OrderUpdate u = updates.get(i);
+            if (flipped[i] <= 0) {
+                // Already in the requested state (success) or no such stage (failure)
+                ok[i] = stageExists(c, u.getOrderId(), u.getStage());
+                continue;
+            }
+            ok[i] = true;
+
+            // Only the 11 official stages count towards progress
+            if (OFFICIAL_STAGES.contains(u.getStage())) {
+                deltaByOrder.merge(u.getOrderId(), u.isCompleted() ? 1 : -1, Integer::sum);
+            }
+        }
+
+        // One progress/status update per order, however many of its stages were ticked
+        for (Map.Entry<Integer, Integer> e : deltaByOrder.entrySet()) {
+            if (e.getValue() != 0) applyStageDelta(c, e.getKey(), e.getValue());
+        }
+        return ok;
+    }
+
+    static final String SQL_STAGE_EXISTS = "SELECT 1 FROM order_stages WHERE order_id = ? AND stage_name = ?";
+
+    private boolean stageExists(Connection c, int orderId, String stageName) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(SQL_STAGE_EXISTS)) {
+            ps.setInt(1, orderId);
+            ps.setString(2, stageName);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     public boolean markStageAsCompleted(int orderId, String stageName) {
         return setStageCompletion(orderId, stageName, true);
     }
@@ -292,20 +541,13 @@ public class OrderDAO {
     }
 
     // ---------- STAGES FOR CUSTOMER TRACKING (NO EMPLOYEE) ----------
-    public List<StageRow> listStagesForCustomerTracking(int orderId) {
-        ensureOrderStagesExist(orderId);
-        try {
-            recalculateAndUpdateOrderProgress(orderId);
-        } catch (SQLException e) {
-            System.err.println("❌ Progress recalc failed for order #" + orderId + ": " + e.getMessage());
-            e.printStackTrace();
-        }
+    static final String SQL_STAGES_FOR_TRACKING = "SELECT stage_name, completed FROM order_stages WHERE order_id = ?";
 
+    public List<StageRow> listStagesForCustomerTracking(int orderId) {
         Map<String, String> doneByStage = new HashMap<>();
-        String sql = "SELECT stage_name, completed FROM order_stages WHERE order_id = ?";
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_STAGES_FOR_TRACKING)) {
 
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -338,22 +580,21 @@ public class OrderDAO {
     }
 
     // ---------- STAGES FOR ADMIN/OWNER (shows employee name) ----------
-    public List<StageRow> listStagesForOrder(int orderId) {
-        ensureOrderStagesExist(orderId);
+    static final String SQL_STAGES_FOR_ORDER = """
+        SELECT s.stage_name,
+               COALESCE(u.user_name, 'Unassigned') AS employee_name,
+               s.completed
+        FROM order_stages s
+        LEFT JOIN users u ON s.employee_id = u.user_id
+        WHERE s.order_id = ?
+        ORDER BY s.stage_id
+        """;
 
+    public List<StageRow> listStagesForOrder(int orderId) {
         List<StageRow> stages = new ArrayList<>();
-        String sql = """
-            SELECT s.stage_name,
-                   COALESCE(u.user_name, 'Unassigned') AS employee_name,
-                   s.completed
-            FROM order_stages s
-            LEFT JOIN users u ON s.employee_id = u.user_id
-            WHERE s.order_id = ?
-            ORDER BY s.stage_id
-        """;
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_STAGES_FOR_ORDER)) {
 
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -374,21 +615,22 @@ public class OrderDAO {
     }
 
     // ---------- EMPLOYEE VIEW ----------
+    static final String SQL_TASKS_FOR_EMPLOYEE = """
+        SELECT o.order_id, s.stage_name, p.name AS product_name,
+               u.user_name AS customer_name, s.completed
+        FROM order_stages s
+        JOIN orders o ON s.order_id = o.order_id
+        JOIN products p ON o.product_id = p.product_id
+        JOIN users u ON o.user_id = u.user_id
+        WHERE s.employee_id = ?
+        ORDER BY o.order_id DESC
+        """;
+
     public List<AssignedTask> listTasksAssignedToEmployee(int employeeId) {
         List<AssignedTask> list = new ArrayList<>();
-        String sql = """
-            SELECT o.order_id, s.stage_name, p.name AS product_name,
-                   u.user_name AS customer_name, s.completed
-            FROM order_stages s
-            JOIN orders o ON s.order_id = o.order_id
-            JOIN products p ON o.product_id = p.product_id
-            JOIN users u ON o.user_id = u.user_id
-            WHERE s.employee_id = ?
-            ORDER BY o.order_id DESC
-        """;
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_TASKS_FOR_EMPLOYEE)) {
 
             ps.setInt(1, employeeId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -410,81 +652,210 @@ public class OrderDAO {
         return list;
     }
 
-    // Progress out of 11 calculation
-    private void recalculateAndUpdateOrderProgress(int orderId) throws SQLException {
-
-        try (Connection c = DatabaseConnection.getConnection()) {
-
-            // Make sure all 11 official stages exist (same connection)
-            ensureOrderStagesExist(c, orderId);
+    // ---------- PROGRESS COUNTER ----------
+    // orders.stages_done is moved by +1/-1 in the same transaction as the stage flip;
+    // progress is derived from it here, and status from progress by trigger.
+    static final String SQL_APPLY_STAGE_DELTA = """
+        UPDATE orders
+        SET stages_done = MAX(0, MIN(%1$d, stages_done + ?)),
+            progress    = CAST(ROUND(MAX(0, MIN(%1$d, stages_done + ?)) * 100.0 / %1$d) AS INTEGER)
+        WHERE order_id = ?
+        """.formatted(STAGES.length);
+
+    private void applyStageDelta(Connection c, int orderId, int delta) throws SQLException {
+        try (PreparedStatement up = c.prepareStatement(SQL_APPLY_STAGE_DELTA)) {
+            up.setInt(1, delta);
+            up.setInt(2, delta);
+            up.setInt(3, orderId);
+            up.executeUpdate();
+        }
+    }
 
-            // Read stage completion (same connection)
-            Map<String, String> doneByStage = new HashMap<>();
-            String readSql = "SELECT stage_name, completed FROM order_stages WHERE order_id = ?";
+    /**
+     * One-shot: adds orders.delivery_date and fills it for existing orders with the
+     * same rule createOrder uses, plus an index for "due between" lookups.
+     */
+    static void backfillDeliveryDates(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "orders", "delivery_date", "TEXT");
+
+        st.executeUpdate("""
+            UPDATE orders
+            SET delivery_date = COALESCE(
+                    (SELECT %s FROM products p WHERE p.product_id = orders.product_id),
+                    date_ordered)
+            WHERE delivery_date IS NULL
+        """.formatted(DELIVERY_DATE_TEMPLATE.formatted("orders.date_ordered")));
+
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_delivery ON orders(delivery_date)");
+    }
 
-            try (PreparedStatement ps = c.prepareStatement(readSql)) {
-                ps.setInt(1, orderId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        String stage = canonicalStageName(rs.getString("stage_name"));
-                        String completed = rs.getString("completed");
+    /**
+     * One-shot: adds orders.stages_done, normalizes stage flags to exactly 'Yes'/'No'
+     * (the conditional flip compares them verbatim) and seeds counter + progress.
+     */
+    static void backfillStageCounters(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "orders", "stages_done", "INTEGER NOT NULL DEFAULT 0");
 
-                        // if duplicates exist, keep Yes if any row is Yes
-                        String existing = doneByStage.get(stage);
-                        if ("Yes".equalsIgnoreCase(existing)) continue;
+        st.executeUpdate("""
+            UPDATE order_stages
+            SET completed = CASE WHEN LOWER(TRIM(completed)) = 'yes' THEN 'Yes' ELSE 'No' END
+            WHERE completed IS NULL OR completed NOT IN ('Yes', 'No')
+        """);
+
+        st.executeUpdate("""
+            UPDATE orders SET stages_done = (
+                SELECT COUNT(DISTINCT s.stage_name)
+                FROM order_stages s
+                WHERE s.order_id = orders.order_id
+                  AND s.completed = 'Yes'
+                  AND s.stage_name IN (%1$s)
+            )
+        """.formatted(stageNameList()));
+
+        st.executeUpdate("""
+            UPDATE orders SET progress = CAST(ROUND(stages_done * 100.0 / %d) AS INTEGER)
+        """.formatted(STAGES.length));
+    }
 
-                        doneByStage.put(stage, completed);
-                    }
-                }
-            }
+    private static String stageNameList() {
+        StringJoiner names = new StringJoiner(", ");
+        for (String stage : STAGES) names.add("'" + stage.replace("'", "''") + "'");
+        return names.toString();
+    }
 
-            int done = 0;
-            for (String s : STAGES) {
-                if ("Yes".equalsIgnoreCase(doneByStage.getOrDefault(s, "No"))) done++;
-            }
+    // ---------- STATUS HELPERS ----------
+    // Status is derived from progress (see triggers below):
+    // 100 -> COMPLETED, 0 -> PENDING, otherwise PROCESSING
+    private static final String STATUS_FROM_PROGRESS = """
+        CASE
+          WHEN %1$sprogress >= 100 THEN 'COMPLETED'
+          WHEN COALESCE(%1$sprogress, 0) <= 0 THEN 'PENDING'
+          ELSE 'PROCESSING'
+        END
+    """;
 
-            int progress = (int) Math.round((done * 100.0) / STAGES.length);
+    private static final String SQL_RECONCILE_STATUSES =
+            "UPDATE orders SET status = (" + STATUS_FROM_PROGRESS.formatted("") + ") " +
+            "WHERE status IS NOT (" + STATUS_FROM_PROGRESS.formatted("") + ")";
+
+    /**
+     * Makes orders.status a pure function of orders.progress:
+     * - triggers fix the status on every INSERT and on every UPDATE of progress/status
+     * - one set-based UPDATE repairs any rows written before the triggers existed
+     */
+    static void installStatusInvariant(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'orders'")) {
+            if (!rs.next()) return; // brand-new DB: schema not created yet
+        }
 
-            // Canonical status derived from progress
-            String status = canonicalStatusFromProgress(progress);
+        String expr = STATUS_FROM_PROGRESS.formatted("NEW.");
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_orders_status_ins
+            AFTER INSERT ON orders
+            WHEN NEW.status IS NOT (%1$s)
+            BEGIN
+                UPDATE orders SET status = (%1$s) WHERE order_id = NEW.order_id;
+            END
+        """.formatted(expr));
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_orders_status_upd
+            AFTER UPDATE OF progress, status ON orders
+            WHEN NEW.status IS NOT (%1$s)
+            BEGIN
+                UPDATE orders SET status = (%1$s) WHERE order_id = NEW.order_id;
+            END
+        """.formatted(expr));
+
+        int fixed = st.executeUpdate(SQL_RECONCILE_STATUSES);
+        if (fixed > 0) System.out.println("✅ Reconciled status on " + fixed + " order(s)");
+    }
 
-            // Update orders.progress + orders.status (same connection)
-            try (PreparedStatement up = c.prepareStatement("UPDATE orders SET progress = ?, status = ? WHERE order_id = ?")) {
-                up.setInt(1, progress);
-                up.setString(2, status);
-                up.setInt(3, orderId);
-                up.executeUpdate();
-            }
+    /** On-demand batch reconciliation (single UPDATE). Returns the number of rows fixed, or -1 on error. */
+    public int reconcileOrderStatuses() {
+        try {
+            return WriteQueue.execute(c -> {
+                try (Statement st = c.createStatement()) {
+                    return st.executeUpdate(SQL_RECONCILE_STATUSES);
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("❌ reconcileOrderStatuses: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
         }
     }
 
-    // ---------- STATUS HELPERS ----------
-    private String canonicalStatusFromProgress(int progress) {
-        if (progress >= 100) return "COMPLETED";
-        if (progress <= 0) return "PENDING";
-        return "PROCESSING";
+    // ---------- STAGE TIMESTAMPS ----------
+    /**
+     * One-shot: order_stages.completed_at (unix seconds) set by trigger whenever a stage flips to done
+     * (cleared when it is reopened), and assigned_at refreshed whenever the employee changes, so the
+     * two bracket the work an employee actually did. ProductionScheduler learns stage durations from them.
+     *
+     * Stages completed before this migration have no completion time (history starts now).
+     */
+    static void installStageTimestamps(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "order_stages", "completed_at", "INTEGER");
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_order_stages_completed_at
+            AFTER UPDATE OF completed ON order_stages
+            WHEN (LOWER(COALESCE(NEW.completed,'no')) = 'yes') IS NOT (LOWER(COALESCE(OLD.completed,'no')) = 'yes')
+            BEGIN
+                UPDATE order_stages
+                SET completed_at = CASE WHEN LOWER(NEW.completed) = 'yes' THEN CAST(strftime('%s','now') AS INTEGER) END
+                WHERE stage_id = NEW.stage_id;
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_order_stages_assigned_at
+            AFTER UPDATE OF employee_id ON order_stages
+            WHEN NEW.employee_id IS NOT OLD.employee_id
+            BEGIN
+                UPDATE order_stages SET assigned_at = CURRENT_TIMESTAMP WHERE stage_id = NEW.stage_id;
+            END
+        """);
+
+        // Learning window scans: "stages completed since ..."
+        st.execute("""
+            CREATE INDEX IF NOT EXISTS idx_order_stages_completed_at
+            ON order_stages(completed_at) WHERE completed_at IS NOT NULL
+        """);
     }
 
-    private void updateOrderStatusOnly(int orderId, String status) {
-        String sql = "UPDATE orders SET status = ? WHERE order_id = ?";
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, status);
-            ps.setInt(2, orderId);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("⚠️ updateOrderStatusOnly: " + e.getMessage());
-        }
+    /**
+     * One-shot: order_stages.reopened_at (unix seconds), stamped when a done stage is set back to
+     * not done; completed_at is cleared at the same moment and stamped again on re-completion.
+     * Replaces the completed_at trigger so both columns are written by one statement per transition.
+     */
+    static void installReopenTimestamps(Statement st) throws SQLException {
+        SchemaMigrations.addColumnIfMissing(st, "order_stages", "reopened_at", "INTEGER");
+
+        st.execute("DROP TRIGGER IF EXISTS trg_order_stages_completed_at");
+        st.execute("""
+            CREATE TRIGGER trg_order_stages_completed_at
+            AFTER UPDATE OF completed ON order_stages
+            WHEN (LOWER(COALESCE(NEW.completed,'no')) = 'yes') IS NOT (LOWER(COALESCE(OLD.completed,'no')) = 'yes')
+            BEGIN
+                UPDATE order_stages
+                SET completed_at = CASE WHEN LOWER(NEW.completed) = 'yes' THEN CAST(strftime('%s','now') AS INTEGER) END,
+                    reopened_at  = CASE WHEN LOWER(NEW.completed) = 'yes' THEN reopened_at
+                                        ELSE CAST(strftime('%s','now') AS INTEGER) END
+                WHERE stage_id = NEW.stage_id;
+            END
+        """);
     }
 
-    public Map<String, Integer> getAssignedEmployeeIdsForOrder(int orderId) {
-        ensureOrderStagesExist(orderId);
+    static final String SQL_ASSIGNED_FOR_ORDER = "SELECT stage_name, employee_id FROM order_stages WHERE order_id = ?";
 
+    public Map<String, Integer> getAssignedEmployeeIdsForOrder(int orderId) {
         Map<String, Integer> map = new HashMap<>();
-        String sql = "SELECT stage_name, employee_id FROM order_stages WHERE order_id = ?";
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_ASSIGNED_FOR_ORDER)) {
 
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -501,62 +872,105 @@ public class OrderDAO {
         return map;
     }
 
-    private boolean ensureOrderStagesExist(Connection c, int orderId) throws SQLException {
-        String fetchSql = "SELECT stage_name FROM order_stages WHERE order_id = ?";
+    // ---------- STAGE ROWS ----------
+    private void insertStagesForNewOrder(Connection c, int orderId) throws SQLException {
         String insertSql = "INSERT INTO order_stages (order_id, stage_name, employee_id, completed) VALUES (?, ?, NULL, 'No')";
 
-        Set<String> existing = new HashSet<>();
-        try (PreparedStatement ps = c.prepareStatement(fetchSql)) {
-            ps.setInt(1, orderId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    existing.add(canonicalStageName(rs.getString("stage_name")));
-                }
-            }
-        }
-
         try (PreparedStatement ins = c.prepareStatement(insertSql)) {
-            boolean any = false;
             for (String stage : STAGES) {
-                if (!existing.contains(stage)) {
-                    ins.setInt(1, orderId);
-                    ins.setString(2, stage);
-                    ins.addBatch();
-                    any = true;
-                }
+                ins.setInt(1, orderId);
+                ins.setString(2, stage);
+                ins.addBatch();
             }
-            if (any) ins.executeBatch();
+            ins.executeBatch();
         }
-
-        return true;
     }
 
-    // DELETE ORDER
-    public boolean deleteOrder(int orderId) {
-        String delStages = "DELETE FROM order_stages WHERE order_id = ?";
-        String delOrder  = "DELETE FROM orders WHERE order_id = ?";
+    // Legacy spellings of "Raw Material Procurement" found in older databases
+    private static final String LEGACY_RAW_MATERIAL_NAMES = """
+        'Raw Material Procurement and Management',
+        'Raw material procedure and management'
+    """;
 
-        try (Connection c = DatabaseConnection.getConnection()) {
-            c.setAutoCommit(false);
+    /**
+     * One-shot backfill for orders created before stages were inserted by createOrder:
+     * 1) folds legacy stage spellings into the canonical name (a "Yes" on either row wins)
+     * 2) inserts any of the 11 official stages still missing, in stage order
+     * 3) recomputes progress for every order with one UPDATE
+     */
+    static void backfillOrderStages(Statement st) throws SQLException {
+        String canonicalRaw = STAGES[0];
+
+        st.executeUpdate("""
+            UPDATE order_stages SET completed = 'Yes'
+            WHERE stage_name = '%1$s'
+              AND EXISTS (SELECT 1 FROM order_stages l
+                          WHERE l.order_id = order_stages.order_id
+                            AND l.stage_name COLLATE NOCASE IN (%2$s)
+                            AND l.completed = 'Yes')
+        """.formatted(canonicalRaw, LEGACY_RAW_MATERIAL_NAMES));
+
+        st.executeUpdate("""
+            DELETE FROM order_stages
+            WHERE stage_name COLLATE NOCASE IN (%2$s)
+              AND EXISTS (SELECT 1 FROM order_stages k
+                          WHERE k.order_id = order_stages.order_id
+                            AND k.stage_name = '%1$s')
+        """.formatted(canonicalRaw, LEGACY_RAW_MATERIAL_NAMES));
+
+        // OR IGNORE + cleanup: two legacy rows on one order cannot both take the canonical name
+        st.executeUpdate("""
+            UPDATE OR IGNORE order_stages SET stage_name = '%1$s'
+            WHERE stage_name COLLATE NOCASE IN (%2$s)
+        """.formatted(canonicalRaw, LEGACY_RAW_MATERIAL_NAMES));
+
+        st.executeUpdate("DELETE FROM order_stages WHERE stage_name COLLATE NOCASE IN (%s)".formatted(LEGACY_RAW_MATERIAL_NAMES));
+
+        // One INSERT per stage keeps stage_id in official stage order for each order
+        int inserted = 0;
+        for (String stage : STAGES) {
+            String lit = stage.replace("'", "''");
+            inserted += st.executeUpdate("""
+                INSERT INTO order_stages (order_id, stage_name, employee_id, completed)
+                SELECT o.order_id, '%1$s', NULL, 'No'
+                FROM orders o
+                WHERE NOT EXISTS (SELECT 1 FROM order_stages s
+                                  WHERE s.order_id = o.order_id AND s.stage_name = '%1$s')
+                ORDER BY o.order_id
+            """.formatted(lit));
+        }
 
-            try (PreparedStatement ps1 = c.prepareStatement(delStages);
-                 PreparedStatement ps2 = c.prepareStatement(delOrder)) {
+        st.executeUpdate("""
+            UPDATE orders SET progress = (
+                SELECT CAST(ROUND(COUNT(DISTINCT s.stage_name) * 100.0 / %1$d) AS INTEGER)
+                FROM order_stages s
+                WHERE s.order_id = orders.order_id
+                  AND s.completed = 'Yes'
+                  AND s.stage_name IN (%2$s)
+            )
+        """.formatted(STAGES.length, stageNameList()));
+
+        if (inserted > 0) System.out.println("✅ Backfilled " + inserted + " missing order stage row(s)");
+    }
 
-                ps1.setInt(1, orderId);
-                ps1.executeUpdate();
+    // DELETE ORDER
+    static final String SQL_DELETE_ORDER_STAGES = "DELETE FROM order_stages WHERE order_id = ?";
+    static final String SQL_DELETE_ORDER = "DELETE FROM orders WHERE order_id = ?";
 
-                ps2.setInt(1, orderId);
-                int rows = ps2.executeUpdate();
+    public boolean deleteOrder(int orderId) {
+        // Both deletes run in one queued unit, so they commit (or roll back) together
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps1 = c.prepareStatement(SQL_DELETE_ORDER_STAGES);
+                     PreparedStatement ps2 = c.prepareStatement(SQL_DELETE_ORDER)) {
 
-                c.commit();
-                return rows > 0;
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            } finally {
-                c.setAutoCommit(true);
-            }
+                    ps1.setInt(1, orderId);
+                    ps1.executeUpdate();
 
+                    ps2.setInt(1, orderId);
+                    return ps2.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("❌ deleteOrder: " + e.getMessage());
             e.printStackTrace();
@@ -5,32 +5,60 @@ import com.kanchancast.model.Product;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Product DAO
  * ✅ Supports: stone_weight, duration_amount, duration_unit
+ *
+ * Catalog reads (listAll / listByType / getProduct) are served from an in-memory
+ * snapshot that is loaded once and dropped by every product/category write made
+ * through this DAO. Returned Products are shared: treat them as read-only.
  */
 public class ProductDAO {
 
-    private static final String SQL_SELECT_ALL = """
-        SELECT
-            product_id,
-            name,
-            type,
-            karat,
-            weight,
-            COALESCE(stone_weight, 0) AS stone_weight,
-            price,
-            image_path,
-            description,
-            COALESCE(duration_amount, 0) AS duration_amount,
-            COALESCE(duration_unit, 'DAYS') AS duration_unit
-        FROM products
-        ORDER BY product_id DESC
-        """;
+    // ---------- CATALOG SNAPSHOT ----------
+
+    /** Immutable view of the products table at one point in time. */
+    public static final class Catalog {
+        private final long version;
+        private final List<Product> all;
+        private final Map<String, List<Product>> byType;
+        private final Map<Integer, Product> byId;
+
+        private Catalog(long version, List<Product> rows) {
+            this.version = version;
+            this.all = Collections.unmodifiableList(rows);
+
+            Map<String, List<Product>> types = new LinkedHashMap<>();
+            Map<Integer, Product> ids = new HashMap<>(rows.size() * 2);
+            for (Product p : rows) {
+                types.computeIfAbsent(typeKey(p.getType()), k -> new ArrayList<>()).add(p);
+                ids.put(p.getProductId(), p);
+            }
+            types.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+            this.byType = Collections.unmodifiableMap(types);
+            this.byId = Collections.unmodifiableMap(ids);
+        }
 
-    private static final String SQL_SELECT_BY_TYPE = """
+        public long getVersion() { return version; }
+        public List<Product> all() { return all; }
+        public List<Product> ofType(String type) { return byType.getOrDefault(typeKey(type), List.of()); }
+        public Product byId(int productId) { return byId.get(productId); }
+    }
+
+    // Bumped by every write; a snapshot is only kept if no write happened while it loaded
+    private static final AtomicLong CATALOG_VERSION = new AtomicLong(1);
+    private static volatile Catalog catalog;
+
+    static final String SQL_SELECT_ALL = """
         SELECT
             product_id,
             name,
@@ -44,7 +72,6 @@ public class ProductDAO {
             COALESCE(duration_amount, 0) AS duration_amount,
             COALESCE(duration_unit, 'DAYS') AS duration_unit
         FROM products
-        WHERE LOWER(type) = LOWER(?)
         ORDER BY product_id DESC
         """;
 
@@ -85,22 +112,23 @@ public class ProductDAO {
     public boolean addProduct(Product p) {
         if (p == null) return false;
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setString(1, nvl(p.getName()));
-            ps.setString(2, nvl(p.getType()));
-            ps.setBigDecimal(3, BigDecimal.valueOf(nvlNum(p.getGoldWeight())));
-            ps.setBigDecimal(4, BigDecimal.valueOf(nvlNum(p.getDiamondWeight())));
-            ps.setBigDecimal(5, BigDecimal.valueOf(nvlNum(p.getStoneWeight())));
-            ps.setBigDecimal(6, BigDecimal.valueOf(p.getPrice()));
-            ps.setString(7, nvl(p.getImagePath()));
-            ps.setString(8, nvl(p.getDescription()));
-            ps.setInt(9, Math.max(0, p.getDurationAmount()));
-            ps.setString(10, normalizeUnit(p.getDurationUnit()));
-
-            int updated = ps.executeUpdate();
-            return updated == 1;
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setString(1, nvl(p.getName()));
+                    ps.setString(2, nvl(p.getType()));
+                    ps.setBigDecimal(3, BigDecimal.valueOf(nvlNum(p.getGoldWeight())));
+                    ps.setBigDecimal(4, BigDecimal.valueOf(nvlNum(p.getDiamondWeight())));
+                    ps.setBigDecimal(5, BigDecimal.valueOf(nvlNum(p.getStoneWeight())));
+                    ps.setBigDecimal(6, BigDecimal.valueOf(p.getPrice()));
+                    ps.setString(7, nvl(p.getImagePath()));
+                    ps.setString(8, nvl(p.getDescription()));
+                    ps.setInt(9, Math.max(0, p.getDurationAmount()));
+                    ps.setString(10, normalizeUnit(p.getDurationUnit()));
+
+                    return ps.executeUpdate() == 1;
+                }
+            }) && invalidateCatalog();
 
         } catch (SQLException e) {
             System.err.println("❌ Error adding product: " + e.getMessage());
@@ -109,91 +137,267 @@ public class ProductDAO {
         return false;
     }
 
+    static final String SQL_DELETE_PRODUCT_STAGES = """
+        DELETE FROM order_stages
+        WHERE order_id IN (SELECT order_id FROM orders WHERE product_id = ?)
+        """;
+    static final String SQL_DELETE_PRODUCT_ORDERS = "DELETE FROM orders WHERE product_id = ?";
+    static final String SQL_DELETE_PRODUCT = "DELETE FROM products WHERE product_id = ?";
+
     /** Delete a product by ID (also deletes any linked orders + their stage rows) */
     public boolean deleteProduct(int productId) {
+        // All three deletes are one queued unit: they commit or roll back together
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps1 = c.prepareStatement(SQL_DELETE_PRODUCT_STAGES);
+                     PreparedStatement ps2 = c.prepareStatement(SQL_DELETE_PRODUCT_ORDERS);
+                     PreparedStatement ps3 = c.prepareStatement(SQL_DELETE_PRODUCT)) {
 
-        String delStagesForProductOrders = """
-            DELETE FROM order_stages
-            WHERE order_id IN (SELECT order_id FROM orders WHERE product_id = ?)
-        """;
+                    ps1.setInt(1, productId);
+                    ps1.executeUpdate();
 
-        String delOrdersForProduct = "DELETE FROM orders WHERE product_id = ?";
-        String delProduct = "DELETE FROM products WHERE product_id = ?";
+                    ps2.setInt(1, productId);
+                    ps2.executeUpdate();
 
-        try (Connection c = DatabaseConnection.getConnection()) {
-            c.setAutoCommit(false);
+                    ps3.setInt(1, productId);
+                    return ps3.executeUpdate() > 0;
+                }
+            }) && invalidateCatalog();
 
-            try (PreparedStatement ps1 = c.prepareStatement(delStagesForProductOrders);
-                 PreparedStatement ps2 = c.prepareStatement(delOrdersForProduct);
-                 PreparedStatement ps3 = c.prepareStatement(delProduct)) {
+        } catch (SQLException e) {
+            System.err.println("❌ Error deleting product: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-                ps1.setInt(1, productId);
-                ps1.executeUpdate();
+    public List<Product> listAll() {
+        return catalog().all();
+    }
 
-                ps2.setInt(1, productId);
-                ps2.executeUpdate();
+    public List<Product> listALL() { return listAll(); }
 
-                ps3.setInt(1, productId);
-                int rows = ps3.executeUpdate();
+    public List<Product> listByType(String type) {
+        return catalog().ofType(type);
+    }
 
-                c.commit();
-                return rows > 0;
+    /** Product by id from the snapshot, or null. */
+    public Product getProduct(int productId) {
+        return catalog().byId(productId);
+    }
+
+    /** Current snapshot (loads it if a write dropped the previous one). */
+    public Catalog catalog() {
+        Catalog snap = catalog;
+        if (snap != null) return snap;
 
+        synchronized (ProductDAO.class) {
+            snap = catalog;
+            if (snap != null) return snap;
+
+            long version = CATALOG_VERSION.get();
+            try {
+                snap = new Catalog(version, queryAll());
             } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            } finally {
-                c.setAutoCommit(true);
+                // Not kept: the next read tries again instead of serving an empty catalog until a write
+                System.err.println("❌ Error listing all products: " + e.getMessage());
+                e.printStackTrace();
+                return new Catalog(version, List.of());
             }
 
-        } catch (SQLException e) {
-            System.err.println("❌ Error deleting product: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            // A write committed while we were reading: hand this one out but don't keep it
+            if (CATALOG_VERSION.get() == version) catalog = snap;
+            return snap;
         }
     }
 
-    public List<Product> listAll() {
+    /** Version of the catalog as of now; changes after every product/category write. */
+    public static long catalogVersion() {
+        return CATALOG_VERSION.get();
+    }
+
+    /** Drops the snapshot; the next read reloads it. Returns true so writes can chain it. */
+    public static synchronized boolean invalidateCatalog() {
+        CATALOG_VERSION.incrementAndGet();
+        catalog = null;
+        return true;
+    }
+
+    private List<Product> queryAll() throws SQLException {
         List<Product> out = new ArrayList<>();
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(SQL_SELECT_ALL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) out.add(map(rs));
-        } catch (SQLException e) {
-            System.err.println("❌ Error listing all products: " + e.getMessage());
-            e.printStackTrace();
         }
         return out;
     }
 
-    public List<Product> listALL() { return listAll(); }
+    public List<Product> listAll(String category) {
+        if (category == null || category.equalsIgnoreCase("all")) {
+            return listAll();
+        }
+        return listByType(category);
+    }
+
+    // ---------- FULL-TEXT SEARCH ----------
+
+    static final String SQL_SEARCH = """
+        SELECT rowid
+        FROM products_fts
+        WHERE products_fts MATCH ?
+        ORDER BY bm25(products_fts, 10.0, 4.0, 1.0)   -- name > type > description
+        LIMIT ?
+        """;
+
+    // false if this SQLite build has no FTS5 or the DB has no products_fts (search then scans the snapshot)
+    private static volatile boolean ftsAvailable = true;
+
+    /**
+     * Ranked product search over name, type and description.
+     * Every word must match, each as a word prefix, so a half-typed word
+     * already hits ("neck gol" finds "Gold Necklace"). Blank query = empty list.
+     */
+    public List<Product> search(String query, int limit) {
+        List<String> terms = searchTerms(query);
+        if (terms.isEmpty()) return List.of();
+        int max = Math.max(1, limit);
+
+        Catalog snap = catalog();
+        if (!ftsAvailable) return scanCatalog(snap, terms, max);
+
+        StringBuilder match = new StringBuilder();
+        for (String t : terms) {
+            if (match.length() > 0) match.append(' ');
+            match.append('"').append(t).append("\"*");
+        }
 
-    public List<Product> listByType(String type) {
         List<Product> out = new ArrayList<>();
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL_SELECT_BY_TYPE)) {
-            ps.setString(1, nvl(type));
+             PreparedStatement ps = c.prepareStatement(SQL_SEARCH)) {
+            ps.setString(1, match.toString());
+            ps.setInt(2, max);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) out.add(map(rs));
+                while (rs.next()) {
+                    Product p = snap.byId(rs.getInt(1));
+                    if (p != null) out.add(p);
+                }
             }
         } catch (SQLException e) {
-            System.err.println("❌ Error listing products by type: " + e.getMessage());
-            e.printStackTrace();
+            // Only a missing module/table is permanent; BUSY and friends fall back for this call only
+            if (ftsMissing(e)) ftsAvailable = false;
+            System.err.println("⚠️ FTS search failed, scanning catalog instead: " + e.getMessage());
+            return scanCatalog(snap, terms, max);
         }
         return out;
     }
 
-    public List<Product> listAll(String category) {
-        if (category == null || category.equalsIgnoreCase("all")) {
-            return listAll();
+    /**
+     * Creates the products_fts index (external content = products) and the triggers
+     * that keep it in sync. Fills it once when first created.
+     */
+    static void installSearchIndex(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery(
+                "SELECT name FROM sqlite_master WHERE name IN ('products', 'products_fts')")) {
+            boolean hasProducts = false, hasIndex = false;
+            while (rs.next()) {
+                if ("products".equals(rs.getString(1))) hasProducts = true;
+                else hasIndex = true;
+            }
+            if (!hasProducts) return; // brand-new DB: schema not created yet
+            if (hasIndex) return;
         }
-        return listByType(category);
+
+        try {
+            st.execute("""
+                CREATE VIRTUAL TABLE products_fts USING fts5(
+                    name, type, description,
+                    content = 'products',
+                    content_rowid = 'product_id',
+                    tokenize = 'unicode61 remove_diacritics 2'
+                )
+            """);
+        } catch (SQLException e) {
+            if (!ftsMissing(e)) throw e;
+            System.err.println("⚠️ FTS5 not available, product search will scan: " + e.getMessage());
+            ftsAvailable = false;
+            return;
+        }
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_products_fts_ins
+            AFTER INSERT ON products
+            BEGIN
+                INSERT INTO products_fts(rowid, name, type, description)
+                VALUES (NEW.product_id, NEW.name, NEW.type, NEW.description);
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_products_fts_del
+            AFTER DELETE ON products
+            BEGIN
+                INSERT INTO products_fts(products_fts, rowid, name, type, description)
+                VALUES ('delete', OLD.product_id, OLD.name, OLD.type, OLD.description);
+            END
+        """);
+
+        st.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_products_fts_upd
+            AFTER UPDATE OF name, type, description ON products
+            BEGIN
+                INSERT INTO products_fts(products_fts, rowid, name, type, description)
+                VALUES ('delete', OLD.product_id, OLD.name, OLD.type, OLD.description);
+                INSERT INTO products_fts(rowid, name, type, description)
+                VALUES (NEW.product_id, NEW.name, NEW.type, NEW.description);
+            END
+        """);
+
+        st.execute("INSERT INTO products_fts(products_fts) VALUES ('rebuild')");
+    }
+
+    // "no such module: fts5" / "no such table: products_fts": retrying can't help
+    private static boolean ftsMissing(SQLException e) {
+        String msg = String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT);
+        return msg.contains("no such module") || msg.contains("no such table");
+    }
+
+    // Letters/digits only: keeps FTS query syntax (quotes, *, NEAR, -) out of user input
+    private static List<String> searchTerms(String query) {
+        List<String> out = new ArrayList<>();
+        if (query == null) return out;
+        for (String t : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) out.add(t);
+        }
+        return out;
+    }
+
+    private static List<Product> scanCatalog(Catalog snap, List<String> terms, int limit) {
+        List<Product> out = new ArrayList<>();
+        for (Product p : snap.all()) {
+            String text = (nvl(p.getName()) + " " + nvl(p.getType()) + " " + nvl(p.getDescription()))
+                    .toLowerCase(Locale.ROOT);
+            boolean all = true;
+            for (String t : terms) {
+                if (!text.contains(t)) { all = false; break; }
+            }
+            if (all) {
+                out.add(p);
+                if (out.size() >= limit) break;
+            }
+        }
+        return out;
     }
 
     // ---------------- Helpers ----------------
     private static String nvl(String s) { return (s == null) ? "" : s; }
     private static double nvlNum(Double d) { return (d == null) ? 0.0 : d; }
 
+    // Same matching as the old LOWER(type) = LOWER(?) query, ignoring stray whitespace
+    private static String typeKey(String type) {
+        return (type == null) ? "" : type.trim().toLowerCase(Locale.ROOT);
+    }
+
     private static String normalizeUnit(String unit) {
         if (unit == null) return "DAYS";
         String u = unit.trim().toUpperCase();
@@ -233,21 +437,6 @@ public class ProductDAO {
         return out;
     }
 
-    private void ensureCategoriesTable() {
-        final String sql = """
-        CREATE TABLE IF NOT EXISTS product_categories (
-            id INTEGER PRIMARY KEY AUTOINCREMENT,
-            name TEXT UNIQUE NOT NULL
-        )
-        """;
-        try (java.sql.Connection c = DatabaseConnection.getConnection();
-             java.sql.Statement st = c.createStatement()) {
-            st.execute(sql);
-        } catch (java.sql.SQLException e) {
-            System.err.println("⚠️ ensureCategoriesTable: " + e.getMessage());
-        }
-    }
-
     public List<String> getAllCategories() {
         List<String> categories = new ArrayList<>();
         String sql = "SELECT DISTINCT type FROM products ORDER BY type";
@@ -262,7 +451,6 @@ public class ProductDAO {
     }
 
     public java.util.List<String> listAllCategories() {
-        ensureCategoriesTable();
         java.util.List<String> out = new java.util.ArrayList<>();
         final String sql = "SELECT name FROM product_categories ORDER BY name ASC";
         try (java.sql.Connection c = DatabaseConnection.getConnection();
@@ -277,35 +465,41 @@ public class ProductDAO {
 
     public boolean addCategory(String name) {
         if (name == null || name.trim().isEmpty()) return false;
-        ensureCategoriesTable();
         final String sql = "INSERT OR IGNORE INTO product_categories(name) VALUES (?)";
-        try (java.sql.Connection c = DatabaseConnection.getConnection();
-             java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, name.trim());
-            return ps.executeUpdate() > 0;
+        try {
+            return WriteQueue.execute(c -> {
+                try (java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, name.trim());
+                    return ps.executeUpdate() > 0;
+                }
+            }) && invalidateCatalog();
         } catch (java.sql.SQLException e) {
             System.err.println("⚠️ addCategory: " + e.getMessage());
             return false;
         }
     }
 
+    static final String SQL_CATEGORY_IN_USE = "SELECT COUNT(*) FROM products WHERE LOWER(type)=LOWER(?)";
+    static final String SQL_DELETE_CATEGORY = "DELETE FROM product_categories WHERE LOWER(name)=LOWER(?)";
+
     public boolean deleteCategory(String name) {
         if (name == null || name.trim().isEmpty()) return false;
-        ensureCategoriesTable();
-        final String check = "SELECT COUNT(*) FROM products WHERE LOWER(type)=LOWER(?)";
-        final String del   = "DELETE FROM product_categories WHERE LOWER(name)=LOWER(?)";
-        try (java.sql.Connection c = DatabaseConnection.getConnection();
-             java.sql.PreparedStatement ps1 = c.prepareStatement(check)) {
-            ps1.setString(1, name.trim());
-            try (java.sql.ResultSet rs = ps1.executeQuery()) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    return false;
+        try {
+            // Check + delete run in the same queued unit, so no product can slip in between
+            return WriteQueue.execute(c -> {
+                try (java.sql.PreparedStatement ps1 = c.prepareStatement(SQL_CATEGORY_IN_USE)) {
+                    ps1.setString(1, name.trim());
+                    try (java.sql.ResultSet rs = ps1.executeQuery()) {
+                        if (rs.next() && rs.getInt(1) > 0) {
+                            return false;
+                        }
+                    }
                 }
-            }
-            try (java.sql.PreparedStatement ps2 = c.prepareStatement(del)) {
-                ps2.setString(1, name.trim());
-                return ps2.executeUpdate() > 0;
-            }
+                try (java.sql.PreparedStatement ps2 = c.prepareStatement(SQL_DELETE_CATEGORY)) {
+                    ps2.setString(1, name.trim());
+                    return ps2.executeUpdate() > 0;
+                }
+            }) && invalidateCatalog();
         } catch (java.sql.SQLException e) {
             System.err.println("⚠️ deleteCategory: " + e.getMessage());
             return false;
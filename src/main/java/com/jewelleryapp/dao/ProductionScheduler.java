@@ -0,0 +1,320 @@
+package com.jewelleryapp.dao;
+
+import com.kanchancast.model.OrderEta;
+import com.kanchancast.model.StageEnum;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Capacity-based delivery forecast for the open backlog.
+ *
+ * Each employee is a server working one stage at a time; each order flows through its
+ * remaining StageEnum stages in order. Orders are scheduled earliest-promise first: every
+ * stage goes to its assigned employee (or, if unassigned, whichever employee of that work
+ * area can finish it first), starting when both the employee and the previous stage are done.
+ *
+ * Stage durations are learned from the last {@link #HISTORY_DAYS} days of order_stages:
+ * completed_at minus the latest of assigned_at, the order's previous stage, the employee's
+ * previous completion and reopened_at (i.e. time actually spent on it). Without enough
+ * history a stage falls back to the product's planned duration split over the 11 stages.
+ *
+ * Three reads (employees and the open backlog through indexes, durations through
+ * idx_order_stages_completed_at), then an in-memory pass: O(open stages x employees per area).
+ */
+public class ProductionScheduler {
+
+    public static final int HISTORY_DAYS = 90;
+    private static final int MIN_SAMPLES = 3;               // per employee+stage before we trust their own speed
+    private static final double MIN_STAGE_DAYS = 1.0 / 24;  // an hour; guards against instant clicks in the history
+    private static final double DEFAULT_PLAN_DAYS = 11;     // product without a duration: a day per stage
+
+    private static final String[] STAGES = StageEnum.labels();
+
+    /** Queue summary for one stage across the whole backlog. */
+    public record StageLoad(String stage, int openStages, int employees,
+                            double queuedWorkDays, double avgWaitDays, boolean learned) {
+        /** Days of queued work per employee of the area: the bottleneck ranking. */
+        public double daysPerEmployee() {
+            return employees == 0 ? queuedWorkDays : queuedWorkDays / employees;
+        }
+    }
+
+    /** One forecast run. {@code orders} are earliest-promise first, {@code stages} worst queue first. */
+    public record Schedule(List<OrderEta> orders, List<StageLoad> stages, LocalDate asOf, long computeMillis) {
+        public static final Schedule EMPTY = new Schedule(List.of(), List.of(), LocalDate.now(), 0);
+
+        /** The stage with the most queued work per employee, or null when nothing is open. */
+        public StageLoad bottleneck() {
+            return stages.isEmpty() || stages.get(0).openStages() == 0 ? null : stages.get(0);
+        }
+
+        public long lateOrders() {
+            return orders.stream().filter(OrderEta::isLate).count();
+        }
+    }
+
+    // ---------- FORECAST ----------
+    public Schedule forecast() {
+        long t0 = System.nanoTime();
+        LocalDate today = LocalDate.now();
+
+        Map<Integer, OpenOrder> open;
+        Map<Integer, String> areaByEmployee;
+        Durations durations;
+
+        try (Connection c = DatabaseConnection.getConnection()) {
+            durations = loadDurations(c, today.minusDays(HISTORY_DAYS));
+            areaByEmployee = loadEmployees(c);
+            open = loadOpenStages(c);
+        } catch (SQLException e) {
+            System.err.println("❌ forecast: " + e.getMessage());
+            e.printStackTrace();
+            return Schedule.EMPTY;
+        }
+
+        Schedule s = simulate(today, open.values(), areaByEmployee, durations);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        return new Schedule(s.orders(), s.stages(), today, ms);
+    }
+
+    // ---------------- internals ----------------
+
+    private static final class OpenOrder {
+        final int orderId;
+        final String productName;
+        final LocalDate deliveryDate;
+        final double defaultStageDays;
+        final List<int[]> stages = new ArrayList<>(); // {stage index, employee id or -1}
+
+        OpenOrder(int orderId, String productName, LocalDate ordered, LocalDate delivery) {
+            this.orderId = orderId;
+            this.productName = productName;
+            this.deliveryDate = delivery;
+            double plan = (ordered != null && delivery != null) ? ChronoUnit.DAYS.between(ordered, delivery) : 0;
+            this.defaultStageDays = Math.max(MIN_STAGE_DAYS, (plan > 0 ? plan : DEFAULT_PLAN_DAYS) / STAGES.length);
+        }
+    }
+
+    /** Learned days per stage: per employee (if enough samples) and per stage overall. */
+    private static final class Durations {
+        final Map<Long, Double> byEmployeeStage = new HashMap<>();
+        final double[] stageTotalDays = new double[STAGES.length];
+        final int[] stageSamples = new int[STAGES.length];
+
+        static long key(int employeeId, int stage) {
+            return ((long) employeeId << 8) | stage;
+        }
+
+        boolean learned(int stage) {
+            return stageSamples[stage] > 0;
+        }
+
+        double days(int employeeId, int stage, double fallback) {
+            Double own = (employeeId >= 0) ? byEmployeeStage.get(key(employeeId, stage)) : null;
+            if (own != null) return own;
+            if (stageSamples[stage] > 0) return Math.max(MIN_STAGE_DAYS, stageTotalDays[stage] / stageSamples[stage]);
+            return fallback;
+        }
+    }
+
+    // Time on task = completion minus the latest of: assignment, the order's previous stage,
+    // the same employee's previous completion, the stage being reopened.
+    // Orders are limited to those with a recent completion.
+    static final String SQL_DURATIONS = """
+        WITH timed AS (
+            SELECT s.employee_id, s.stage_name, s.completed_at, s.reopened_at,
+                   CAST(strftime('%s', s.assigned_at) AS INTEGER)                            AS assigned_ts,
+                   LAG(s.completed_at) OVER (PARTITION BY s.order_id ORDER BY s.stage_id)       AS upstream_done,
+                   LAG(s.completed_at) OVER (PARTITION BY s.employee_id ORDER BY s.completed_at) AS prev_done
+            FROM order_stages s
+            WHERE s.order_id IN (SELECT r.order_id FROM order_stages r WHERE r.completed_at >= ?)
+        )
+        SELECT employee_id, stage_name, COUNT(*) AS n,
+               TOTAL(MAX(0, completed_at - MAX(COALESCE(assigned_ts, 0),
+                                               COALESCE(upstream_done, 0),
+                                               COALESCE(prev_done, 0),
+                                               COALESCE(reopened_at, 0)))) / 86400.0 AS total_days
+        FROM timed
+        WHERE completed_at >= ? AND employee_id IS NOT NULL
+        GROUP BY employee_id, stage_name
+        """;
+
+    private static Durations loadDurations(Connection c, LocalDate since) throws SQLException {
+        long sinceEpoch = since.toEpochDay() * 86_400L;
+        Map<String, Integer> index = stageIndex();
+        Durations d = new Durations();
+
+        try (PreparedStatement ps = c.prepareStatement(SQL_DURATIONS)) {
+            ps.setLong(1, sinceEpoch);
+            ps.setLong(2, sinceEpoch);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer stage = index.get(rs.getString("stage_name"));
+                    if (stage == null) continue;
+
+                    int n = rs.getInt("n");
+                    double total = rs.getDouble("total_days");
+                    d.stageTotalDays[stage] += total;
+                    d.stageSamples[stage] += n;
+                    if (n >= MIN_SAMPLES) {
+                        d.byEmployeeStage.put(Durations.key(rs.getInt("employee_id"), stage),
+                                Math.max(MIN_STAGE_DAYS, total / n));
+                    }
+                }
+            }
+        }
+        return d;
+    }
+
+    static final String SQL_EMPLOYEES = "SELECT user_id, work_area FROM users WHERE LOWER(user_type) = 'employee'";
+
+    private static Map<Integer, String> loadEmployees(Connection c) throws SQLException {
+        Map<Integer, String> out = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement(SQL_EMPLOYEES);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String area = rs.getString("work_area");
+                out.put(rs.getInt("user_id"), area == null ? "" : area.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return out;
+    }
+
+    // o.progress < 100 is the predicate of the partial index idx_orders_open: reads the open backlog only
+    static final String SQL_OPEN_STAGES = """
+        SELECT o.order_id, p.name AS product_name, o.date_ordered, o.delivery_date,
+               s.stage_name, s.employee_id
+        FROM orders o
+        JOIN order_stages s ON s.order_id = o.order_id
+        LEFT JOIN products p ON p.product_id = o.product_id
+        WHERE o.progress < 100
+          AND LOWER(COALESCE(s.completed,'no')) != 'yes'
+        """;
+
+    private static Map<Integer, OpenOrder> loadOpenStages(Connection c) throws SQLException {
+        Map<String, Integer> index = stageIndex();
+        Map<Integer, OpenOrder> out = new HashMap<>();
+
+        try (PreparedStatement ps = c.prepareStatement(SQL_OPEN_STAGES);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Integer stage = index.get(rs.getString("stage_name"));
+                if (stage == null) continue; // only the 11 official stages are scheduled
+
+                int orderId = rs.getInt("order_id");
+                OpenOrder o = out.get(orderId);
+                if (o == null) {
+                    o = new OpenOrder(orderId, rs.getString("product_name"),
+                            parseDate(rs.getString("date_ordered")), parseDate(rs.getString("delivery_date")));
+                    out.put(orderId, o);
+                }
+                int emp = rs.getInt("employee_id");
+                o.stages.add(new int[]{stage, rs.wasNull() ? -1 : emp});
+            }
+        }
+        return out;
+    }
+
+    private static Schedule simulate(LocalDate today, Collection<OpenOrder> openOrders,
+                                     Map<Integer, String> areaByEmployee, Durations durations) {
+        // Employees per stage (work area == stage label)
+        List<List<Integer>> pools = new ArrayList<>();
+        for (int i = 0; i < STAGES.length; i++) pools.add(new ArrayList<>());
+        areaByEmployee.forEach((emp, area) -> {
+            for (int i = 0; i < STAGES.length; i++) {
+                if (STAGES[i].toLowerCase(Locale.ROOT).equals(area)) pools.get(i).add(emp);
+            }
+        });
+        pools.forEach(Collections::sort);
+
+        List<OpenOrder> orders = new ArrayList<>(openOrders);
+        orders.sort(Comparator
+                .comparing((OpenOrder o) -> o.deliveryDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingInt(o -> o.orderId));
+
+        Map<Integer, Double> freeAt = new HashMap<>(); // employee -> day (from now) they are next idle
+        int[] open = new int[STAGES.length];
+        double[] work = new double[STAGES.length];
+        double[] wait = new double[STAGES.length];
+
+        List<OrderEta> etas = new ArrayList<>(orders.size());
+        for (OpenOrder o : orders) {
+            o.stages.sort(Comparator.comparingInt(s -> s[0]));
+
+            double t = 0;          // when the previous stage of this order is done
+            double orderWait = 0;
+            double worstWait = 0;
+            String bottleneck = null;
+
+            for (int[] s : o.stages) {
+                int stage = s[0];
+                int assigned = s[1];
+
+                List<Integer> candidates = (assigned >= 0 && areaByEmployee.containsKey(assigned))
+                        ? List.of(assigned) : pools.get(stage);
+
+                // Unstaffed stage (no candidates): no queue to model, it just takes the typical time
+                double start = t;
+                double days = durations.days(-1, stage, o.defaultStageDays);
+                int chosen = -1;
+
+                double bestFinish = Double.MAX_VALUE;
+                for (int emp : candidates) {
+                    double st = Math.max(t, freeAt.getOrDefault(emp, 0.0));
+                    double d = durations.days(emp, stage, o.defaultStageDays);
+                    if (st + d < bestFinish) {
+                        bestFinish = st + d;
+                        start = st;
+                        days = d;
+                        chosen = emp;
+                    }
+                }
+                if (chosen >= 0) freeAt.put(chosen, start + days);
+
+                double waited = start - t;
+                open[stage]++;
+                work[stage] += days;
+                wait[stage] += waited;
+                orderWait += waited;
+                if (waited > worstWait) {
+                    worstWait = waited;
+                    bottleneck = STAGES[stage];
+                }
+                t = start + days;
+            }
+
+            if (o.stages.isEmpty()) continue;
+            LocalDate eta = today.plusDays((long) Math.ceil(t - 1e-9));
+            etas.add(new OrderEta(o.orderId, o.productName, o.deliveryDate, eta,
+                    o.stages.size(), bottleneck, orderWait));
+        }
+
+        List<StageLoad> loads = new ArrayList<>(STAGES.length);
+        for (int i = 0; i < STAGES.length; i++) {
+            loads.add(new StageLoad(STAGES[i], open[i], pools.get(i).size(), work[i],
+                    open[i] == 0 ? 0 : wait[i] / open[i], durations.learned(i)));
+        }
+        loads.sort(Comparator.comparingDouble(StageLoad::daysPerEmployee).reversed());
+
+        return new Schedule(etas, loads, today, 0);
+    }
+
+    private static Map<String, Integer> stageIndex() {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < STAGES.length; i++) index.put(STAGES[i], i);
+        return index;
+    }
+
+    private static LocalDate parseDate(String s) {
+        if (s == null || s.length() < 10) return null;
+        try {
+            return LocalDate.parse(s.substring(0, 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.jewelleryapp.dao;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned schema migrations, keyed on PRAGMA user_version.
+ *
+ * - Each migration has a version number; they run in order, once.
+ * - Every pending migration runs in ONE transaction together with the
+ *   user_version bump, so a failure leaves the DB exactly as it was.
+ * - Steps are idempotent (IF NOT EXISTS / column checks), so a DB whose objects were
+ *   created by hand or by older tools still migrates cleanly.
+ * - Once the DB is current, startup costs a single PRAGMA user_version read.
+ *
+ * To change the schema: append a Migration with the next version. Never edit or
+ * renumber one that has shipped.
+ */
+public final class SchemaMigrations {
+
+    @FunctionalInterface
+    interface Step {
+        void apply(Statement st) throws SQLException;
+    }
+
+    /**
+     * One schema version. Its step runs inside migrate()'s transaction, on the migrating
+     * connection's Statement: steps never commit, roll back or open connections themselves.
+     */
+    private record Migration(int version, String description, Step step) {}
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "base tables + order stage backfill", st -> {
+                baseSchema(st);
+                OrderDAO.backfillOrderStages(st);
+                uniqueStageIndex(st);
+            }),
+            new Migration(2, "orders.stages_done counter", OrderDAO::backfillStageCounters),
+            new Migration(3, "orders.status follows progress (triggers)", OrderDAO::installStatusInvariant),
+            new Migration(4, "products_fts search index", ProductDAO::installSearchIndex),
+            new Migration(5, "indexes for the DAO hot paths", SchemaMigrations::hotPathIndexes),
+            new Migration(6, "orders.delivery_date stored at creation", OrderDAO::backfillDeliveryDates),
+            new Migration(7, "order_daily_rollup + orders.completed_date", AnalyticsDAO::installDailyRollup),
+            new Migration(8, "users.dob only (age derived in Java)", UserDAO::retireAgeColumn),
+            new Migration(9, "order_stages.completed_at + assigned_at on reassignment", OrderDAO::installStageTimestamps),
+            new Migration(10, "order_stages.reopened_at", OrderDAO::installReopenTimestamps),
+            new Migration(11, "order_totals + products.order_count (dashboard counters)", AnalyticsDAO::installOrderCounters)
+    );
+
+    public static final int LATEST = MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+
+    private SchemaMigrations() {}
+
+    /**
+     * Brings the DB up to LATEST. Returns the version it started from.
+     * The connection must not be in the middle of a transaction.
+     */
+    public static int migrate(Connection c) throws SQLException {
+        int from;
+        try (Statement st = c.createStatement()) {
+            from = userVersion(st);
+        }
+        if (from >= LATEST) return from;
+
+        boolean oldAutoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+
+        try (Statement st = c.createStatement()) {
+            for (Migration m : MIGRATIONS) {
+                if (m.version() <= from) continue;
+                m.step().apply(st);
+                System.out.println("✅ Schema migration " + m.version() + ": " + m.description());
+            }
+            st.execute("PRAGMA user_version = " + LATEST);
+            c.commit();
+            return from;
+
+        } catch (SQLException e) {
+            try { c.rollback(); } catch (SQLException ignored) {}
+            throw e;
+        } finally {
+            try { c.setAutoCommit(oldAutoCommit); } catch (SQLException ignored) {}
+        }
+    }
+
+    public static int currentVersion(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            return userVersion(st);
+        }
+    }
+
+    // ---------------- Steps ----------------
+
+    /** Every table/column the app reads, created if missing (was dev.EnsureSchema + bootstrap ALTERs). */
+    private static void baseSchema(Statement st) throws SQLException {
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS users (
+                user_id   INTEGER PRIMARY KEY AUTOINCREMENT,
+                user_type TEXT NOT NULL,
+                user_name TEXT NOT NULL UNIQUE,
+                password  TEXT NOT NULL,
+                address   TEXT,
+                gender    TEXT
+            )
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS products (
+                product_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name       TEXT,
+                type       TEXT,
+                karat      REAL,
+                weight     REAL,
+                price      REAL,
+                image_path TEXT
+            )
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS orders (
+                order_id     INTEGER PRIMARY KEY AUTOINCREMENT,
+                user_id      INTEGER NOT NULL,
+                product_id   INTEGER NOT NULL,
+                status       TEXT,
+                date_ordered TEXT,
+                FOREIGN KEY(user_id)    REFERENCES users(user_id),
+                FOREIGN KEY(product_id) REFERENCES products(product_id)
+            )
+        """);
+
+        addColumnIfMissing(st, "users", "user_code", "TEXT");
+        addColumnIfMissing(st, "users", "work_area", "TEXT");
+        addColumnIfMissing(st, "users", "dob", "TEXT");
+
+        addColumnIfMissing(st, "products", "description", "TEXT");
+        addColumnIfMissing(st, "products", "stone_weight", "REAL DEFAULT 0");
+        addColumnIfMissing(st, "products", "duration_amount", "INTEGER DEFAULT 0");
+        addColumnIfMissing(st, "products", "duration_unit", "TEXT DEFAULT 'DAYS'");
+
+        addColumnIfMissing(st, "orders", "progress", "INTEGER DEFAULT 0");
+
+        backfillMissingUserCodes(st);
+        st.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_users_user_code ON users(user_code)");
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS categories (
+                name TEXT PRIMARY KEY
+            )
+        """);
+        st.execute("""
+            INSERT OR IGNORE INTO categories(name)
+            VALUES ('ring'), ('necklace'), ('bracelet'), ('earrings')
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS product_categories (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                name TEXT UNIQUE NOT NULL
+            )
+        """);
+
+        // assignments table (admin picks which employee per stage)
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS order_assignments (
+                order_id    INTEGER NOT NULL,
+                stage       TEXT    NOT NULL,
+                employee_id INTEGER NOT NULL,
+                PRIMARY KEY (order_id, stage),
+                FOREIGN KEY(order_id)    REFERENCES orders(order_id)    ON DELETE CASCADE,
+                FOREIGN KEY(employee_id) REFERENCES users(user_id)      ON DELETE RESTRICT
+            )
+        """);
+
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS order_progress (
+                order_id     INTEGER NOT NULL,
+                stage        TEXT    NOT NULL,
+                completed    INTEGER NOT NULL DEFAULT 0,  -- 0/1
+                completed_at TEXT,
+                PRIMARY KEY (order_id, stage),
+                FOREIGN KEY(order_id) REFERENCES orders(order_id) ON DELETE CASCADE
+            )
+        """);
+
+        // main app uses order_stages
+        st.execute("""
+            CREATE TABLE IF NOT EXISTS order_stages (
+                stage_id    INTEGER PRIMARY KEY AUTOINCREMENT,
+                order_id    INTEGER NOT NULL,
+                stage_name  TEXT    NOT NULL,
+                employee_id INTEGER,
+                assigned_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+                completed   TEXT DEFAULT 'No',
+                FOREIGN KEY(order_id)    REFERENCES orders(order_id) ON DELETE CASCADE,
+                FOREIGN KEY(employee_id) REFERENCES users(user_id)   ON DELETE RESTRICT
+            )
+        """);
+    }
+
+    /** One row per (order, stage): merges exact duplicates (a "Yes" wins), then adds the unique index. */
+    private static void uniqueStageIndex(Statement st) throws SQLException {
+        st.executeUpdate("""
+            UPDATE order_stages
+            SET completed = 'Yes'
+            WHERE completed IS NOT 'Yes'
+              AND EXISTS (SELECT 1 FROM order_stages d
+                          WHERE d.order_id = order_stages.order_id
+                            AND d.stage_name = order_stages.stage_name
+                            AND d.stage_id <> order_stages.stage_id
+                            AND d.completed = 'Yes')
+        """);
+
+        st.executeUpdate("""
+            DELETE FROM order_stages
+            WHERE stage_id NOT IN (SELECT MIN(stage_id) FROM order_stages GROUP BY order_id, stage_name)
+        """);
+
+        st.execute("""
+            CREATE UNIQUE INDEX IF NOT EXISTS idx_order_stages_unique
+            ON order_stages(order_id, stage_name)
+        """);
+    }
+
+    /**
+     * One index per hot predicate (check with dev.QueryPlanAudit after changing DAO SQL).
+     * Expression indexes must match the DAO text exactly, e.g. LOWER(user_type), (progress >= 100).
+     */
+    private static void hotPathIndexes(Statement st) throws SQLException {
+        // orders: customer's list, product delete cascade, admin/owner keyset paging (OrderDAO.listPage,
+        // with and without the status filter), open backlog (ProductionScheduler; partial, so it
+        // only holds unfinished orders)
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_user ON orders(user_id)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_product ON orders(product_id)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_open_first ON orders((progress >= 100), order_id DESC)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status, order_id DESC)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_orders_open ON orders(order_id) WHERE progress < 100");
+
+        // order_stages: employee work list + stats (order_id is covered by idx_order_stages_unique)
+        st.execute("CREATE INDEX IF NOT EXISTS idx_order_stages_employee ON order_stages(employee_id)");
+
+        // users: employees by work area, and the LOWER(user_type) = 'employee' listings
+        st.execute("CREATE INDEX IF NOT EXISTS idx_users_type_area ON users(user_type, work_area)");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_users_type_lower ON users(LOWER(user_type))");
+
+        // products / categories: case-insensitive type lookups
+        st.execute("CREATE INDEX IF NOT EXISTS idx_products_type_lower ON products(LOWER(type))");
+        st.execute("CREATE INDEX IF NOT EXISTS idx_product_categories_lower ON product_categories(LOWER(name))");
+
+        // Fresh statistics so the planner actually picks the new indexes
+        st.execute("ANALYZE");
+    }
+
+    // ---------------- Helpers ----------------
+
+    static void addColumnIfMissing(Statement st, String table, String column, String definition) throws SQLException {
+        if (hasColumn(st, table, column)) return;
+        st.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    static boolean hasColumn(Statement st, String table, String column) throws SQLException {
+        try (ResultSet rs = st.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static int userVersion(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // KC- + 12 base62 chars (same format EnsureSchema used)
+    private static final char[] ALPH = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final SecureRandom RNG = new SecureRandom();
+
+    private static void backfillMissingUserCodes(Statement st) throws SQLException {
+        Connection c = st.getConnection();
+        List<Integer> missing = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery("SELECT user_id FROM users WHERE user_code IS NULL OR user_code = ''")) {
+            while (rs.next()) missing.add(rs.getInt(1));
+        }
+        if (missing.isEmpty()) return;
+
+        try (PreparedStatement check = c.prepareStatement("SELECT 1 FROM users WHERE user_code = ? LIMIT 1");
+             PreparedStatement update = c.prepareStatement("UPDATE users SET user_code = ? WHERE user_id = ?")) {
+            for (int uid : missing) {
+                String code;
+                boolean taken;
+                do {
+                    StringBuilder sb = new StringBuilder("KC-");
+                    for (int i = 0; i < 12; i++) sb.append(ALPH[RNG.nextInt(ALPH.length)]);
+                    code = sb.toString();
+                    check.setString(1, code);
+                    try (ResultSet rs = check.executeQuery()) { taken = rs.next(); }
+                } while (taken);
+
+                update.setString(1, code);
+                update.setInt(2, uid);
+                update.executeUpdate();
+            }
+        }
+        System.out.println("Backfilled user_code for " + missing.size() + " user(s)");
+    }
+}
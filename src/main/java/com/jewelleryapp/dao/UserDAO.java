@@ -3,59 +3,56 @@ package com.jewelleryapp.dao;
 import com.kanchancast.model.User;
 import com.kanchancast.model.StaffRow;
 import com.kanchancast.auth.PasswordUtil;
+import com.kanchancast.util.DobUtil;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * UserDAO – Handles authentication, creation, and listing of users (admins, employees, customers).
- * Supports both plaintext and hashed passwords via PasswordUtil.
+ * Accepts every stored password format PasswordUtil knows (plaintext included) and
+ * upgrades outdated ones to the current hash after a successful login.
  */
 public class UserDAO {
 
     // ==============================
-    // 🧮 DOB → AGE
+    // 🧾 PROJECTIONS
     // ==============================
+    // Each user SELECT names its columns and is read by position by the matching
+    // mapper below (mapDisplay / mapStaff). No SELECT *, no per-column try/catch.
 
-    /** Compute age in full years from an ISO date (YYYY-MM-DD). Returns 0 if invalid. */
-    private static int computeAgeFromDobIso(String dobIso) {
-        if (dobIso == null || dobIso.isBlank()) return 0;
-        try {
-            java.time.LocalDate dob = java.time.LocalDate.parse(dobIso.trim());
-            if (dob.isAfter(java.time.LocalDate.now())) return 0;
-            return java.time.Period.between(dob, java.time.LocalDate.now()).getYears();
-        } catch (Exception ignored) {
-            return 0;
-        }
-    }
+    /** Everything a screen shows about a user. Never includes the password. Age comes from dob in User. */
+    private static final String DISPLAY_COLUMNS =
+            "user_id, user_code, user_name, user_type, address, work_area, gender, dob";
+
+    /** Display columns + stored hash; only the authenticate methods read it. */
+    private static final String AUTH_COLUMNS = DISPLAY_COLUMNS + ", password";
+    private static final int AUTH_PASSWORD = 9;
+
+    /** Staff pickers: identity + work assignment. */
+    private static final String STAFF_COLUMNS = "user_id, user_code, user_name, user_type, work_area, gender";
 
     // ==============================
     // 🔐 AUTHENTICATION
     // ==============================
 
+    static final String SQL_AUTH_BY_NAME = "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_name = ? LIMIT 1";
+
     /** Authenticate user by username + password (supports hashed or plaintext). */
     public Optional<User> authenticate(String username, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_name = ? LIMIT 1";
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL)) {
+             PreparedStatement ps = c.prepareStatement(SQL_AUTH_BY_NAME)) {
 
             ps.setString(1, username.trim());
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                String storedHash = rs.getString("password");
-                boolean matches = storedHash.equals(rawPassword);
-
-                // ✅ Try verifying with PasswordUtil if not plain match
-                if (!matches) {
-                    try {
-                        matches = PasswordUtil.verifyPassword(rawPassword, storedHash);
-                    } catch (Exception ignored) {}
-                }
-
-                if (matches) {
-                    return Optional.of(mapUser(rs));
+                User u = mapDisplay(rs);
+                if (passwordMatches(u.getUserId(), rs.getString(AUTH_PASSWORD), rawPassword)) {
+                    return Optional.of(u);
                 }
             }
 
@@ -66,29 +63,22 @@ public class UserDAO {
         return Optional.empty();
     }
 
+    static final String SQL_AUTH_BY_CODE_AND_NAME =
+            "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_code = ? AND user_name = ? LIMIT 1";
+
     /** Authenticate user using code + username + password */
     public Optional<User> authenticateFull(String userCode, String userName, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_code = ? AND user_name = ? LIMIT 1";
-
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL)) {
+             PreparedStatement ps = c.prepareStatement(SQL_AUTH_BY_CODE_AND_NAME)) {
 
             ps.setString(1, userCode.trim());
             ps.setString(2, userName.trim());
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                String storedHash = rs.getString("password");
-                boolean matches = storedHash.equals(rawPassword);
-
-                if (!matches) {
-                    try {
-                        matches = PasswordUtil.verifyPassword(rawPassword, storedHash);
-                    } catch (Exception ignored) {}
-                }
-
-                if (matches) {
-                    return Optional.of(mapUser(rs));
+                User u = mapDisplay(rs);
+                if (passwordMatches(u.getUserId(), rs.getString(AUTH_PASSWORD), rawPassword)) {
+                    return Optional.of(u);
                 }
             }
 
@@ -99,6 +89,8 @@ public class UserDAO {
         return Optional.empty();
     }
 
+    static final String SQL_AUTH_BY_CODE = "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_code = ? LIMIT 1";
+
     /**
      * Authenticate user using only User Code + password (supports hashed or plaintext).
      *
@@ -106,34 +98,72 @@ public class UserDAO {
      * but the login screen should not require the user to type their name.
      */
     public Optional<User> authenticateByCode(String userCode, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_code = ? LIMIT 1";
+        User user = null;
+        String storedHash = null;
 
+        // Read the row and give the connection back before hashing: PBKDF2 takes
+        // tens of ms and the read pool is shared with every other screen.
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL)) {
+             PreparedStatement ps = c.prepareStatement(SQL_AUTH_BY_CODE)) {
 
             ps.setString(1, userCode.trim());
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                String storedHash = rs.getString("password");
-                boolean matches = storedHash.equals(rawPassword);
-
-                if (!matches) {
-                    try {
-                        matches = PasswordUtil.verifyPassword(rawPassword, storedHash);
-                    } catch (Exception ignored) {}
-                }
-
-                if (matches) {
-                    return Optional.of(mapUser(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    storedHash = rs.getString(AUTH_PASSWORD);
+                    user = mapDisplay(rs);
                 }
             }
 
         } catch (SQLException e) {
             System.err.println("❌ authenticateByCode error: " + e.getMessage());
             e.printStackTrace();
+            return Optional.empty();
         }
-        return Optional.empty();
+
+        if (user == null || storedHash == null) return Optional.empty();
+
+        return passwordMatches(user.getUserId(), storedHash, rawPassword) ? Optional.of(user) : Optional.empty();
+    }
+
+    // ==============================
+    // 🔁 PASSWORD HASH UPGRADE
+    // ==============================
+
+    // One low-priority thread: upgrades are rare and must not compete with logins for CPU
+    private static final ExecutorService REHASH = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "password-rehash");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /** Checks the password; on a match with an outdated format, queues an upgrade to the current hash. */
+    private static boolean passwordMatches(int userId, String storedHash, String rawPassword) {
+        if (!PasswordUtil.matches(rawPassword, storedHash)) return false;
+        if (PasswordUtil.needsRehash(storedHash)) upgradeHashLater(userId, storedHash, rawPassword);
+        return true;
+    }
+
+    private static void upgradeHashLater(int userId, String oldHash, String rawPassword) {
+        CompletableFuture
+                .supplyAsync(() -> PasswordUtil.hashPassword(rawPassword), REHASH)
+                // Compare-and-set: if the password changed meanwhile, keep the newer one
+                .thenCompose(newHash -> WriteQueue.submit(c -> {
+                    try (PreparedStatement ps = c.prepareStatement(
+                            "UPDATE users SET password = ? WHERE user_id = ? AND password = ?")) {
+                        ps.setString(1, newHash);
+                        ps.setInt(2, userId);
+                        ps.setString(3, oldHash);
+                        return ps.executeUpdate() == 1;
+                    }
+                }))
+                .whenComplete((updated, err) -> {
+                    if (err != null) {
+                        System.err.println("⚠️ Password hash upgrade failed for user " + userId + ": " + err.getMessage());
+                    } else if (updated) {
+                        System.out.println("✅ Upgraded password hash for user " + userId);
+                    }
+                });
     }
 
     // ==============================
@@ -143,8 +173,8 @@ public class UserDAO {
     /**
      * Generic user creation — stores hashed password if PasswordUtil available.
      *
-     * NOTE: dob is optional (ISO: YYYY-MM-DD). If provided, age is computed automatically
-     * and also stored in the legacy age column for backward compatibility.
+     * NOTE: dob is optional (ISO: YYYY-MM-DD). It is validated and normalized here
+     * (see DobUtil); age is derived from it when read, never stored.
      */
     public boolean createUser(String type, String username, String rawPassword,
                               String address, String gender, String workArea) {
@@ -156,27 +186,33 @@ public class UserDAO {
                               String address, String gender, String workArea,
                               String dobIso) {
 
-        // EnsureSchema adds users.dob + users.age. If a teacher forgets to run EnsureSchema,
-        // this INSERT will fail — which is OK (we show a failure alert in the UI).
-        String sql = "INSERT INTO users (user_type, user_name, password, address, gender, work_area, dob, age) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        String dob;
+        try {
+            dob = DobUtil.normalizeForWrite(dobIso);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ createUser: " + e.getMessage());
+            return false;
+        }
 
-            String hashed = tryHash(rawPassword);
-            int computedAge = computeAgeFromDobIso(dobIso);
+        String sql = "INSERT INTO users (user_type, user_name, password, address, gender, work_area, dob) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-            ps.setString(1, type);
-            ps.setString(2, username);
-            ps.setString(3, hashed);
-            ps.setString(4, address);
-            ps.setString(5, gender);
-            ps.setString(6, workArea);
-            ps.setString(7, dobIso == null ? "" : dobIso.trim());
-            ps.setInt(8, computedAge);
+        // Hash before queueing: PBKDF2 must not hold up the writer thread
+        String hashed = tryHash(rawPassword);
 
-            return ps.executeUpdate() > 0;
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, type);
+                    ps.setString(2, username);
+                    ps.setString(3, hashed);
+                    ps.setString(4, address);
+                    ps.setString(5, gender);
+                    ps.setString(6, workArea);
+                    ps.setString(7, dob);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (SQLException e) {
             System.err.println("❌ createUser(dob) error: " + e.getMessage());
@@ -194,30 +230,20 @@ public class UserDAO {
     // 🔍 USER LISTS & LOOKUPS
     // ==============================
 
+    static final String SQL_LIST_ALL = """
+            SELECT %s
+            FROM users
+            ORDER BY user_id DESC
+            """.formatted(DISPLAY_COLUMNS);
+
     public List<User> listAll() {
         List<User> list = new ArrayList<>();
-        // NOTE: mapUser(...) reads user_code from the ResultSet.
-        // If user_code is not selected, the Users tab will appear "broken" (empty) due to a SQL exception.
-        // ✅ If dob exists => compute age; else fallback to stored age.
-        String sql = """
-                SELECT
-                    user_id, user_code, user_name, user_type,
-                    gender, address, work_area,
-                    dob,
-                    CASE
-                        WHEN dob IS NOT NULL AND dob <> ''
-                        THEN CAST((julianday('now') - julianday(dob)) / 365.25 AS INT)
-                        ELSE COALESCE(age, 0)
-                    END AS age
-                FROM users
-                ORDER BY user_id DESC
-                """;
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
+             PreparedStatement ps = c.prepareStatement(SQL_LIST_ALL);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) list.add(mapUser(rs));
+            while (rs.next()) list.add(mapDisplay(rs));
 
         } catch (SQLException e) {
             System.err.println("❌ listAll error: " + e.getMessage());
@@ -226,15 +252,17 @@ public class UserDAO {
         return list;
     }
 
+    static final String SQL_EMPLOYEES_ONLY =
+            "SELECT " + STAFF_COLUMNS + " FROM users WHERE LOWER(user_type) = 'employee' ORDER BY user_id DESC";
+
     public List<User> listEmployeesOnly() {
         List<User> list = new ArrayList<>();
-        String sql = "SELECT * FROM users WHERE LOWER(user_type) = 'employee' ORDER BY user_id DESC";
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
+             PreparedStatement ps = c.prepareStatement(SQL_EMPLOYEES_ONLY);
              ResultSet rs = ps.executeQuery()) {
 
-            while (rs.next()) list.add(mapUser(rs));
+            while (rs.next()) list.add(mapStaff(rs));
 
         } catch (SQLException e) {
             System.err.println("❌ listEmployeesOnly error: " + e.getMessage());
@@ -243,14 +271,16 @@ public class UserDAO {
         return list;
     }
 
+    static final String SQL_BY_USERNAME = "SELECT " + DISPLAY_COLUMNS + " FROM users WHERE user_name = ? LIMIT 1";
+
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE user_name = ? LIMIT 1";
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(SQL_BY_USERNAME)) {
 
             ps.setString(1, username);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) return Optional.of(mapUser(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return Optional.of(mapDisplay(rs));
+            }
 
         } catch (SQLException e) {
             System.err.println("❌ findByUsername error: " + e.getMessage());
@@ -263,29 +293,28 @@ public class UserDAO {
     // 🧾 DELETE / ADMIN HELPERS
     // ==============================
 
-    /** Lookup a user by id (any role). */
+    static final String SQL_BY_ID = """
+            SELECT %s
+            FROM users
+            WHERE user_id = ?
+            LIMIT 1
+            """.formatted(DISPLAY_COLUMNS);
+
+    /** Lookup a user by id (any role). Served from the hot-user cache when possible. */
     public Optional<User> findById(int userId) {
-        final String SQL = """
-                SELECT
-                    user_id, user_code, user_name, user_type,
-                    gender, address, work_area,
-                    dob,
-                    CASE
-                        WHEN dob IS NOT NULL AND dob <> ''
-                        THEN CAST((julianday('now') - julianday(dob)) / 365.25 AS INT)
-                        ELSE COALESCE(age, 0)
-                    END AS age,
-                    password
-                FROM users
-                WHERE user_id = ?
-                LIMIT 1
-                """;
+        User cached = cachedUser(userId);
+        if (cached != null) return Optional.of(cached);
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL)) {
+             PreparedStatement ps = c.prepareStatement(SQL_BY_ID)) {
             ps.setInt(1, userId);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) return Optional.of(mapUser(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User u = mapDisplay(rs);
+                    cacheUser(u);
+                    return Optional.of(u);
+                }
+            }
         } catch (SQLException e) {
             System.err.println("❌ findById error: " + e.getMessage());
             e.printStackTrace();
@@ -296,11 +325,17 @@ public class UserDAO {
     /** Update password for a user (hashing handled here). */
     public boolean updateUserPassword(int userId, String newRawPassword) {
         final String SQL = "UPDATE users SET password = ? WHERE user_id = ?";
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL)) {
-            ps.setString(1, tryHash(newRawPassword));
-            ps.setInt(2, userId);
-            return ps.executeUpdate() > 0;
+        String hashed = tryHash(newRawPassword);
+        try {
+            boolean ok = WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(SQL)) {
+                    ps.setString(1, hashed);
+                    ps.setInt(2, userId);
+                    return ps.executeUpdate() > 0;
+                }
+            });
+            invalidateCachedUser(userId);
+            return ok;
         } catch (SQLException e) {
             System.err.println("❌ updateUserPassword error: " + e.getMessage());
             e.printStackTrace();
@@ -310,11 +345,15 @@ public class UserDAO {
 
     public boolean deleteUser(int userId) {
         String sql = "DELETE FROM users WHERE user_id = ?";
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setInt(1, userId);
-            return ps.executeUpdate() > 0;
+        try {
+            boolean ok = WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, userId);
+                    return ps.executeUpdate() > 0;
+                }
+            });
+            invalidateCachedUser(userId);
+            return ok;
 
         } catch (SQLException e) {
             System.err.println("❌ deleteUser error: " + e.getMessage());
@@ -327,25 +366,26 @@ public class UserDAO {
     // 📊 STATS
     // ==============================
 
+    static final String SQL_EMPLOYEE_STATS = """
+        SELECT
+            U.user_id,
+            U.user_name,
+            COALESCE(U.work_area, '') AS area,
+            U.dob,
+            COALESCE(SUM(
+                CASE WHEN LOWER(COALESCE(S.completed,'no')) = 'yes' THEN 1 ELSE 0 END), 0) AS orders_done
+        FROM users U
+        LEFT JOIN order_stages S ON S.employee_id = U.user_id
+        WHERE LOWER(U.user_type) = 'employee'
+        GROUP BY U.user_id
+        ORDER BY U.user_id DESC
+        """;
+
     public List<StaffRow> listEmployeeStats() {
         List<StaffRow> out = new ArrayList<>();
-        String SQL = """
-            SELECT
-                U.user_id,
-                U.user_name,
-                COALESCE(U.work_area, '') AS area,
-                COALESCE(U.age, 0) AS age,
-                COALESCE(SUM(
-                    CASE WHEN LOWER(COALESCE(S.completed,'no')) = 'yes' THEN 1 ELSE 0 END), 0) AS orders_done
-            FROM users U
-            LEFT JOIN order_stages S ON S.employee_id = U.user_id
-            WHERE LOWER(COALESCE(U.user_type, '')) = 'employee'
-            GROUP BY U.user_id, U.user_name, area, age
-            ORDER BY U.user_id DESC
-        """;
 
         try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(SQL);
+             PreparedStatement ps = c.prepareStatement(SQL_EMPLOYEE_STATS);
              ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
@@ -353,7 +393,7 @@ public class UserDAO {
                 s.setUserId(rs.getInt("user_id"));
                 s.setUserName(rs.getString("user_name"));
                 s.setWorkArea(rs.getString("area"));
-                s.setAge(rs.getInt("age"));
+                s.setDob(rs.getString("dob"));
                 s.setOrdersDone(rs.getInt("orders_done"));
                 out.add(s);
             }
@@ -369,17 +409,94 @@ public class UserDAO {
     // ⚙️ HELPERS
     // ==============================
 
-    private static User mapUser(ResultSet rs) throws SQLException {
+    // Read by position: the order must match DISPLAY_COLUMNS / STAFF_COLUMNS above
+    private static User mapDisplay(ResultSet rs) throws SQLException {
+        User u = new User();
+        u.setUserId(rs.getInt(1));
+        u.setUserCode(rs.getString(2));
+        u.setUserName(rs.getString(3));
+        u.setUserType(rs.getString(4));
+        u.setAddress(rs.getString(5));
+        u.setArea(rs.getString(6));
+        u.setGender(rs.getString(7));
+        u.setDob(rs.getString(8));
+        return u;
+    }
+
+    private static User mapStaff(ResultSet rs) throws SQLException {
         User u = new User();
-        u.setUserId(rs.getInt("user_id"));
-        u.setUserCode(rs.getString("user_code"));
-        u.setUserName(rs.getString("user_name"));
-        u.setUserType(rs.getString("user_type"));
-        u.setAddress(rs.getString("address"));
-        try { u.setArea(rs.getString("work_area")); } catch (SQLException ignored) {}
-        try { u.setGender(rs.getString("gender")); } catch (SQLException ignored) {}
-        try { u.setDob(rs.getString("dob")); } catch (SQLException ignored) {}
-        try { u.setAge(rs.getInt("age")); } catch (SQLException ignored) {}
+        u.setUserId(rs.getInt(1));
+        u.setUserCode(rs.getString(2));
+        u.setUserName(rs.getString(3));
+        u.setUserType(rs.getString(4));
+        u.setArea(rs.getString(5));
+        u.setGender(rs.getString(6));
+        return u;
+    }
+
+    /**
+     * One-shot: users.dob becomes the only birth data.
+     *
+     * - dob is rewritten as canonical YYYY-MM-DD; unparseable/blank values become NULL
+     * - rows that only had a stored age get an approximate dob (today minus that many years),
+     *   so the age they show stays the same
+     * - the age column older DBs still have is dropped, so nothing can read a stale copy again
+     */
+    static void retireAgeColumn(Statement st) throws SQLException {
+        st.executeUpdate("UPDATE users SET dob = DATE(TRIM(dob)) WHERE dob IS NOT NULL");
+
+        if (!SchemaMigrations.hasColumn(st, "users", "age")) return;
+
+        int approx = st.executeUpdate("""
+            UPDATE users
+            SET dob = DATE('now', '-' || age || ' years')
+            WHERE dob IS NULL AND age BETWEEN %d AND %d
+        """.formatted(DobUtil.MIN_AGE, DobUtil.MAX_AGE));
+        if (approx > 0) System.out.println("✅ Approximated dob from stored age for " + approx + " user(s)");
+
+        st.execute("ALTER TABLE users DROP COLUMN age");
+    }
+
+    // ---- hot-user cache (findById) ----
+    // Small LRU of display projections; callers get copies, so edits to a returned User never leak in.
+    private static final int USER_CACHE_SIZE = 256;
+    private static final Map<Integer, User> USER_CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, User> eldest) {
+            return size() > USER_CACHE_SIZE;
+        }
+    };
+
+    private static User cachedUser(int userId) {
+        synchronized (USER_CACHE) {
+            User u = USER_CACHE.get(userId);
+            return u == null ? null : copyOf(u);
+        }
+    }
+
+    private static void cacheUser(User u) {
+        synchronized (USER_CACHE) {
+            USER_CACHE.put(u.getUserId(), copyOf(u));
+        }
+    }
+
+    /** Drop a user from the findById cache. Call after any write to that users row. */
+    static void invalidateCachedUser(int userId) {
+        synchronized (USER_CACHE) {
+            USER_CACHE.remove(userId);
+        }
+    }
+
+    private static User copyOf(User src) {
+        User u = new User();
+        u.setUserId(src.getUserId());
+        u.setUserCode(src.getUserCode());
+        u.setUserName(src.getUserName());
+        u.setUserType(src.getUserType());
+        u.setAddress(src.getAddress());
+        u.setArea(src.getArea());
+        u.setGender(src.getGender());
+        u.setDobDate(src.getDobDate());
         return u;
     }
 
@@ -424,16 +541,18 @@ public class UserDAO {
 
     public boolean insertUser(com.kanchancast.model.User user) {
         String sql = "INSERT INTO users (user_type, user_name, password, address, gender, user_code) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setString(1, user.getUserType());
-            ps.setString(2, user.getUserName());
-            ps.setString(3, user.getPassword());
-            ps.setString(4, user.getAddress());
-            ps.setString(5, user.getGender());
-            ps.setString(6, user.getUserCode());
-            return ps.executeUpdate() > 0;
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, user.getUserType());
+                    ps.setString(2, user.getUserName());
+                    ps.setString(3, user.getPassword());
+                    ps.setString(4, user.getAddress());
+                    ps.setString(5, user.getGender());
+                    ps.setString(6, user.getUserCode());
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (SQLException e) {
             System.err.println("❌ insertUser: " + e.getMessage());
@@ -444,26 +563,33 @@ public class UserDAO {
                                       String address, String gender, String workArea,
                                       String dobIso, String userCode) {
 
-        String sql = "INSERT INTO users (user_type, user_name, password, address, gender, work_area, dob, age, user_code) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String dob;
+        try {
+            dob = DobUtil.normalizeForWrite(dobIso);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ createUserWithCode: " + e.getMessage());
+            return false;
+        }
+
+        String sql = "INSERT INTO users (user_type, user_name, password, address, gender, work_area, dob, user_code) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection c = DatabaseConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            String hashed = tryHash(rawPassword);
-            int computedAge = computeAgeFromDobIso(dobIso);
-
-            ps.setString(1, type);
-            ps.setString(2, username);
-            ps.setString(3, hashed);
-            ps.setString(4, address);
-            ps.setString(5, gender);
-            ps.setString(6, workArea);
-            ps.setString(7, dobIso == null ? "" : dobIso.trim());
-            ps.setInt(8, computedAge);
-            ps.setString(9, userCode);
-
-            return ps.executeUpdate() > 0;
+        String hashed = tryHash(rawPassword);
+
+        try {
+            return WriteQueue.execute(c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, type);
+                    ps.setString(2, username);
+                    ps.setString(3, hashed);
+                    ps.setString(4, address);
+                    ps.setString(5, gender);
+                    ps.setString(6, workArea);
+                    ps.setString(7, dob);
+                    ps.setString(8, userCode);
+                    return ps.executeUpdate() > 0;
+                }
+            });
 
         } catch (SQLException e) {
             System.err.println("❌ createUserWithCode error: " + e.getMessage());
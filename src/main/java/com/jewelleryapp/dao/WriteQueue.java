@@ -0,0 +1,197 @@
+package com.jewelleryapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer command queue for every SQLite mutation.
+ *
+ * One daemon thread owns the pooled writer connection. Callers submit a unit of
+ * work and get a CompletableFuture back. The writer drains whatever is queued
+ * (up to MAX_BATCH) and runs it as ONE transaction (group commit); each unit
+ * runs inside its own SAVEPOINT so a failing unit only rolls back itself.
+ * Futures complete only after the batch has committed.
+ *
+ * Work units must NOT call commit()/rollback()/setAutoCommit() or close the connection.
+ */
+public final class WriteQueue {
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    private static final int MAX_BATCH = 32;
+
+    private static final BlockingQueue<Pending<?>> QUEUE = new LinkedBlockingQueue<>();
+    private static final Object START_LOCK = new Object();
+    private static volatile Thread writerThread;
+
+    // Connection of the batch currently running (only touched by the writer thread)
+    private static Connection current;
+
+    private static final AtomicLong batches = new AtomicLong();
+    private static final AtomicLong units = new AtomicLong();
+    private static final AtomicLong failedUnits = new AtomicLong();
+
+    private WriteQueue() {}
+
+    /** Queue a write. The future completes after the enclosing batch commits. */
+    public static <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        ensureStarted();
+        Pending<T> p = new Pending<>(work);
+        QUEUE.add(p);
+        return p.future;
+    }
+
+    /**
+     * Queue a write and wait for it. When called from inside another unit (i.e. on the
+     * writer thread) the work runs inline in the current transaction instead of deadlocking.
+     */
+    public static <T> T execute(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == writerThread && current != null) {
+            return work.run(current);
+        }
+
+        try {
+            return submit(work).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException se) throw se;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new SQLException(cause);
+        }
+    }
+
+    /** Waits (bounded) until everything queued before this call has been committed. */
+    public static void flush(long timeoutMs) {
+        if (writerThread == null) return;
+        try {
+            submit(c -> null).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("⚠️ WriteQueue flush: " + e.getMessage());
+        }
+    }
+
+    public static String stats() {
+        return "batches=" + batches.get()
+                + " units=" + units.get()
+                + " failedUnits=" + failedUnits.get()
+                + " queued=" + QUEUE.size();
+    }
+
+    // ---------------- Writer thread ----------------
+
+    private static void ensureStarted() {
+        if (writerThread != null) return;
+
+        synchronized (START_LOCK) {
+            if (writerThread != null) return;
+
+            Thread t = new Thread(WriteQueue::runLoop, "sqlite-writer");
+            t.setDaemon(true);
+            writerThread = t;
+            t.start();
+        }
+    }
+
+    private static void runLoop() {
+        List<Pending<?>> batch = new ArrayList<>(MAX_BATCH);
+
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+                QUEUE.drainTo(batch, MAX_BATCH - 1);
+                runBatch(batch);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                // Never let the writer thread die; fail whatever was in hand
+                for (Pending<?> p : batch) p.future.completeExceptionally(t);
+                System.err.println("❌ WriteQueue: " + t.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void runBatch(List<Pending<?>> batch) {
+        try (Connection c = DatabaseConnection.getWriteConnection()) {
+            current = c;
+            c.setAutoCommit(false);
+
+            try {
+                for (Pending<?> p : batch) {
+                    runUnit(c, p);
+                }
+                c.commit();
+            } catch (SQLException e) {
+                try { c.rollback(); } catch (SQLException ignored) {}
+                for (Pending<?> p : batch) {
+                    if (p.error == null) p.error = e;
+                }
+            } finally {
+                current = null;
+                try { c.setAutoCommit(true); } catch (SQLException ignored) {}
+            }
+
+        } catch (SQLException e) {
+            // Could not even borrow the writer
+            for (Pending<?> p : batch) {
+                if (p.error == null) p.error = e;
+            }
+        }
+
+        batches.incrementAndGet();
+        for (Pending<?> p : batch) {
+            units.incrementAndGet();
+            if (p.error != null) failedUnits.incrementAndGet();
+            p.complete();
+        }
+    }
+
+    private static <T> void runUnit(Connection c, Pending<T> p) throws SQLException {
+        exec(c, "SAVEPOINT wq_unit");
+        try {
+            p.result = p.work.run(c);
+            exec(c, "RELEASE wq_unit");
+        } catch (Throwable t) {
+            // Undo only this unit; the rest of the batch still commits
+            exec(c, "ROLLBACK TO wq_unit");
+            exec(c, "RELEASE wq_unit");
+            p.error = t;
+        }
+    }
+
+    private static void exec(Connection c, String sql) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private static final class Pending<T> {
+        final SqlWork<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable error;
+
+        Pending(SqlWork<T> work) {
+            this.work = work;
+        }
+
+        void complete() {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(result);
+        }
+    }
+}
@@ -1,14 +1,67 @@
 package com.kanchancast;
 
+import com.jewelleryapp.dao.DatabaseConnection;
+import com.jewelleryapp.dao.ProductDAO;
+import com.jewelleryapp.dao.WriteQueue;
 import com.kanchancast.auth.LoginScreen;
+import com.kanchancast.model.Product;
+import com.kanchancast.ui.ThumbnailStore;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
+import java.sql.SQLException;
+
 public class MainApp extends Application {
+    private SQLException dbFailure;
+
+    @Override
+    public void init() {
+        // Runs on the launcher thread: open the DB pool before the first screen needs it
+        try {
+            DatabaseConnection.warmUp();
+        } catch (SQLException e) {
+            dbFailure = e;
+            System.err.println("❌ Database unavailable, not starting: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Thumbnail index + folder listing in memory, so product cards never hit the disk on the FX thread
+        ThumbnailStore.load();
+    }
+
     @Override
     public void start(Stage stage) {
         System.out.println("MainApp.start()"); // marker
+
+        // No screens on a DB that could not be opened or migrated
+        if (dbFailure != null) {
+            Alert alert = new Alert(Alert.AlertType.ERROR, dbFailure.getMessage());
+            alert.setTitle("KanchanCast");
+            alert.setHeaderText("The database could not be opened. KanchanCast will close.");
+            alert.showAndWait();
+            Platform.exit();
+            return;
+        }
+
         LoginScreen.show(stage);
+
+        // Thumbnails for products imported before the thumbnail store existed
+        ThumbnailStore.backfillInBackground(() ->
+                new ProductDAO().listAll().stream().map(Product::getImagePath).toList());
+    }
+
+    @Override
+    public void stop() {
+        UiDataLoader.shutdown();
+
+        // Let queued writes commit before the writer connection is closed
+        WriteQueue.flush(5_000);
+        System.out.println("DB writes: " + WriteQueue.stats());
+        System.out.println("DB pool: " + DatabaseConnection.poolStats());
+        DatabaseConnection.shutdown();
     }
 
     public static void main(String[] args) {
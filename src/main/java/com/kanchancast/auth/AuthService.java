@@ -0,0 +1,169 @@
+package com.kanchancast.auth;
+
+import com.jewelleryapp.dao.UserDAO;
+import com.kanchancast.model.User;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password checks off the FX thread.
+ *
+ * - PBKDF2 runs on a small fixed pool (one thread per core) with a bounded queue,
+ *   so a burst of logins can't spawn unbounded work or freeze the UI.
+ * - Per user code: one check in flight at a time, and after a few failures the
+ *   code is locked for an exponentially growing delay (capped at 5 minutes).
+ *
+ * Throttled attempts complete exceptionally with {@link ThrottledException};
+ * wrong credentials complete with Optional.empty().
+ */
+public final class AuthService {
+
+    // Tunables
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final int QUEUE_CAPACITY = WORKERS * 4;
+    private static final int FREE_FAILURES = 3;                       // failures before lockout starts
+    private static final Duration BASE_LOCKOUT = Duration.ofSeconds(2);
+    private static final Duration MAX_LOCKOUT = Duration.ofMinutes(5);
+    private static final Duration FORGET_AFTER = Duration.ofMinutes(30); // idle entries are dropped
+    private static final int PRUNE_ABOVE = 1_000;
+
+    private static final ThreadPoolExecutor POOL = createPool();
+    private static final Map<String, Attempts> ATTEMPTS = new ConcurrentHashMap<>();
+
+    private static final UserDAO USER_DAO = new UserDAO();
+
+    private AuthService() {}
+
+    /** Thrown (as the future's cause) when an attempt is refused without checking the password. */
+    public static final class ThrottledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Duration retryAfter;
+
+        ThrottledException(String message, Duration retryAfter) {
+            super(message);
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() { return retryAfter; }
+    }
+
+    // ---------- LOGIN ----------
+
+    /** Async {@link UserDAO#authenticateByCode}: completes on an auth worker thread. */
+    public static CompletableFuture<Optional<User>> authenticateByCode(String userCode, String rawPassword) {
+        String key = userCode == null ? "" : userCode.trim();
+        long now = System.nanoTime();
+
+        // Begin inside compute(): prune() can't drop the entry between the lookup and tryBegin
+        long[] wait = new long[1];
+        Attempts a = ATTEMPTS.compute(key, (k, cur) -> {
+            Attempts e = (cur != null) ? cur : new Attempts(now);
+            wait[0] = e.tryBegin(now);
+            return e;
+        });
+        long waitNanos = wait[0];
+        if (waitNanos > 0) {
+            return CompletableFuture.failedFuture(new ThrottledException(
+                    "Too many failed attempts for this User Code.", Duration.ofNanos(waitNanos)));
+        }
+        if (waitNanos < 0) {
+            return CompletableFuture.failedFuture(new ThrottledException(
+                    "A sign-in for this User Code is already in progress.", Duration.ZERO));
+        }
+
+        CompletableFuture<Optional<User>> out = new CompletableFuture<>();
+        try {
+            POOL.execute(() -> {
+                try {
+                    Optional<User> user = USER_DAO.authenticateByCode(key, rawPassword);
+                    a.finish(user.isPresent(), System.nanoTime()); // success resets failures in place
+                    out.complete(user);
+                } catch (Throwable t) {
+                    a.finish(false, System.nanoTime());
+                    out.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException full) {
+            a.abandon();
+            out.completeExceptionally(new ThrottledException(
+                    "Too many sign-ins at once. Please try again.", Duration.ofSeconds(1)));
+        }
+
+        if (ATTEMPTS.size() > PRUNE_ABOVE) prune(now);
+        return out;
+    }
+
+    // ---------------- internals ----------------
+
+    private static ThreadPoolExecutor createPool() {
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "auth-worker-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true); // no idle threads after the login screen is gone
+        return pool;
+    }
+
+    // Per key under the map's lock for that key, the same lock authenticateByCode begins under
+    private static void prune(long now) {
+        long forget = FORGET_AFTER.toNanos();
+        for (String key : ATTEMPTS.keySet()) {
+            ATTEMPTS.computeIfPresent(key, (k, a) -> a.idleLongerThan(now, forget) ? null : a);
+        }
+    }
+
+    /** Failure/lockout state for one user code. All access is synchronized on the instance. */
+    private static final class Attempts {
+        private int failures;
+        private boolean inFlight;
+        private long lockedUntil;   // System.nanoTime(); meaningful once failures >= FREE_FAILURES
+        private long lastSeen;
+
+        Attempts(long now) {
+            this.lastSeen = now;
+        }
+
+        /** 0 = go ahead (marked in flight), >0 = locked for that many ns, <0 = already in flight. */
+        synchronized long tryBegin(long now) {
+            lastSeen = now;
+            if (inFlight) return -1;
+            if (failures >= FREE_FAILURES && now - lockedUntil < 0) return lockedUntil - now;
+            inFlight = true;
+            return 0;
+        }
+
+        synchronized void finish(boolean ok, long now) {
+            inFlight = false;
+            lastSeen = now;
+            if (ok) {
+                failures = 0;
+                return;
+            }
+            failures++;
+            if (failures >= FREE_FAILURES) {
+                int doublings = Math.min(failures - FREE_FAILURES, 16);
+                long lockout = Math.min(BASE_LOCKOUT.toNanos() << doublings, MAX_LOCKOUT.toNanos());
+                lockedUntil = now + lockout;
+            }
+        }
+
+        synchronized void abandon() {
+            inFlight = false;
+        }
+
+        synchronized boolean idleLongerThan(long now, long nanos) {
+            return !inFlight && now - lastSeen > nanos && (failures < FREE_FAILURES || now - lockedUntil > 0);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.kanchancast.auth;
 
-import com.jewelleryapp.dao.UserDAO;
 import com.kanchancast.model.User;
 import com.kanchancast.nav.ScreenRouter;
 import com.kanchancast.ui.PopupUtil;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -13,7 +13,7 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
-import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 public class LoginScreen {
 
@@ -65,16 +65,35 @@ public class LoginScreen {
                 return;
             }
 
-            UserDAO dao = new UserDAO();
-            Optional<User> userOpt = dao.authenticateByCode(userCode, password);
-
-            if (userOpt.isEmpty()) {
-                // ✅ owned popup (stays on same screen)
-                PopupUtil.showError(stage, "Invalid credentials. Please try again.");
-            } else {
-                User user = userOpt.get();
-                ScreenRouter.showDashboard(stage, user);
-            }
+            // PBKDF2 runs on the auth pool; the window stays responsive meanwhile
+            btnLogin.setDisable(true);
+            btnLogin.setText("Signing in...");
+
+            AuthService.authenticateByCode(userCode, password).whenComplete((userOpt, err) -> Platform.runLater(() -> {
+                btnLogin.setDisable(false);
+                btnLogin.setText("Login");
+
+                if (err != null) {
+                    Throwable cause = (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+                    if (cause instanceof AuthService.ThrottledException t) {
+                        long secs = Math.max(1, (t.getRetryAfter().toMillis() + 999) / 1000);
+                        PopupUtil.showWarn(stage, t.getMessage()
+                                + (t.getRetryAfter().isZero() ? "" : " Please wait " + secs + "s and try again."));
+                    } else {
+                        System.err.println("❌ login: " + cause.getMessage());
+                        PopupUtil.showError(stage, "Could not sign in right now. Please try again.");
+                    }
+                    return;
+                }
+
+                if (userOpt.isEmpty()) {
+                    // ✅ owned popup (stays on same screen)
+                    PopupUtil.showError(stage, "Invalid credentials. Please try again.");
+                } else {
+                    User user = userOpt.get();
+                    ScreenRouter.showDashboard(stage, user);
+                }
+            }));
         });
 
         btnSignup.setOnAction(e -> ScreenRouter.goToSignup(stage));
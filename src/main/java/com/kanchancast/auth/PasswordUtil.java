@@ -2,20 +2,89 @@ package com.kanchancast.auth;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Base64;
 
+/**
+ * Password hashing + the registry of stored formats we still accept.
+ *
+ * Current format: "pbkdf2$<iterations>$<salt b64>$<hash b64>" with PBKDF2-HMAC-SHA256,
+ * a 16-byte random salt and a 32-byte hash. Iterations are calibrated on this machine
+ * (see {@link #currentIterations()}). Anything older is still verified, and
+ * {@link #needsRehash(String)} tells the caller to upgrade it after a successful login.
+ */
 public final class PasswordUtil {
 
     // Tunables
-    private static final int ITERATIONS = 65_536;
+    private static final int MIN_ITERATIONS = 65_536;       // never hash below this, however slow the CPU
+    private static final int MAX_ITERATIONS = 4_194_304;
+    private static final int DEFAULT_TARGET_MS = 100;       // verification latency we aim to stay under
     private static final int KEY_LENGTH = 256; // bits
     private static final int SALT_BYTES = 16;
 
     private static final SecureRandom RNG = new SecureRandom();
 
+    // getInstance() walks the provider list on every call; SecretKeyFactory isn't
+    // thread-safe, so each thread (auth workers, FX thread) keeps its own.
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2_SHA256 = factory("PBKDF2WithHmacSHA256");
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2_SHA1 = factory("PBKDF2WithHmacSHA1");
+
+    private static volatile int currentIterations; // 0 = not calibrated yet
+
     private PasswordUtil() {}
 
+    // ---------- FORMAT REGISTRY ----------
+
+    /** Every stored password shape found in the users table, oldest first. */
+    public enum HashFormat {
+        /** Seeded/legacy rows that hold the password itself. */
+        PLAINTEXT,
+        /** Old {@code hash()}: PBKDF2-HMAC-SHA1, 16 ASCII chars of a UUID as salt, 20-byte hash. */
+        PBKDF2_SHA1,
+        /** {@code hashPassword()}: PBKDF2-HMAC-SHA256, random salt, 32-byte hash. */
+        PBKDF2_SHA256
+    }
+
+    /** The format a stored value was written in (never null; unknown shapes are PLAINTEXT). */
+    public static HashFormat detect(String stored) {
+        Parsed p = parse(stored);
+        if (p == null) return HashFormat.PLAINTEXT;
+        return p.hash.length == 20 ? HashFormat.PBKDF2_SHA1 : HashFormat.PBKDF2_SHA256;
+    }
+
+    /**
+     * True if {@code raw} is the password behind {@code stored}, in any registered format.
+     * Comparisons are constant-time.
+     */
+    public static boolean matches(String raw, String stored) {
+        if (raw == null || stored == null || stored.isEmpty()) return false;
+
+        Parsed p = parse(stored);
+        if (p == null) {
+            return MessageDigest.isEqual(
+                    raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            ThreadLocal<SecretKeyFactory> skf = (p.hash.length == 20) ? PBKDF2_SHA1 : PBKDF2_SHA256;
+            byte[] actual = pbkdf2(skf, raw.toCharArray(), p.salt, p.iterations, p.hash.length * 8);
+            return MessageDigest.isEqual(p.hash, actual);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** True if {@code stored} should be replaced by a fresh {@link #hashPassword(String)} once the user logs in. */
+    public static boolean needsRehash(String stored) {
+        Parsed p = parse(stored);
+        if (p == null || p.hash.length != KEY_LENGTH / 8) return true;
+        return p.iterations < currentIterations();
+    }
+
+    // ---------- HASHING ----------
+
     /** Basic strength check: 8+ chars, at least one letter and one digit. */
     public static boolean isStrongEnough(String raw) {
         if (raw == null || raw.length() < 8) return false;
@@ -28,14 +97,15 @@ public final class PasswordUtil {
         return false;
     }
 
-    /** Hash a password with PBKDF2+random . */
+    /** Hash a password with PBKDF2-SHA256 + random salt at the current cost. */
     public static String hashPassword(String raw) {
         try {
             byte[] salt = new byte[SALT_BYTES];
             RNG.nextBytes(salt);
 
-            byte[] hash = pbkdf2(raw.toCharArray(), salt, ITERATIONS, KEY_LENGTH);
-            return "pbkdf2$" + ITERATIONS + "$" +
+            int iterations = currentIterations();
+            byte[] hash = pbkdf2(PBKDF2_SHA256, raw.toCharArray(), salt, iterations, KEY_LENGTH);
+            return "pbkdf2$" + iterations + "$" +
                     Base64.getEncoder().encodeToString(salt) + "$" +
                     Base64.getEncoder().encodeToString(hash);
         } catch (Exception e) {
@@ -43,54 +113,111 @@ public final class PasswordUtil {
         }
     }
 
-    /** Verify raw password against a stored string created by {link #hashPassword(String)}. */
+    /** Verify raw password against a stored PBKDF2 string (either generation; plaintext is rejected). */
     public static boolean verifyPassword(String raw, String stored) {
-        if (raw == null || stored == null) return false;
-        try {
-            String[] parts = stored.split("\\$");
-            if (parts.length != 4 || !"pbkdf2".equals(parts[0])) return false;
+        return detect(stored) != HashFormat.PLAINTEXT && matches(raw, stored);
+    }
 
-            int iterations = Integer.parseInt(parts[1]);
-            byte[] salt = Base64.getDecoder().decode(parts[2]);
-            byte[] expected = Base64.getDecoder().decode(parts[3]);
+    /** @deprecated wrote SHA1 hashes with a weak salt; kept for old callers, now the same as {@link #hashPassword}. */
+    @Deprecated
+    public static String hash(String password) {
+        if (password == null || password.isBlank()) return "";
+        return hashPassword(password);
+    }
 
-            byte[] actual = pbkdf2(raw.toCharArray(), salt, iterations, expected.length * 8);
-            return slowEquals(expected, actual);
-        } catch (Exception e) {
-            return false;
+    // ---------- COST CALIBRATION ----------
+
+    /**
+     * Iterations for new hashes: {@code -Dkanchancast.auth.iterations=N} if set, otherwise
+     * the largest power of two whose PBKDF2 run fits in {@code -Dkanchancast.auth.targetMs}
+     * (default 100 ms) on this CPU. Never below 65,536. Measured once per process.
+     *
+     * Powers of two keep the result stable between runs, so logins don't rehash on jitter.
+     */
+    public static int currentIterations() {
+        int it = currentIterations;
+        if (it > 0) return it;
+
+        synchronized (PasswordUtil.class) {
+            if (currentIterations > 0) return currentIterations;
+
+            Integer forced = Integer.getInteger("kanchancast.auth.iterations");
+            if (forced != null) {
+                it = Math.max(MIN_ITERATIONS, forced);
+            } else {
+                int targetMs = Math.max(1, Integer.getInteger("kanchancast.auth.targetMs", DEFAULT_TARGET_MS));
+                it = calibrate(targetMs);
+            }
+            currentIterations = it;
+            return it;
         }
     }
 
-    // ---- helpers ----
-    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations, int keyLengthBits) throws Exception {
-        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLengthBits);
-        SecretKeyFactory skf = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-        return skf.generateSecret(spec).getEncoded();
-    }
+    // ---------------- internals ----------------
 
-    private static boolean slowEquals(byte[] a, byte[] b) {
-        if (a == null || b == null || a.length != b.length) return false;
-        int diff = 0;
-        for (int i = 0; i < a.length; i++) diff |= a[i] ^ b[i];
-        return diff == 0;
+    private record Parsed(int iterations, byte[] salt, byte[] hash) {}
+
+    /** "pbkdf2$iter$salt$hash" -> parts, or null if the value isn't one of our PBKDF2 strings. */
+    private static Parsed parse(String stored) {
+        if (stored == null || !stored.startsWith("pbkdf2$")) return null;
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return null;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] hash = Base64.getDecoder().decode(parts[3]);
+            if (iterations <= 0 || salt.length == 0 || (hash.length != 20 && hash.length != 32)) return null;
+            return new Parsed(iterations, salt, hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
-    public static String hash(String password) {
-        if (password == null || password.isBlank()) return "";
 
-        int iterations = 65536;
-        byte[] salt = java.util.UUID.randomUUID().toString().substring(0, 16).getBytes();
+    private static int calibrate(int targetMs) {
+        final int probe = 16_384;
+        byte[] salt = new byte[SALT_BYTES];
+        char[] pw = "calibration-probe".toCharArray();
+
         try {
-            javax.crypto.SecretKeyFactory skf = javax.crypto.SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
-            javax.crypto.spec.PBEKeySpec spec = new javax.crypto.spec.PBEKeySpec(password.toCharArray(), salt, iterations, 160);
-            byte[] hash = skf.generateSecret(spec).getEncoded();
-            return String.format("pbkdf2$%d$%s$%s",
-                    iterations,
-                    java.util.Base64.getEncoder().encodeToString(salt),
-                    java.util.Base64.getEncoder().encodeToString(hash)
-            );
+            pbkdf2(PBKDF2_SHA256, pw, salt, probe, KEY_LENGTH); // warm-up (JIT, provider init)
+
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long t0 = System.nanoTime();
+                pbkdf2(PBKDF2_SHA256, pw, salt, probe, KEY_LENGTH);
+                best = Math.min(best, System.nanoTime() - t0);
+            }
+
+            double perIteration = (double) best / probe;
+            long fit = (long) (targetMs * 1_000_000.0 / perIteration);
+            int it = (int) Math.min(MAX_ITERATIONS, Math.max(MIN_ITERATIONS, Long.highestOneBit(Math.max(1, fit))));
+
+            System.out.printf("✅ Password hashing: %,d PBKDF2 iterations (~%.0f ms, target %d ms)%n",
+                    it, it * perIteration / 1_000_000.0, targetMs);
+            return it;
         } catch (Exception e) {
-            e.printStackTrace();
-            return "";
+            System.err.println("⚠️ Password hash calibration failed, using " + MIN_ITERATIONS + ": " + e.getMessage());
+            return MIN_ITERATIONS;
+        }
+    }
+
+    private static byte[] pbkdf2(ThreadLocal<SecretKeyFactory> skf, char[] password, byte[] salt,
+                                 int iterations, int keyLengthBits) throws Exception {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLengthBits);
+        try {
+            return skf.get().generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
         }
     }
+
+    private static ThreadLocal<SecretKeyFactory> factory(String algorithm) {
+        return ThreadLocal.withInitial(() -> {
+            try {
+                return SecretKeyFactory.getInstance(algorithm);
+            } catch (Exception e) {
+                throw new IllegalStateException(algorithm + " not available", e);
+            }
+        });
+    }
 }
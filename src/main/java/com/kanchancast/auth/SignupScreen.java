@@ -4,6 +4,7 @@ import com.jewelleryapp.dao.UserDAO;
 import com.kanchancast.model.User;
 import com.kanchancast.nav.ScreenRouter;
 import com.kanchancast.ui.PopupUtil;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -84,21 +85,21 @@ public class SignupScreen {
             user.setAddress(address);
             user.setUserCode(userCode);
 
-            boolean created = dao.insertUser(user);
-
-            if (created) {
-                // ✅ owned popup (stays on same screen)
-                PopupUtil.showInfo(stage,
-                        "✅ Account Created Successfully\n\n" +
-                                "Your account has been created!\n\n" +
-                                "Your User Code is: " + userCode + "\n\n" +
-                                "Please use it to log in.");
-
-                ScreenRouter.goToLogin(stage);
-            } else {
-                // ✅ owned popup (stays on same screen)
-                PopupUtil.showError(stage, "Failed to create account. Try again later.");
-            }
+            UiDataLoader.run(btnSignup, () -> dao.insertUser(user), created -> {
+                if (created) {
+                    // ✅ owned popup (stays on same screen)
+                    PopupUtil.showInfo(stage,
+                            "✅ Account Created Successfully\n\n" +
+                                    "Your account has been created!\n\n" +
+                                    "Your User Code is: " + userCode + "\n\n" +
+                                    "Please use it to log in.");
+
+                    ScreenRouter.goToLogin(stage);
+                } else {
+                    // ✅ owned popup (stays on same screen)
+                    PopupUtil.showError(stage, "Failed to create account. Try again later.");
+                }
+            });
         });
 
         btnBack.setOnAction(e -> ScreenRouter.goToLogin(stage));
@@ -1,6 +1,8 @@
 package com.kanchancast.dashboard;
 
 import com.kanchancast.ui.PopupUtil;
+import com.kanchancast.ui.UiDataLoader;
+import com.jewelleryapp.dao.AnalyticsDAO;
 import com.jewelleryapp.dao.EmployeeDAO;
 import com.jewelleryapp.dao.OrderDAO;
 import com.jewelleryapp.dao.ProductDAO;
@@ -32,6 +34,7 @@ public class AdminDashboard {
         OrderDAO orderDAO = new OrderDAO();
         EmployeeDAO employeeDAO = new EmployeeDAO();
         UserDAO userDAO = new UserDAO();
+        AnalyticsDAO analyticsDAO = new AnalyticsDAO();
 
         // ===== HEADER =====
         Label header = new Label("Admin Dashboard");
@@ -101,44 +104,28 @@ public class AdminDashboard {
         XYChart.Series<String, Number> performanceData = new XYChart.Series<>();
         performanceChart.getData().add(performanceData);
 
-        // ===== REFRESH FUNCTION =====
-        Runnable refreshAll = () -> {
-            var allOrders = orderDAO.listAll();
-            var allProducts = productDAO.listALL();
+        // ===== CHART LAYOUT =====
+        HBox chartBox = new HBox(50, categoryChart, performanceChart);
 
-            // KPIs
-            totalOrdersVal.setText(String.valueOf(allOrders.size()));
+        // ===== REFRESH FUNCTION =====
+        // Everything the KPIs/charts need, fetched off the FX thread in one go.
+        // Order KPIs are SQL aggregates (AnalyticsDAO); products come from the catalog snapshot.
+        record Snapshot(AnalyticsDAO.OrderKpis kpis, String topProduct, List<Product> products, List<StaffRow> stats) {}
 
-            long completedOrders = allOrders.stream()
-                    .filter(o -> o.getProgressPercent() >= 100)
-                    .count();
-            completedOrdersVal.setText(String.valueOf(completedOrders));
+        Runnable refreshAll = () -> UiDataLoader.load("adminDashboard.refresh", chartBox,
+                () -> new Snapshot(analyticsDAO.orderKpis(), analyticsDAO.topProductName(),
+                        productDAO.listALL(), userDAO.listEmployeeStats()),
+                snap -> {
+            var allProducts = snap.products();
 
-            long inProgress = allOrders.stream()
-                    .filter(o -> o.getProgressPercent() < 100)
-                    .count();
-            inProgressVal.setText(String.valueOf(inProgress));
+            // KPIs
+            AnalyticsDAO.OrderKpis kpis = snap.kpis();
+            totalOrdersVal.setText(String.valueOf(kpis.total()));
+            completedOrdersVal.setText(String.valueOf(kpis.completed()));
+            inProgressVal.setText(String.valueOf(kpis.inProgress()));
 
             // Top product by order frequency
-            String topProduct = "N/A";
-            if (!allOrders.isEmpty()) {
-                Map<Integer, Long> counts = allOrders.stream()
-                        .collect(Collectors.groupingBy(o -> o.getProductId(), Collectors.counting()));
-
-                Optional<Integer> topPid = counts.entrySet().stream()
-                        .max(Map.Entry.comparingByValue())
-                        .map(Map.Entry::getKey);
-
-                if (topPid.isPresent()) {
-                    int pid = topPid.get();
-                    topProduct = allProducts.stream()
-                            .filter(p -> p.getProductId() == pid)
-                            .map(Product::getName)
-                            .findFirst()
-                            .orElse("Product #" + pid);
-                }
-            }
-            topProductVal.setText(topProduct);
+            topProductVal.setText(snap.topProduct() != null ? snap.topProduct() : "N/A");
 
             // Pie chart categories
             Map<String, Long> pieData = allProducts.stream()
@@ -152,7 +139,7 @@ public class AdminDashboard {
             // ===== Bar chart: TOP 8 leaderboard =====
             performanceData.getData().clear();
 
-            List<StaffRow> stats = userDAO.listEmployeeStats();
+            List<StaffRow> stats = snap.stats();
             if (stats == null || stats.isEmpty()) {
                 yAxis.setUpperBound(1);
                 topEmployeeVal.setText("N/A");
@@ -209,10 +196,8 @@ public class AdminDashboard {
                     valueLabel.setTranslateY(-14);
                 }
             });
-        };
+        }, null);
 
-        // ===== CHART LAYOUT =====
-        HBox chartBox = new HBox(50, categoryChart, performanceChart);
         chartBox.setAlignment(Pos.CENTER);
         chartBox.setPadding(new Insets(10, 10, 10, 10));
         chartBox.setMaxHeight(360);
@@ -247,7 +232,7 @@ public class AdminDashboard {
         topBar.setPadding(new Insets(10, 20, 10, 20));
 
         // ===== MAIN LAYOUT =====
-        VBox content = new VBox(14, header, summaryCards, chartBox, tabs);
+        VBox content = new VBox(14, header, summaryCards, UiDataLoader.withSpinner(chartBox), tabs);
         content.setPadding(new Insets(18));
         content.setAlignment(Pos.TOP_CENTER);
         content.setStyle("""
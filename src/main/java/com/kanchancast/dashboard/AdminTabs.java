@@ -6,6 +6,7 @@ import com.kanchancast.auth.PasswordUtil;
 import com.kanchancast.dialogs.EmployeeDetailsDialog;
 import com.kanchancast.dialogs.OrderDetailsDialog;
 import com.kanchancast.dialogs.OrderProgressDialog;
+import com.jewelleryapp.dao.AssignmentEngine;
 import com.jewelleryapp.dao.EmployeeDAO;
 import com.jewelleryapp.dao.OrderDAO;
 import com.jewelleryapp.dao.ProductDAO;
@@ -14,6 +15,9 @@ import com.kanchancast.model.Product;
 import com.kanchancast.model.StaffRow;
 import com.kanchancast.ui.CategoryManagerDialog;
 import com.kanchancast.ui.ImageUtil;
+import com.kanchancast.ui.OrderTablePager;
+import com.kanchancast.ui.UiDataLoader;
+import com.kanchancast.util.DobUtil;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -25,6 +29,9 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.application.Platform;
 
+import java.util.List;
+import java.util.Map;
+
 public class AdminTabs {
 
     public static TabPane buildTabs(Stage stage,
@@ -85,7 +92,10 @@ public class AdminTabs {
         pdesc.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getDescription()));
 
         productTable.getColumns().addAll(pimg, pid, pname, ptype, pdesc);
-        productTable.setItems(FXCollections.observableArrayList(productDAO.listALL()));
+
+        // ✅ Loads run in the background (UiDataLoader); a newer load cancels an older one
+        Runnable loadProducts = () -> UiDataLoader.loadInto(productTable, productDAO::listALL);
+        loadProducts.run();
 
         productTable.setRowFactory(tv -> {
             TableRow<Product> row = new TableRow<>();
@@ -106,7 +116,7 @@ public class AdminTabs {
         btnAddProduct.setOnAction(e -> {
             try {
                 com.kanchancast.ui.ProductFormDialog.show(stage); // validation handled inside ProductFormDialog
-                productTable.setItems(FXCollections.observableArrayList(productDAO.listALL()));
+                loadProducts.run();
                 fireRefresh(onDataChanged);
             } catch (Exception ex) {
                 PopupUtil.showError(stage, "Error opening product dialog: " + ex.getMessage());
@@ -123,7 +133,7 @@ public class AdminTabs {
         });
 
         btnRefreshProduct.setOnAction(e -> {
-            productTable.setItems(FXCollections.observableArrayList(productDAO.listALL()));
+            loadProducts.run();
             fireRefresh(onDataChanged); // refresh KPIs/charts too
         });
 
@@ -134,23 +144,24 @@ public class AdminTabs {
                 return;
             }
             if (confirm(stage, "Delete Product", "Are you sure you want to delete " + selected.getName() + "?")) {
-                boolean deleted = productDAO.deleteProduct(selected.getProductId());
-                if (!deleted) {
-                    PopupUtil.showError(stage,
-                            "Could not delete this product.\n\n" +
-                                    "Most common reason: there are existing orders linked to this product.\n" +
-                                    "Delete those orders first (Orders tab), then try again.");
-                    return;
-                }
-                productTable.setItems(FXCollections.observableArrayList(productDAO.listALL()));
-                fireRefresh(onDataChanged);
+                UiDataLoader.run(() -> productDAO.deleteProduct(selected.getProductId()), deleted -> {
+                    if (!deleted) {
+                        PopupUtil.showError(stage,
+                                "Could not delete this product.\n\n" +
+                                        "Most common reason: there are existing orders linked to this product.\n" +
+                                        "Delete those orders first (Orders tab), then try again.");
+                        return;
+                    }
+                    loadProducts.run();
+                    fireRefresh(onDataChanged);
+                });
             }
         });
 
         btnManageCategories.setOnAction(e -> {
             try {
                 CategoryManagerDialog.show(stage, productDAO);
-                productTable.setItems(FXCollections.observableArrayList(productDAO.listALL()));
+                loadProducts.run();
                 fireRefresh(onDataChanged);
             } catch (Exception ex) {
                 PopupUtil.showError(stage, "Error opening category manager: " + ex.getMessage());
@@ -159,9 +170,10 @@ public class AdminTabs {
 
         HBox productBtns = new HBox(10, btnAddProduct, btnViewProduct, btnRefreshProduct, btnDeleteProduct,
                 btnManageCategories);
-        VBox productBox = new VBox(10, new Label("All Products"), productBtns, productTable);
+        StackPane productTableBox = UiDataLoader.withSpinner(productTable);
+        VBox productBox = new VBox(10, new Label("All Products"), productBtns, productTableBox);
         productBox.setPadding(new Insets(10));
-        VBox.setVgrow(productTable, Priority.ALWAYS);
+        VBox.setVgrow(productTableBox, Priority.ALWAYS);
 
         Tab productTab = new Tab("Products", productBox);
 
@@ -190,7 +202,9 @@ public class AdminTabs {
         ostat.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getStatus()));
 
         orderTable.getColumns().addAll(oid, ocust, oprod, odate, odel, ostat);
-        orderTable.setItems(FXCollections.observableArrayList(orderDAO.listAll()));
+
+        // ✅ Orders load page by page as the table scrolls (keyset pagination in OrderDAO.listPage)
+        OrderTablePager orderPager = OrderTablePager.attach(orderTable, orderDAO);
 
         // ✅ Double-click order row to view stage-by-stage progress
         orderTable.setRowFactory(tv -> {
@@ -203,7 +217,10 @@ public class AdminTabs {
             return row;
         });
 
+        AssignmentEngine assignmentEngine = new AssignmentEngine();
+
         Button btnAssign = new Button("👷 Assign Employees");
+        Button btnAutoAssign = new Button("⚡ Auto-assign Backlog");
         Button btnViewOrder = new Button("👁 View");
         Button btnDeleteOrder = new Button("🗑️ Delete Order");
         Button btnRefreshOrders = new Button("🔄 Refresh Orders");
@@ -215,10 +232,35 @@ public class AdminTabs {
                 return;
             }
             OrderDetailsDialog.show(stage, orderDAO, employeeDAO, selected);
-            orderTable.setItems(FXCollections.observableArrayList(orderDAO.listAll()));
+            orderPager.reload();
             fireRefresh(onDataChanged);
         });
 
+        btnAutoAssign.setOnAction(e -> {
+            ChoiceDialog<AssignmentEngine.Policy> pick = new ChoiceDialog<>(
+                    AssignmentEngine.Policy.LEAST_LOADED, AssignmentEngine.Policy.values());
+            pick.setTitle("Auto-assign Backlog");
+            pick.setHeaderText("Assign every empty stage of up to " + AssignmentEngine.DEFAULT_BATCH
+                    + " open orders (oldest first)\nto employees of the matching work area.");
+            pick.setContentText("Policy:");
+            PopupUtil.prepareDialog(stage, pick);
+
+            pick.showAndWait().ifPresent(policy -> {
+                btnAutoAssign.setDisable(true);
+                UiDataLoader.run(() -> assignmentEngine.assignBacklog(AssignmentEngine.DEFAULT_BATCH, policy), r -> {
+                    btnAutoAssign.setDisable(false);
+                    String msg = "Assigned " + r.stagesAssigned() + " stage(s) across " + r.orders() + " order(s).";
+                    if (!r.unstaffedStages().isEmpty()) {
+                        msg += "\n\nNo employee works these areas, so they stay unassigned:\n"
+                                + String.join("\n", r.unstaffedStages());
+                    }
+                    PopupUtil.showInfo(stage, msg);
+                    orderPager.reload();
+                    fireRefresh(onDataChanged);
+                });
+            });
+        });
+
         btnViewOrder.setOnAction(e -> {
             OrderSummary selected = orderTable.getSelectionModel().getSelectedItem();
             if (selected == null) {
@@ -241,24 +283,32 @@ public class AdminTabs {
                             + ")?\n\nThis will also remove its stage tracking.");
 
             if (ok) {
-                boolean deleted = orderDAO.deleteOrder(selected.getOrderId());
-                if (!deleted) {
-                    PopupUtil.showError(stage, "Failed to delete order. Check console.");
-                }
-                orderTable.setItems(FXCollections.observableArrayList(orderDAO.listAll()));
-                fireRefresh(onDataChanged);
+                UiDataLoader.run(() -> orderDAO.deleteOrder(selected.getOrderId()), deleted -> {
+                    if (!deleted) {
+                        PopupUtil.showError(stage, "Failed to delete order. Check console.");
+                    }
+                    orderPager.reload();
+                    fireRefresh(onDataChanged);
+                });
             }
         });
 
         btnRefreshOrders.setOnAction(e -> {
-            orderTable.setItems(FXCollections.observableArrayList(orderDAO.listAll()));
+            orderPager.reload();
             fireRefresh(onDataChanged); // refresh KPIs/charts too
         });
 
-        HBox orderBtns = new HBox(10, btnAssign, btnViewOrder, btnDeleteOrder, btnRefreshOrders);
-        VBox orderBox = new VBox(10, new Label("All Orders"), orderBtns, orderTable);
+        ComboBox<String> orderStatusFilter = new ComboBox<>(
+                FXCollections.observableArrayList("ALL", "PENDING", "PROCESSING", "COMPLETED"));
+        orderStatusFilter.setValue("ALL");
+        orderStatusFilter.setOnAction(e -> orderPager.setStatusFilter(orderStatusFilter.getValue()));
+
+        HBox orderBtns = new HBox(10, btnAssign, btnAutoAssign, btnViewOrder, btnDeleteOrder, btnRefreshOrders,
+                new Label("Status:"), orderStatusFilter);
+        StackPane orderTableBox = UiDataLoader.withSpinner(orderTable);
+        VBox orderBox = new VBox(10, new Label("All Orders"), orderBtns, orderTableBox);
         orderBox.setPadding(new Insets(10));
-        VBox.setVgrow(orderTable, Priority.ALWAYS);
+        VBox.setVgrow(orderTableBox, Priority.ALWAYS);
 
         Tab orderTab = new Tab("Orders", orderBox);
 
@@ -287,13 +337,20 @@ public class AdminTabs {
         eaddr.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getAddress()));
 
         TableColumn<StaffRow, Number> eactive = new TableColumn<>("Products Assigned");
-        eactive.setCellValueFactory(c -> {
-            int count = employeeDAO.countActiveProductsForEmployee(c.getValue().getUserId());
-            return new SimpleIntegerProperty(count);
-        });
+        // Count is fetched with the rows by the background loader (no DAO call while rendering cells)
+        eactive.setCellValueFactory(c -> new SimpleIntegerProperty(c.getValue().getActiveProducts()));
 
         empTable.getColumns().addAll(eid, ename, earea, egender, eage, eaddr, eactive);
-        empTable.setItems(FXCollections.observableArrayList(employeeDAO.listAll()));
+
+        Runnable loadEmployees = () -> UiDataLoader.loadInto(empTable, () -> {
+            List<StaffRow> rows = employeeDAO.listAll();
+            Map<Integer, Integer> open = employeeDAO.countActiveStagesByEmployee(); // one query, not one per row
+            for (StaffRow r : rows) {
+                r.setActiveProducts(open.getOrDefault(r.getUserId(), 0));
+            }
+            return rows;
+        });
+        loadEmployees.run();
 
         Button btnAddEmp = new Button("➕ Create Employee");
         Button btnViewEmp = new Button("👁 View");
@@ -407,16 +464,9 @@ public class AdminTabs {
                 }
 
                 java.time.LocalDate dob = dpDob.getValue();
-                java.time.LocalDate today = java.time.LocalDate.now();
-                if (dob.isAfter(today)) {
-                    PopupUtil.showError(dlgStage, "DOB cannot be in the future.");
-                    ev.consume();
-                    return;
-                }
-
-                int years = java.time.Period.between(dob, today).getYears();
-                if (years < 10 || years > 120) {
-                    PopupUtil.showError(dlgStage, "Please enter a realistic DOB (age 10 to 120).");
+                String dobProblem = DobUtil.problem(dob);
+                if (dobProblem != null) {
+                    PopupUtil.showError(dlgStage, dobProblem);
                     ev.consume();
                     return;
                 }
@@ -428,15 +478,19 @@ public class AdminTabs {
                     return;
                 }
 
-                boolean ok = employeeDAO.createEmployee(name, pass, gender, addr, area, dob.toString());
-                if (!ok) {
-                    PopupUtil.showError(dlgStage, "Failed to create employee. Check console for details.");
-                    ev.consume();
-                    return;
-                }
-
-                empTable.setItems(FXCollections.observableArrayList(employeeDAO.listAll()));
-                fireRefresh(onDataChanged);
+                // Hashing + the write run in the background; the dialog closes once the employee exists
+                ev.consume();
+                UiDataLoader.run(okBtn,
+                        () -> employeeDAO.createEmployee(name, pass, gender, addr, area, dob.toString()), ok -> {
+                    if (!ok) {
+                        PopupUtil.showError(dlgStage, "Failed to create employee. Check console for details.");
+                        return;
+                    }
+
+                    dlg.close();
+                    loadEmployees.run();
+                    fireRefresh(onDataChanged);
+                });
             });
 
             dlg.showAndWait();
@@ -449,27 +503,29 @@ public class AdminTabs {
                 return;
             }
             if (confirm(stage, "Delete Employee", "Are you sure you want to delete " + selected.getUserName() + "?")) {
-                boolean deleted = employeeDAO.deleteEmployee(selected.getUserId());
-                if (deleted) {
-                    empTable.setItems(FXCollections.observableArrayList(employeeDAO.listAll()));
-                    fireRefresh(onDataChanged);
-                    PopupUtil.showInfo(stage, "Employee deleted successfully.");
-                } else {
-                    // ✅ FIX: Show error popup if delete fails (e.g. assigned to order)
-                    PopupUtil.showError(stage, "Cannot delete user as they are assigned to an order.");
-                }
+                UiDataLoader.run(() -> employeeDAO.deleteEmployee(selected.getUserId()), deleted -> {
+                    if (deleted) {
+                        loadEmployees.run();
+                        fireRefresh(onDataChanged);
+                        PopupUtil.showInfo(stage, "Employee deleted successfully.");
+                    } else {
+                        // ✅ FIX: Show error popup if delete fails (e.g. assigned to order)
+                        PopupUtil.showError(stage, "Cannot delete user as they are assigned to an order.");
+                    }
+                });
             }
         });
 
         btnRefreshEmp.setOnAction(e -> {
-            empTable.setItems(FXCollections.observableArrayList(employeeDAO.listAll()));
+            loadEmployees.run();
             fireRefresh(onDataChanged); // refresh KPIs/charts too
         });
 
         HBox empBtns = new HBox(10, btnAddEmp, btnViewEmp, btnDelEmp, btnRefreshEmp);
-        VBox empBox = new VBox(10, new Label("Employees"), empBtns, empTable);
+        StackPane empTableBox = UiDataLoader.withSpinner(empTable);
+        VBox empBox = new VBox(10, new Label("Employees"), empBtns, empTableBox);
         empBox.setPadding(new Insets(10));
-        VBox.setVgrow(empTable, Priority.ALWAYS);
+        VBox.setVgrow(empTableBox, Priority.ALWAYS);
 
         Tab empTab = new Tab("Employees", empBox);
 
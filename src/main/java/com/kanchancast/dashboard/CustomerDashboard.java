@@ -8,8 +8,10 @@ import com.kanchancast.ui.OrderTrackingDialog;
 import com.kanchancast.ui.ProductDetailsDialog;
 import com.kanchancast.ui.ProductGrid;
 import com.kanchancast.ui.UIKit;
+import com.kanchancast.ui.UiDataLoader;
 import com.jewelleryapp.dao.OrderDAO;
 import com.jewelleryapp.dao.ProductDAO;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
@@ -21,13 +23,17 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CustomerDashboard {
 
+        private static final int SEARCH_LIMIT = 200;
+
         public static void show(Stage stage, User user) {
                 ProductDAO productDAO = new ProductDAO();
                 OrderDAO orderDAO = new OrderDAO();
@@ -67,14 +73,16 @@ public class CustomerDashboard {
                 ordersBar.setAlignment(Pos.CENTER_LEFT);
                 ordersBar.setPadding(new Insets(5, 0, 10, 0));
 
-                VBox ordersPanel = new VBox(10, ordersLabel, ordersBar, ordersTable);
+                StackPane ordersTableBox = UiDataLoader.withSpinner(ordersTable);
+                VBox.setVgrow(ordersTableBox, Priority.ALWAYS);
+
+                VBox ordersPanel = new VBox(10, ordersLabel, ordersBar, ordersTableBox);
                 ordersPanel.setPadding(new Insets(12));
                 ordersPanel.getStyleClass().add("card");
 
-                Runnable loadOrders = () -> {
-                        ordersTable.setItems(FXCollections.observableArrayList(
-                                        orderDAO.getOrdersForUser(user.getUserId())));
-                };
+                // ✅ DAO calls run in the background; results are applied on the FX thread
+                Runnable loadOrders = () -> UiDataLoader.loadInto(ordersTable,
+                                () -> orderDAO.getOrdersForUser(user.getUserId()));
 
                 refreshOrders.setOnAction(e -> loadOrders.run());
 
@@ -97,8 +105,12 @@ public class CustomerDashboard {
 
                 Button refreshProducts = new Button("Refresh");
 
+                TextField searchField = new TextField();
+                searchField.setPromptText("Search products...");
+                searchField.setPrefColumnCount(16);
+
                 HBox productsBar = new HBox(10,
-                                new Label("Category:"), categoryFilter, refreshProducts);
+                                new Label("Category:"), categoryFilter, refreshProducts, searchField);
                 productsBar.setAlignment(Pos.CENTER_LEFT);
                 productsBar.setPadding(new Insets(5, 0, 10, 0));
 
@@ -106,7 +118,7 @@ public class CustomerDashboard {
                                 product -> new ProductDetailsDialog(stage, product, orderDAO, user, loadOrders)
                                                 .showAndWait());
 
-                Runnable loadCategories = () -> {
+                Runnable loadCategories = () -> UiDataLoader.load(categoryFilter, () -> {
                         List<String> categories = new ArrayList<>();
                         categories.add("all");
 
@@ -121,23 +133,61 @@ public class CustomerDashboard {
                         } catch (SQLException ex) {
                                 System.err.println("Category load error: " + ex.getMessage());
                         }
-
+                        return categories;
+                }, categories -> {
                         categoryFilter.setItems(FXCollections.observableArrayList(categories));
-                        categoryFilter.setValue("all");
-                };
+                        categoryFilter.setValue("all"); // fires onAction -> loadProducts
+                });
+
+                // ✅ Catalog comes from ProductDAO's snapshot; skip the re-render when neither
+                // the category nor the catalog version changed since the last paint
+                AtomicReference<String> shown = new AtomicReference<>();
 
                 Runnable loadProducts = () -> {
                         String cat = categoryFilter.getValue();
-                        List<Product> products = (cat == null || cat.equals("all"))
-                                        ? productDAO.listAll()
-                                        : productDAO.listByType(cat);
-                        productGrid.setItems(products);
+                        String key = ProductDAO.catalogVersion() + ":" + cat;
+                        if (key.equals(shown.get())) return;
+
+                        UiDataLoader.load(productGrid, productGrid,
+                                        () -> (cat == null || cat.equals("all"))
+                                                        ? productDAO.listAll()
+                                                        : productDAO.listByType(cat),
+                                        products -> {
+                                                // an empty list may be a failed load: don't pin it
+                                                shown.set(products.isEmpty() ? null : key);
+                                                productGrid.setProducts(products);
+                                        }, null);
                 };
 
-                categoryFilter.setOnAction(e -> loadProducts.run());
-                refreshProducts.setOnAction(e -> loadProducts.run());
+                // ✅ Search as you type: waits for a pause in typing, then queries the FTS index
+                // in the background (a newer keystroke supersedes the older search by key)
+                PauseTransition searchDebounce = new PauseTransition(Duration.millis(250));
+                searchDebounce.setOnFinished(e -> {
+                        String q = searchField.getText();
+                        if (q == null || q.isBlank()) {
+                                loadProducts.run();
+                                return;
+                        }
+                        shown.set(null); // the grid no longer shows a plain category listing
+                        UiDataLoader.load(productGrid, productGrid,
+                                        () -> productDAO.search(q, SEARCH_LIMIT),
+                                        productGrid::setProducts, null);
+                });
+                searchField.textProperty().addListener((obs, oldQ, newQ) -> searchDebounce.playFromStart());
+
+                categoryFilter.setOnAction(e -> {
+                        searchField.clear();
+                        loadProducts.run();
+                });
+                refreshProducts.setOnAction(e -> {
+                        if (searchField.getText().isBlank()) loadProducts.run();
+                        else searchDebounce.playFromStart();
+                });
+
+                StackPane productGridBox = UiDataLoader.withSpinner(productGrid);
+                VBox.setVgrow(productGridBox, Priority.ALWAYS);
 
-                VBox productsPanel = new VBox(10, productsLabel, productsBar, productGrid);
+                VBox productsPanel = new VBox(10, productsLabel, productsBar, productGridBox);
                 productsPanel.setPadding(new Insets(12));
                 productsPanel.getStyleClass().add("card");
 
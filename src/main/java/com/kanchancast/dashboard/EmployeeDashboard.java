@@ -2,25 +2,27 @@ package com.kanchancast.dashboard;
 
 import com.jewelleryapp.dao.OrderDAO;
 import com.kanchancast.model.AssignedTask;
+import com.kanchancast.model.OrderUpdate;
 import com.kanchancast.model.User;
 import com.kanchancast.auth.LoginScreen;
 import com.kanchancast.ui.PopupUtil;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Employee Dashboard
  * --------------------
  * Shows tasks assigned to a logged-in employee.
- * Allows them to mark tasks as completed or not completed.
+ * Allows them to mark tasks as completed or not completed (several at once).
  * Adds logout button to return to login screen.
  */
 public final class EmployeeDashboard {
@@ -38,6 +40,7 @@ public final class EmployeeDashboard {
         OrderDAO orderDAO = new OrderDAO();
         TableView<AssignedTask> tv = new TableView<>();
         tv.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        tv.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 
         TableColumn<AssignedTask, Number> cOrder = new TableColumn<>("Order #");
         cOrder.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getOrderId()));
@@ -57,10 +60,9 @@ public final class EmployeeDashboard {
         tv.getColumns().addAll(cOrder, cProduct, cCustomer, cStage, cDone);
 
         // ---- Loader ----
-        Runnable reload = () -> {
-            List<AssignedTask> items = orderDAO.listTasksAssignedToEmployee(employee.getUserId());
-            tv.setItems(FXCollections.observableArrayList(items));
-        };
+        // ✅ Runs in the background; a second Refresh cancels the first
+        Runnable reload = () -> UiDataLoader.loadInto(tv,
+                () -> orderDAO.listTasksAssignedToEmployee(employee.getUserId()));
 
         // ---- Buttons ----
         Button refresh = new Button("🔄 Refresh");
@@ -76,45 +78,9 @@ public final class EmployeeDashboard {
 
         refresh.setOnAction(e -> reload.run());
 
-        markDone.setOnAction(e -> {
-            AssignedTask sel = tv.getSelectionModel().getSelectedItem();
-            if (sel == null) {
-                PopupUtil.showWarn(stage, "Please select a task first.");
-                return;
-            }
-
-            boolean okConfirm = PopupUtil.confirm(stage, "Confirm Completion", "Mark this stage as completed?");
-            if (!okConfirm)
-                return;
-
-            boolean ok = orderDAO.markStageAsCompleted(sel.getOrderId(), sel.getStage());
-            if (ok) {
-                PopupUtil.showInfo(stage, "✅ Stage marked as completed!");
-                reload.run();
-            } else {
-                PopupUtil.showError(stage, "⚠️ Could not update stage.");
-            }
-        });
-
-        markNotDone.setOnAction(e -> {
-            AssignedTask sel = tv.getSelectionModel().getSelectedItem();
-            if (sel == null) {
-                PopupUtil.showWarn(stage, "Please select a task first.");
-                return;
-            }
-
-            boolean okConfirm = PopupUtil.confirm(stage, "Confirm Change", "Mark this stage as not completed?");
-            if (!okConfirm)
-                return;
-
-            boolean ok = orderDAO.markStageAsIncomplete(sel.getOrderId(), sel.getStage());
-            if (ok) {
-                PopupUtil.showInfo(stage, "❌ Stage marked as not completed!");
-                reload.run();
-            } else {
-                PopupUtil.showError(stage, "⚠️ Could not update stage.");
-            }
-        });
+        // ✅ Works on every selected row (Ctrl/Shift-click); all ticks are saved in one transaction
+        markDone.setOnAction(e -> markSelected(stage, tv, orderDAO, reload, true));
+        markNotDone.setOnAction(e -> markSelected(stage, tv, orderDAO, reload, false));
 
         // ---- Logout Button Action ----
         logout.setOnAction(e -> {
@@ -149,7 +115,10 @@ public final class EmployeeDashboard {
         bar.setAlignment(Pos.CENTER_LEFT);
         bar.setPadding(new Insets(10));
 
-        VBox root = new VBox(10, header, bar, tv);
+        StackPane tableBox = UiDataLoader.withSpinner(tv);
+        VBox.setVgrow(tableBox, Priority.ALWAYS);
+
+        VBox root = new VBox(10, header, bar, tableBox);
         root.setPadding(new Insets(10));
         root.setStyle("""
                     -fx-background-color: linear-gradient(to bottom right, #f8f9fa, #dee2e6);
@@ -165,4 +134,42 @@ public final class EmployeeDashboard {
         stage.setTitle("Kanchan Cast — Employee Dashboard");
         stage.show();
     }
+
+    private static void markSelected(Stage stage, TableView<AssignedTask> tv, OrderDAO orderDAO,
+                                     Runnable reload, boolean done) {
+        List<AssignedTask> selected = new ArrayList<>(tv.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            PopupUtil.showWarn(stage, "Please select a task first.");
+            return;
+        }
+
+        String what = selected.size() == 1 ? "this stage" : "these " + selected.size() + " stages";
+        boolean okConfirm = done
+                ? PopupUtil.confirm(stage, "Confirm Completion", "Mark " + what + " as completed?")
+                : PopupUtil.confirm(stage, "Confirm Change", "Mark " + what + " as not completed?");
+        if (!okConfirm)
+            return;
+
+        List<OrderUpdate> updates = new ArrayList<>(selected.size());
+        for (AssignedTask t : selected) {
+            updates.add(new OrderUpdate(t.getOrderId(), t.getStage(), done));
+        }
+
+        UiDataLoader.run(() -> orderDAO.setStagesCompletion(updates), results -> {
+            List<String> failed = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i)) failed.add(updates.get(i).toString());
+            }
+
+            if (failed.isEmpty()) {
+                PopupUtil.showInfo(stage, done
+                        ? "✅ " + selected.size() + " stage(s) marked as completed!"
+                        : "❌ " + selected.size() + " stage(s) marked as not completed!");
+            } else {
+                PopupUtil.showError(stage, "⚠️ Could not update " + failed.size() + " of " + updates.size()
+                        + " stage(s):\n" + String.join("\n", failed));
+            }
+            reload.run();
+        });
+    }
 }
@@ -0,0 +1,161 @@
+package com.kanchancast.dashboard;
+
+import com.jewelleryapp.dao.AnalyticsDAO;
+import com.kanchancast.ui.UiDataLoader;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owner "Cycle Times" tab: p50/p90 hours per stage, employee throughput and the age of
+ * work in progress, all from order_stages timestamps (AnalyticsDAO). Loads when opened.
+ */
+final class OwnerCycleTimeTab {
+
+    // Window label -> days
+    private static final Map<String, Integer> WINDOWS = new LinkedHashMap<>();
+    static {
+        WINDOWS.put("Last 30 Days", 30);
+        WINDOWS.put("Last 90 Days", 90);
+        WINDOWS.put("Last 365 Days", 365);
+    }
+
+    private OwnerCycleTimeTab() {}
+
+    private record Snapshot(List<AnalyticsDAO.StageCycleTime> cycles,
+                            List<AnalyticsDAO.EmployeeThroughput> throughput,
+                            List<AnalyticsDAO.StageWip> wip) {}
+
+    static Tab build() {
+        AnalyticsDAO analyticsDAO = new AnalyticsDAO();
+
+        ComboBox<String> window = new ComboBox<>(FXCollections.observableArrayList(WINDOWS.keySet()));
+        window.setValue("Last 90 Days");
+
+        // ===== CHART: CYCLE TIME PER STAGE =====
+        CategoryAxis stageX = new CategoryAxis();
+        stageX.setLabel("Stage");
+        stageX.setTickLabelRotation(45);
+
+        NumberAxis hoursY = new NumberAxis();
+        hoursY.setLabel("Hours (ready -> done)");
+
+        BarChart<String, Number> cycleChart = new BarChart<>(stageX, hoursY);
+        cycleChart.setTitle("Stage Cycle Time");
+        cycleChart.setAnimated(false);
+        cycleChart.setMinHeight(300);
+        XYChart.Series<String, Number> p50 = new XYChart.Series<>();
+        p50.setName("p50");
+        XYChart.Series<String, Number> p90 = new XYChart.Series<>();
+        p90.setName("p90");
+        cycleChart.getData().setAll(List.of(p50, p90));
+
+        // ===== TABLE: EMPLOYEE THROUGHPUT =====
+        TableView<AnalyticsDAO.EmployeeThroughput> throughputTable = new TableView<>();
+        throughputTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        throughputTable.setPlaceholder(new Label("No employees"));
+
+        TableColumn<AnalyticsDAO.EmployeeThroughput, String> tRank = new TableColumn<>("#");
+        tRank.setCellValueFactory(v -> new SimpleStringProperty(String.valueOf(v.getValue().rank())));
+
+        TableColumn<AnalyticsDAO.EmployeeThroughput, String> tName = new TableColumn<>("Employee");
+        tName.setCellValueFactory(v -> new SimpleStringProperty(v.getValue().name()));
+
+        TableColumn<AnalyticsDAO.EmployeeThroughput, String> tArea = new TableColumn<>("Work Area");
+        tArea.setCellValueFactory(v -> new SimpleStringProperty(v.getValue().workArea()));
+
+        TableColumn<AnalyticsDAO.EmployeeThroughput, String> tDone = new TableColumn<>("Stages Done");
+        tDone.setCellValueFactory(v -> new SimpleStringProperty(String.valueOf(v.getValue().completed())));
+
+        TableColumn<AnalyticsDAO.EmployeeThroughput, String> tWeek = new TableColumn<>("Per Week");
+        tWeek.setCellValueFactory(v -> new SimpleStringProperty(String.format("%.1f", v.getValue().perWeek())));
+
+        throughputTable.getColumns().setAll(List.of(tRank, tName, tArea, tDone, tWeek));
+
+        // ===== TABLE: WIP AGE =====
+        TableView<AnalyticsDAO.StageWip> wipTable = new TableView<>();
+        wipTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        wipTable.setPlaceholder(new Label("Nothing in progress"));
+
+        TableColumn<AnalyticsDAO.StageWip, String> wStage = new TableColumn<>("Stage");
+        wStage.setCellValueFactory(v -> new SimpleStringProperty(v.getValue().stage()));
+
+        TableColumn<AnalyticsDAO.StageWip, String> wCount = new TableColumn<>("In Progress");
+        wCount.setCellValueFactory(v -> new SimpleStringProperty(String.valueOf(v.getValue().inProgress())));
+
+        TableColumn<AnalyticsDAO.StageWip, String> wAvg = new TableColumn<>("Avg Age (days)");
+        wAvg.setCellValueFactory(v -> new SimpleStringProperty(String.format("%.1f", v.getValue().avgAgeDays())));
+
+        TableColumn<AnalyticsDAO.StageWip, String> wMax = new TableColumn<>("Oldest (days)");
+        wMax.setCellValueFactory(v -> new SimpleStringProperty(String.format("%.1f", v.getValue().maxAgeDays())));
+
+        wipTable.getColumns().setAll(List.of(wStage, wCount, wAvg, wMax));
+
+        // ===== LOAD =====
+        Runnable load = () -> {
+            int days = WINDOWS.getOrDefault(window.getValue(), 90);
+            UiDataLoader.load("ownerDashboard.cycleTimes", throughputTable,
+                    () -> new Snapshot(
+                            analyticsDAO.stageCycleTimes(days),
+                            analyticsDAO.employeeThroughput(days),
+                            analyticsDAO.wipAges()),
+                    snap -> {
+                p50.getData().clear();
+                p90.getData().clear();
+                for (AnalyticsDAO.StageCycleTime t : snap.cycles()) {
+                    String label = t.stage() + " (" + t.samples() + ")";
+                    p50.getData().add(new XYChart.Data<>(label, round1(t.p50Hours())));
+                    p90.getData().add(new XYChart.Data<>(label, round1(t.p90Hours())));
+                }
+                cycleChart.setTitle(snap.cycles().isEmpty()
+                        ? "Stage Cycle Time (no completions recorded in this window yet)"
+                        : "Stage Cycle Time (" + window.getValue() + ", samples in brackets)");
+
+                throughputTable.setItems(FXCollections.observableArrayList(snap.throughput()));
+                wipTable.setItems(FXCollections.observableArrayList(snap.wip()));
+            }, null);
+        };
+        window.setOnAction(e -> load.run());
+
+        Button btnRefresh = new Button("🔄 Refresh");
+        btnRefresh.setOnAction(e -> load.run());
+
+        HBox controls = new HBox(10, new Label("Window:"), window, btnRefresh);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        StackPane throughputBox = UiDataLoader.withSpinner(throughputTable);
+        VBox left = new VBox(6, new Label("Employee Throughput"), throughputBox);
+        VBox right = new VBox(6, new Label("Work in Progress (age since ready)"), wipTable);
+        VBox.setVgrow(throughputBox, Priority.ALWAYS);
+        VBox.setVgrow(wipTable, Priority.ALWAYS);
+        HBox.setHgrow(left, Priority.ALWAYS);
+        HBox.setHgrow(right, Priority.ALWAYS);
+
+        HBox tables = new HBox(14, left, right);
+        VBox.setVgrow(tables, Priority.ALWAYS);
+
+        VBox box = new VBox(10, controls, cycleChart, tables);
+        box.setPadding(new Insets(10));
+
+        Tab tab = new Tab("Cycle Times", box);
+        tab.setOnSelectionChanged(e -> {
+            if (tab.isSelected()) load.run();
+        });
+        return tab;
+    }
+
+    private static double round1(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+}
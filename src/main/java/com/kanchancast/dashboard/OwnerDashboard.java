@@ -2,6 +2,7 @@ package com.kanchancast.dashboard;
 
 import javafx.application.Platform;
 import com.kanchancast.dialogs.AdminDetailsDialog;
+import com.jewelleryapp.dao.AnalyticsDAO;
 import com.jewelleryapp.dao.OrderDAO;
 import com.jewelleryapp.dao.ProductDAO;
 import com.jewelleryapp.dao.UserDAO;
@@ -13,6 +14,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -20,7 +22,10 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import com.kanchancast.ui.OrderTablePager;
 import com.kanchancast.ui.PopupUtil;
+import com.kanchancast.ui.UiDataLoader;
+import com.kanchancast.util.DobUtil;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -32,10 +37,20 @@ public class OwnerDashboard {
 
     private static final DateTimeFormatter ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    // Trend chart ranges (label -> months shown, current month included)
+    private static final Map<String, Integer> TREND_RANGES = new LinkedHashMap<>();
+    static {
+        TREND_RANGES.put("Last 6 Months", 6);
+        TREND_RANGES.put("Last 12 Months", 12);
+        TREND_RANGES.put("Last 3 Years", 36);
+        TREND_RANGES.put("Last 5 Years", 60);
+    }
+
     public static void show(Stage stage, User ownerUser) {
         ProductDAO productDAO = new ProductDAO();
         OrderDAO orderDAO = new OrderDAO();
         UserDAO userDAO = new UserDAO();
+        AnalyticsDAO analyticsDAO = new AnalyticsDAO();
 
         // ===== HEADER =====
         Label header = new Label("Owner Dashboard");
@@ -95,6 +110,33 @@ public class OwnerDashboard {
         XYChart.Series<String, Number> trendSeries = new XYChart.Series<>();
         trendChart.getData().add(trendSeries);
 
+        // Trend range: the series comes from order_daily_rollup, so long ranges cost O(days)
+        ComboBox<String> trendRange = new ComboBox<>(FXCollections.observableArrayList(TREND_RANGES.keySet()));
+        trendRange.setValue("Last 6 Months");
+
+        Runnable loadTrend = () -> {
+            String range = trendRange.getValue();
+            int months = TREND_RANGES.getOrDefault(range, 6);
+            YearMonth now = YearMonth.now();
+            YearMonth from = now.minusMonths(months - 1);
+
+            UiDataLoader.load("ownerDashboard.trend", trendChart,
+                    () -> analyticsDAO.ordersPerMonth(from, now),
+                    perMonth -> {
+                trendChart.setTitle("Orders Trend (" + range + ")");
+                trendSeries.getData().clear();
+                monthX.getCategories().clear();
+                for (YearMonth m = from; !m.isAfter(now); m = m.plusMonths(1)) {
+                    String label = m.getMonth().name().substring(0, 3) + " " + m.getYear();
+                    monthX.getCategories().add(label);
+
+                    long cnt = perMonth.getOrDefault(m, 0L);
+                    trendSeries.getData().add(new XYChart.Data<>(label, cnt));
+                }
+            }, null);
+        };
+        trendRange.setOnAction(e -> loadTrend.run());
+
         // ✅ avoids first-load jitter/misalignment
         statusChart.setAnimated(false);
         topProductsChart.setAnimated(false);
@@ -123,7 +165,9 @@ public class OwnerDashboard {
 
         Button btnRefreshProducts = new Button("Refresh Products");
 
-        VBox productTab = new VBox(10, new Label("All Products"), btnRefreshProducts, productTable);
+        StackPane productTableBox = UiDataLoader.withSpinner(productTable);
+        VBox.setVgrow(productTableBox, Priority.ALWAYS);
+        VBox productTab = new VBox(10, new Label("All Products"), btnRefreshProducts, productTableBox);
         productTab.setPadding(new Insets(10));
 
         // ===== TABLE: ORDERS =====
@@ -153,8 +197,13 @@ public class OwnerDashboard {
 
         ordersTable.getColumns().addAll(oId, oUser, oProduct, oDate, oDelivery, oStatus, oProgress);
 
+        // ✅ Lazily paged from the DB instead of materializing every order
+        OrderTablePager ordersPager = OrderTablePager.attach(ordersTable, orderDAO);
+
         Button btnRefreshOrders = new Button("Refresh Orders");
-        VBox ordersTab = new VBox(10, new Label("All Orders"), btnRefreshOrders, ordersTable);
+        StackPane ordersTableBox = UiDataLoader.withSpinner(ordersTable);
+        VBox.setVgrow(ordersTableBox, Priority.ALWAYS);
+        VBox ordersTab = new VBox(10, new Label("All Orders"), btnRefreshOrders, ordersTableBox);
         ordersTab.setPadding(new Insets(10));
 
         // ===== TABLE: USERS (ADMINS ONLY) =====
@@ -189,11 +238,8 @@ public class OwnerDashboard {
         Button btnViewUser = new Button("View Selected");
         Button btnAddAdmin = new Button("Create New Admin");
 
-        Runnable loadUsers = () -> {
-            List<User> users = userDAO.listAll();
-            usersTable.setItems(FXCollections.observableArrayList(
-                    users.stream().filter(u -> eqType(u, "admin")).toList()));
-        };
+        Runnable loadUsers = () -> UiDataLoader.loadInto(usersTable,
+                () -> userDAO.listAll().stream().filter(u -> eqType(u, "admin")).toList());
 
         btnRefreshUsers.setOnAction(e -> loadUsers.run());
 
@@ -216,18 +262,19 @@ public class OwnerDashboard {
                 PopupUtil.showWarn(stage, "You cannot delete the Owner account!");
                 return;
             }
-            boolean deleted = userDAO.deleteUser(selected.getUserId());
-            if (deleted) {
-                PopupUtil.showInfo(stage, "✅ User deleted successfully!");
-            } else {
-                PopupUtil.showError(stage, "⚠️ Failed to delete user!");
-            }
-            loadUsers.run();
+            UiDataLoader.run(() -> userDAO.deleteUser(selected.getUserId()), deleted -> {
+                if (deleted) {
+                    PopupUtil.showInfo(stage, "✅ User deleted successfully!");
+                } else {
+                    PopupUtil.showError(stage, "⚠️ Failed to delete user!");
+                }
+                loadUsers.run();
+            });
         });
 
         // ✅ UPDATED: create admin -> generate user_code, save it, show popup with code
         btnAddAdmin.setOnAction(e -> {
-            Dialog<User> dialog = new Dialog<>();
+            Dialog<ButtonType> dialog = new Dialog<>();
             dialog.initOwner(stage); // ✅ FIX: Set owner to keep it on top of the dashboard
             dialog.setTitle("Create New Administrator");
 
@@ -262,51 +309,58 @@ public class OwnerDashboard {
             dialog.getDialogPane().setContent(grid);
             dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
 
-            dialog.setResultConverter(button -> {
-                if (button == ButtonType.OK) {
-                    String username = nameField.getText() == null ? "" : nameField.getText().trim();
-                    String password = passField.getText() == null ? "" : passField.getText().trim();
-                    String address = addressField.getText() == null ? "" : addressField.getText().trim();
-                    String gender = genderBox.getValue();
-                    String workArea = workAreaField.getText() == null ? "" : workAreaField.getText().trim();
-                    LocalDate dob = dobPicker.getValue();
-
-                    if (username.isEmpty() || password.isEmpty() || address.isEmpty()
-                            || gender == null || dob == null || workArea.isEmpty()) {
-                        Alert alert = new Alert(Alert.AlertType.WARNING,
-                                "All fields are required. Please complete Username, Password, Address, Gender, Work Area and Date of Birth.");
-                        alert.initOwner(dialog.getDialogPane().getScene().getWindow());
-                        alert.showAndWait();
-                        return null;
-                    }
-                    if (username.length() < 3) {
-                        Alert alert = new Alert(Alert.AlertType.WARNING, "Username must be at least 3 characters.");
-                        alert.initOwner(dialog.getDialogPane().getScene().getWindow());
-                        alert.showAndWait();
-                        return null;
-                    }
-                    if (username.contains(" ")) {
-                        Alert alert = new Alert(Alert.AlertType.WARNING, "Username cannot contain spaces.");
-                        alert.initOwner(dialog.getDialogPane().getScene().getWindow());
-                        alert.showAndWait();
-                        return null;
-                    }
-                    if (password.length() < 4) {
-                        Alert alert = new Alert(Alert.AlertType.WARNING, "Password must be at least 4 characters.");
-                        alert.initOwner(dialog.getDialogPane().getScene().getWindow());
-                        alert.showAndWait();
-                        return null;
-                    }
-                    if (dob.isAfter(LocalDate.now())) {
-                        Alert alert = new Alert(Alert.AlertType.WARNING, "Date of Birth cannot be in the future.");
-                        alert.initOwner(dialog.getDialogPane().getScene().getWindow());
-                        alert.showAndWait();
-                        return null;
-                    }
+            Node okBtn = dialog.getDialogPane().lookupButton(ButtonType.OK);
+            okBtn.addEventFilter(javafx.event.ActionEvent.ANY, ev -> {
+                String username = nameField.getText() == null ? "" : nameField.getText().trim();
+                String password = passField.getText() == null ? "" : passField.getText().trim();
+                String address = addressField.getText() == null ? "" : addressField.getText().trim();
+                String gender = genderBox.getValue();
+                String workArea = workAreaField.getText() == null ? "" : workAreaField.getText().trim();
+                LocalDate dob = dobPicker.getValue();
+
+                if (username.isEmpty() || password.isEmpty() || address.isEmpty()
+                        || gender == null || dob == null || workArea.isEmpty()) {
+                    Alert alert = new Alert(Alert.AlertType.WARNING,
+                            "All fields are required. Please complete Username, Password, Address, Gender, Work Area and Date of Birth.");
+                    alert.initOwner(dialog.getDialogPane().getScene().getWindow());
+                    alert.showAndWait();
+                    ev.consume();
+                    return;
+                }
+                if (username.length() < 3) {
+                    Alert alert = new Alert(Alert.AlertType.WARNING, "Username must be at least 3 characters.");
+                    alert.initOwner(dialog.getDialogPane().getScene().getWindow());
+                    alert.showAndWait();
+                    ev.consume();
+                    return;
+                }
+                if (username.contains(" ")) {
+                    Alert alert = new Alert(Alert.AlertType.WARNING, "Username cannot contain spaces.");
+                    alert.initOwner(dialog.getDialogPane().getScene().getWindow());
+                    alert.showAndWait();
+                    ev.consume();
+                    return;
+                }
+                if (password.length() < 4) {
+                    Alert alert = new Alert(Alert.AlertType.WARNING, "Password must be at least 4 characters.");
+                    alert.initOwner(dialog.getDialogPane().getScene().getWindow());
+                    alert.showAndWait();
+                    ev.consume();
+                    return;
+                }
+                String dobProblem = DobUtil.problem(dob);
+                if (dobProblem != null) {
+                    Alert alert = new Alert(Alert.AlertType.WARNING, dobProblem);
+                    alert.initOwner(dialog.getDialogPane().getScene().getWindow());
+                    alert.showAndWait();
+                    ev.consume();
+                    return;
+                }
 
-                    // ✅ Generate a unique admin user_code
+                // ✅ Generate a unique admin user_code, then save (hashing + the write run in the background)
+                ev.consume();
+                UiDataLoader.run(okBtn, () -> {
                     String userCode = generateUniqueAdminCode(userDAO);
-
                     boolean ok = userDAO.createUserWithCode(
                             "admin",
                             username,
@@ -316,12 +370,14 @@ public class OwnerDashboard {
                             workArea,
                             dob.format(ISO),
                             userCode);
-
-                    if (ok) {
+                    return ok ? userCode : null; // null = not created
+                }, userCode -> {
+                    if (userCode != null) {
                         Alert alert = new Alert(Alert.AlertType.INFORMATION,
                                 "✅ Admin created successfully!\n\nUser Code: " + userCode);
                         alert.initOwner(dialog.getDialogPane().getScene().getWindow());
                         alert.showAndWait();
+                        dialog.setResult(ButtonType.OK);
                     } else {
                         Alert alert = new Alert(Alert.AlertType.ERROR, "⚠️ Failed to create admin!");
                         alert.initOwner(dialog.getDialogPane().getScene().getWindow());
@@ -329,109 +385,67 @@ public class OwnerDashboard {
                     }
 
                     loadUsers.run();
-                }
-                return null;
+                });
             });
 
             dialog.showAndWait();
         });
 
         HBox userButtons = new HBox(10, btnRefreshUsers, btnAddAdmin, btnViewUser, btnDeleteUser);
-        VBox usersTab = new VBox(10, new Label("Administrators"), userButtons, usersTable);
+        StackPane usersTableBox = UiDataLoader.withSpinner(usersTable);
+        VBox.setVgrow(usersTableBox, Priority.ALWAYS);
+        VBox usersTab = new VBox(10, new Label("Administrators"), userButtons, usersTableBox);
         usersTab.setPadding(new Insets(10));
 
         // ===== REFRESH ALL =====
-        Runnable refreshAll = () -> {
-            List<Product> products = productDAO.listAll();
-            List<OrderSummary> orders = orderDAO.listAll();
+        // KPIs/charts come from grouped SQL (AnalyticsDAO), so the cost doesn't grow with the order count.
+        // Products come from the in-memory catalog snapshot.
+        record Snapshot(List<Product> products, AnalyticsDAO.OrderKpis kpis,
+                        List<AnalyticsDAO.ProductCount> topProducts) {}
 
-            productTable.setItems(FXCollections.observableArrayList(products));
-            ordersTable.setItems(FXCollections.observableArrayList(orders));
+        Runnable refreshAll = () -> {
+            ordersPager.reload();
             loadUsers.run();
-
-            totalOrdersVal.setText(String.valueOf(orders.size()));
-
-            long completed = orders.stream().filter(o -> o.getProgressPercent() >= 100).count();
-            long inProgress = orders.stream().filter(o -> o.getProgressPercent() < 100).count();
-            completedOrdersVal.setText(String.valueOf(completed));
-            inProgressVal.setText(String.valueOf(inProgress));
-
-            Map<Integer, Double> priceByProductId = products.stream()
-                    .collect(Collectors.toMap(Product::getProductId, Product::getPrice, (a, b) -> a));
-
-            double revenue = orders.stream()
-                    .filter(o -> o.getProgressPercent() >= 100)
-                    .mapToDouble(o -> priceByProductId.getOrDefault(o.getProductId(), 0.0))
-                    .sum();
-
-            // Rupees sign
-            revenueVal.setText(String.format("₹%.2f", revenue));
-
-            String topProduct = "N/A";
-            if (!orders.isEmpty()) {
-                Map<Integer, Long> counts = orders.stream()
-                        .collect(Collectors.groupingBy(OrderSummary::getProductId, Collectors.counting()));
-                Optional<Integer> topPid = counts.entrySet().stream()
-                        .max(Map.Entry.comparingByValue())
-                        .map(Map.Entry::getKey);
-                if (topPid.isPresent()) {
-                    int pid = topPid.get();
-                    topProduct = products.stream()
-                            .filter(p -> p.getProductId() == pid)
-                            .map(Product::getName)
-                            .findFirst()
-                            .orElse("Product #" + pid);
+            loadTrend.run();
+
+            UiDataLoader.load("ownerDashboard.refresh", productTable,
+                    () -> new Snapshot(
+                            productDAO.listAll(),
+                            analyticsDAO.orderKpis(),
+                            analyticsDAO.topProducts(6)),
+                    snap -> {
+                productTable.setItems(FXCollections.observableArrayList(snap.products()));
+
+                AnalyticsDAO.OrderKpis kpis = snap.kpis();
+                totalOrdersVal.setText(String.valueOf(kpis.total()));
+                completedOrdersVal.setText(String.valueOf(kpis.completed()));
+                inProgressVal.setText(String.valueOf(kpis.inProgress()));
+
+                // Rupees sign
+                revenueVal.setText(String.format("₹%.2f", kpis.completedRevenue()));
+
+                // Top of the bar chart ranking (ties broken by name)
+                List<AnalyticsDAO.ProductCount> top = snap.topProducts();
+                String topProduct = "N/A";
+                if (!top.isEmpty() && top.get(0).orders() > 0) {
+                    topProduct = safe(top.get(0).name(), "Product #" + top.get(0).productId());
+                }
+                topProductVal.setText(topProduct);
+
+                // ✅ FIX: Use incremental update specific for Owner Dashboard status chart
+                Map<String, Long> statusData = new HashMap<>();
+                statusData.put("Completed", kpis.completed());
+                statusData.put("In Progress", kpis.total() - kpis.completed());
+                updatePieChartData(statusChart, statusData);
+
+                // Top products bar chart shows max 6 products, or all if fewer exist
+                topProductsSeries.getData().clear();
+                for (AnalyticsDAO.ProductCount pc : top) {
+                    String label = safe(pc.name(), "Unknown");
+                    topProductsSeries.getData().add(new XYChart.Data<>(label, pc.orders()));
                 }
-            }
-            topProductVal.setText(topProduct);
-
-            long total = Math.max(1, orders.size());
-            // ✅ FIX: Use incremental update specific for Owner Dashboard status chart
-            Map<String, Long> statusData = new HashMap<>();
-            statusData.put("Completed", completed);
-            statusData.put("In Progress", total - completed);
-            updatePieChartData(statusChart, statusData);
-
-            // Top products bar chart shows max 6 products, or all if fewer exist
-            topProductsSeries.getData().clear();
-
-            // Count orders per productId
-            Map<Integer, Long> ordersByPid = orders.stream()
-                    .collect(Collectors.groupingBy(OrderSummary::getProductId, Collectors.counting()));
-
-            // Sort all products by order count desc, then by name
-            List<Product> sortedProducts = new ArrayList<>(products);
-            sortedProducts.sort(
-                    Comparator.comparingLong((Product p) -> ordersByPid.getOrDefault(p.getProductId(), 0L))
-                            .reversed()
-                            .thenComparing(p -> safe(p.getName(), ""), String.CASE_INSENSITIVE_ORDER));
-
-            int limit = Math.min(6, sortedProducts.size());
-            for (int i = 0; i < limit; i++) {
-                Product p = sortedProducts.get(i);
-                long count = ordersByPid.getOrDefault(p.getProductId(), 0L);
-
-                String label = safe(p.getName(), "Unknown");
-                topProductsSeries.getData().add(new XYChart.Data<>(label, count));
-            }
 
-            trendSeries.getData().clear();
-            Map<YearMonth, Long> perMonth = new HashMap<>();
-            for (OrderSummary o : orders) {
-                YearMonth ym = parseYearMonth(o.getDateOrdered());
-                if (ym != null)
-                    perMonth.merge(ym, 1L, Long::sum);
-            }
-            YearMonth now = YearMonth.now();
-            monthX.getCategories().clear();
-            for (int i = 5; i >= 0; i--) {
-                YearMonth m = now.minusMonths(i);
-                String label = m.getMonth().name().substring(0, 3) + " " + m.getYear();
-                monthX.getCategories().add(label);
-
-                long cnt = perMonth.getOrDefault(m, 0L);
-                trendSeries.getData().add(new XYChart.Data<>(label, cnt));
-            }
+            }, null);
         };
 
         btnRefreshProducts.setOnAction(e -> refreshAll.run());
@@ -440,12 +454,17 @@ public class OwnerDashboard {
         Tab t1 = new Tab("Products", productTab);
         Tab t2 = new Tab("Orders", ordersTab);
         Tab t3 = new Tab("Users", usersTab);
+        Tab t4 = OwnerScheduleTab.build(); // ETA forecast, loads when opened
+        Tab t5 = OwnerCycleTimeTab.build(); // stage timing analytics, loads when opened
 
-        TabPane tabs = new TabPane(t1, t2, t3);
+        TabPane tabs = new TabPane(t1, t2, t3, t4, t5);
         tabs.getTabs().forEach(tab -> tab.setClosable(false));
         VBox.setVgrow(tabs, Priority.ALWAYS);
 
-        HBox chartBox = new HBox(36, statusChart, topProductsChart, trendChart);
+        VBox trendBox = new VBox(4, trendRange, trendChart);
+        trendBox.setAlignment(Pos.TOP_RIGHT);
+
+        HBox chartBox = new HBox(36, statusChart, topProductsChart, trendBox);
         chartBox.setAlignment(Pos.CENTER);
         chartBox.setPadding(new Insets(10, 10, 10, 10));
         chartBox.setMaxHeight(360);
@@ -523,17 +542,6 @@ public class OwnerDashboard {
         return t.isEmpty() ? fallback : t;
     }
 
-    private static YearMonth parseYearMonth(String dateStr) {
-        if (dateStr == null)
-            return null;
-        try {
-            LocalDate d = LocalDate.parse(dateStr.trim(), ISO);
-            return YearMonth.of(d.getYear(), d.getMonth());
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
     private static VBox buildCard(String title, Label valueLbl) {
         Label titleLbl = new Label(title);
         titleLbl.setFont(Font.font("Arial", 13));
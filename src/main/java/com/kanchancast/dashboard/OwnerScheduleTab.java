@@ -0,0 +1,128 @@
+package com.kanchancast.dashboard;
+
+import com.jewelleryapp.dao.ProductionScheduler;
+import com.kanchancast.model.OrderEta;
+import com.kanchancast.ui.UiDataLoader;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.*;
+
+import java.util.List;
+
+/**
+ * Owner "Schedule" tab: forecast delivery date of every open order (ProductionScheduler)
+ * next to its promised date, and how much queued work each stage has per employee.
+ * Computed when the tab is opened and on Refresh.
+ */
+final class OwnerScheduleTab {
+
+    private OwnerScheduleTab() {}
+
+    static Tab build() {
+        ProductionScheduler scheduler = new ProductionScheduler();
+
+        Label summary = new Label("Open this tab to forecast the backlog.");
+        summary.setStyle("-fx-font-size: 13px; -fx-text-fill: #333333;");
+
+        // ===== TABLE: ORDER ETAs =====
+        TableView<OrderEta> etaTable = new TableView<>();
+        etaTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        etaTable.setPlaceholder(new Label("No open orders"));
+
+        TableColumn<OrderEta, Integer> cId = new TableColumn<>("Order ID");
+        cId.setCellValueFactory(new PropertyValueFactory<>("orderId"));
+
+        TableColumn<OrderEta, String> cProduct = new TableColumn<>("Product");
+        cProduct.setCellValueFactory(new PropertyValueFactory<>("productName"));
+
+        TableColumn<OrderEta, String> cPromised = new TableColumn<>("Promised");
+        cPromised.setCellValueFactory(v -> new SimpleStringProperty(
+                v.getValue().getDeliveryDate() == null ? "-" : v.getValue().getDeliveryDate().toString()));
+
+        TableColumn<OrderEta, String> cEta = new TableColumn<>("Forecast");
+        cEta.setCellValueFactory(v -> new SimpleStringProperty(String.valueOf(v.getValue().getEta())));
+
+        TableColumn<OrderEta, String> cLate = new TableColumn<>("Days Late");
+        cLate.setCellValueFactory(v -> {
+            long d = v.getValue().getDaysLate();
+            return new SimpleStringProperty(d > 0 ? "+" + d : String.valueOf(d));
+        });
+
+        TableColumn<OrderEta, Integer> cLeft = new TableColumn<>("Stages Left");
+        cLeft.setCellValueFactory(new PropertyValueFactory<>("stagesLeft"));
+
+        TableColumn<OrderEta, String> cWaits = new TableColumn<>("Waits Longest On");
+        cWaits.setCellValueFactory(v -> new SimpleStringProperty(
+                v.getValue().getBottleneckStage() == null ? "-" : v.getValue().getBottleneckStage()));
+
+        etaTable.getColumns().setAll(List.of(cId, cProduct, cPromised, cEta, cLate, cLeft, cWaits));
+
+        // ✅ Late orders stand out
+        etaTable.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(OrderEta item, boolean empty) {
+                super.updateItem(item, empty);
+                setStyle(!empty && item != null && item.isLate() ? "-fx-background-color: #fde2e2;" : "");
+            }
+        });
+
+        // ===== CHART: QUEUE PER STAGE =====
+        CategoryAxis stageX = new CategoryAxis();
+        stageX.setLabel("Stage");
+        stageX.setTickLabelRotation(45);
+
+        NumberAxis daysY = new NumberAxis();
+        daysY.setLabel("Days of queued work per employee");
+
+        BarChart<String, Number> loadChart = new BarChart<>(stageX, daysY);
+        loadChart.setTitle("Stage Queues (bottleneck first)");
+        loadChart.setLegendVisible(false);
+        loadChart.setAnimated(false);
+        loadChart.setMinHeight(300);
+        XYChart.Series<String, Number> loadSeries = new XYChart.Series<>();
+        loadChart.getData().add(loadSeries);
+
+        // ===== LOAD =====
+        StackPane etaTableBox = UiDataLoader.withSpinner(etaTable);
+
+        Runnable load = () -> UiDataLoader.load("ownerDashboard.schedule", etaTable, scheduler::forecast, s -> {
+            etaTable.setItems(FXCollections.observableArrayList(s.orders()));
+
+            loadSeries.getData().clear();
+            for (ProductionScheduler.StageLoad l : s.stages()) {
+                String label = l.stage() + (l.employees() == 0 && l.openStages() > 0 ? " (no staff)" : "");
+                loadSeries.getData().add(new XYChart.Data<>(label, Math.round(l.daysPerEmployee() * 10) / 10.0));
+            }
+
+            ProductionScheduler.StageLoad b = s.bottleneck();
+            summary.setText(String.format("%d open order(s) · %d forecast late · bottleneck: %s · computed in %d ms",
+                    s.orders().size(), s.lateOrders(),
+                    b == null ? "none" : String.format("%s (%.1f days/employee)", b.stage(), b.daysPerEmployee()),
+                    s.computeMillis()));
+        }, null);
+
+        Button btnRefresh = new Button("🔄 Recalculate");
+        btnRefresh.setOnAction(e -> load.run());
+
+        Label note = new Label("Forecast uses each employee's speed over the last "
+                + ProductionScheduler.HISTORY_DAYS + " days; stages without history use the product's planned duration.");
+        note.setStyle("-fx-font-size: 11px; -fx-text-fill: #666666;");
+
+        VBox.setVgrow(etaTableBox, Priority.ALWAYS);
+        VBox box = new VBox(10, new HBox(10, btnRefresh, summary), note, etaTableBox, loadChart);
+        box.setPadding(new Insets(10));
+
+        Tab tab = new Tab("Schedule", box);
+        tab.setOnSelectionChanged(e -> {
+            if (tab.isSelected()) load.run();
+        });
+        return tab;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kanchancast.dev;
+
+import com.jewelleryapp.dao.ProductionScheduler;
+import com.kanchancast.model.OrderEta;
+
+/**
+ * Prints the production forecast for the app DB: how long it took, the stage queues
+ * (bottleneck first) and the orders forecast to miss their promised date.
+ */
+public class ForecastBacklog {
+
+    public static void main(String[] args) {
+        ProductionScheduler.Schedule s = new ProductionScheduler().forecast();
+
+        System.out.println("Forecast for " + s.orders().size() + " open order(s) in " + s.computeMillis() + " ms");
+        System.out.println();
+        for (ProductionScheduler.StageLoad l : s.stages()) {
+            System.out.printf("  %-28s open=%-5d staff=%-3d %6.1f days/employee  avg wait %.1f d%s%n",
+                    l.stage(), l.openStages(), l.employees(), l.daysPerEmployee(), l.avgWaitDays(),
+                    l.learned() ? "" : "  (no history, planned durations)");
+        }
+
+        System.out.println();
+        System.out.println(s.lateOrders() + " order(s) forecast late:");
+        for (OrderEta e : s.orders()) {
+            if (!e.isLate()) continue;
+            System.out.printf("  #%-6d %-30s promised %s  forecast %s  (+%d d, waits on %s)%n",
+                    e.getOrderId(), e.getProductName(), e.getDeliveryDate(), e.getEta(),
+                    e.getDaysLate(), e.getBottleneckStage() == null ? "-" : e.getBottleneckStage());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.kanchancast.dev;
+
+import com.jewelleryapp.dao.AuditedQueries;
+import com.jewelleryapp.dao.AuditedQueries.Query;
+import com.jewelleryapp.dao.SchemaMigrations;
+import com.kanchancast.model.StageEnum;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN QUERY PLAN over the DAO queries and fails (exit code 1) if any
+ * of them reads a whole table or index (see fullScans for the rule).
+ *
+ * Usage:
+ *   QueryPlanAudit                 -> builds a throw-away DB (latest migrations + ~50k orders)
+ *   QueryPlanAudit path/to/app.db  -> audits an existing DB (pending migrations are applied first)
+ *   -Dkanchancast.audit.db=...     -> same as passing the path
+ *
+ * The statements come from AuditedQueries, which reads the DAOs' own SQL constants,
+ * so what is planned here is exactly what the app runs.
+ */
+public class QueryPlanAudit {
+
+    private static final List<Query> QUERIES = AuditedQueries.all();
+
+    public static void main(String[] args) throws Exception {
+        String given = (args.length > 0) ? args[0] : System.getProperty("kanchancast.audit.db");
+
+        Path db;
+        boolean seed = (given == null || given.isBlank());
+        if (seed) {
+            db = Files.createTempFile("kanchancast-audit", ".db");
+            db.toFile().deleteOnExit();
+        } else {
+            db = Path.of(given);
+        }
+
+        try (Connection c = DriverManager.getConnection("jdbc:sqlite:" + db.toAbsolutePath())) {
+            SchemaMigrations.migrate(c);
+
+            if (seed) {
+                seedLargeDatabase(c);
+                System.out.println("Seeded audit DB: " + db);
+            }
+
+            Set<String> partialIndexes = partialIndexes(c);
+
+            int failures = 0;
+            for (Query q : QUERIES) {
+                List<String> plan = explain(c, q.sql());
+                List<String> scans = fullScans(plan, q.sql(), partialIndexes);
+
+                boolean bad = !q.fullScanExpected() && !scans.isEmpty();
+                if (bad) failures++;
+
+                System.out.println((bad ? "❌ " : "✅ ") + q.name());
+                for (String step : plan) System.out.println("      " + step);
+            }
+
+            System.out.println();
+            if (failures > 0) {
+                System.out.println("❌ " + failures + " quer" + (failures == 1 ? "y reads" : "ies read") + " a whole table or index");
+                System.exit(1);
+            }
+            System.out.println("✅ No unexpected full table or index scans (" + QUERIES.size() + " queries)");
+        }
+    }
+
+    // ---------------- internals ----------------
+
+    private static List<String> explain(Connection c, String sql) throws SQLException {
+        List<String> out = new ArrayList<>();
+        // Unbound "?" parameters are NULL, which is fine for planning
+        try (PreparedStatement ps = c.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getString("detail"));
+        }
+        return out;
+    }
+
+    /**
+     * Steps that read every row of a table: "SCAN t", with or without "USING [COVERING] INDEX i"
+     * (an index walk still visits every entry). Not counted:
+     * - a walk of a partial index: it only holds the rows its WHERE selects
+     * - a walk in a statement with a LIMIT and no "USE TEMP B-TREE FOR ORDER BY": the rows come
+     *   out already sorted, so the walk stops after LIMIT of them
+     * - scans of a CTE / subquery (named by a CO-ROUTINE or MATERIALIZE step): rows the statement
+     *   produced itself
+     * - FTS5 virtual tables: MATCH goes through the full-text index
+     */
+    private static List<String> fullScans(List<String> plan, String sql, Set<String> partialIndexes) {
+        Set<String> derived = new HashSet<>();
+        boolean sortsEverything = false;
+        for (String step : plan) {
+            String s = step.trim();
+            if (s.startsWith("CO-ROUTINE ")) derived.add(s.substring("CO-ROUTINE ".length()));
+            if (s.startsWith("MATERIALIZE ")) derived.add(s.substring("MATERIALIZE ".length()));
+            if (s.equals("USE TEMP B-TREE FOR ORDER BY")) sortsEverything = true;
+        }
+        boolean stopsEarly = LIMIT.matcher(sql).find() && !sortsEverything;
+
+        List<String> out = new ArrayList<>();
+        for (String step : plan) {
+            String s = step.trim();
+            if (!s.startsWith("SCAN ") || s.contains("VIRTUAL TABLE")) continue;
+
+            String[] words = s.split(" ");
+            String name = (s.startsWith("SCAN TABLE ") ? words[2] : words[1]);
+            if (name.startsWith("(subquery-") || derived.contains(name)) continue;
+
+            int using = s.indexOf(" INDEX ");
+            String index = (using < 0) ? null : s.substring(using + " INDEX ".length()).split(" ")[0];
+            if (index != null && partialIndexes.contains(index)) continue;
+            if (stopsEarly) continue;
+
+            out.add(s);
+        }
+        return out;
+    }
+
+    private static final Pattern LIMIT = Pattern.compile("\\bLIMIT\\b", Pattern.CASE_INSENSITIVE);
+
+    private static Set<String> partialIndexes(Connection c) throws SQLException {
+        Set<String> out = new HashSet<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT name FROM sqlite_master WHERE type = 'index' AND sql LIKE '% WHERE %'")) {
+            while (rs.next()) out.add(rs.getString(1));
+        }
+        return out;
+    }
+
+    /** Production-like volume so the planner's choices match a busy shop, not an empty DB. */
+    private static void seedLargeDatabase(Connection c) throws SQLException {
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("""
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 5000)
+                INSERT INTO users (user_type, user_name, password, user_code, work_area)
+                SELECT CASE WHEN i % 10 = 0 THEN 'employee' ELSE 'customer' END,
+                       'audit_user_' || i, 'x', 'AUDIT-' || i,
+                       CASE WHEN i % 10 = 0 THEN 'Area ' || (i % 11) END
+                FROM n
+            """);
+
+            st.executeUpdate("""
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000)
+                INSERT INTO products (name, type, karat, weight, price, description, duration_amount, duration_unit)
+                SELECT 'Audit piece ' || i,
+                       CASE i % 4 WHEN 0 THEN 'Ring' WHEN 1 THEN 'necklace' WHEN 2 THEN 'Bangles' ELSE 'earrings' END,
+                       22, 5, 1000 + i, 'seeded for query plan audit', 7, 'DAYS'
+                FROM n
+            """);
+
+            // Like a shop with some history: two thirds of the orders are finished, a third still open
+            st.executeUpdate("""
+                WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 50000)
+                INSERT INTO orders (user_id, product_id, status, date_ordered, delivery_date, progress)
+                SELECT (SELECT MIN(user_id) FROM users) + (i * 7) % 5000,
+                       (SELECT MIN(product_id) FROM products) + (i * 13) % 2000,
+                       'PENDING', DATE('2024-01-01', '+' || (i % 700) || ' days'),
+                       DATE('2024-01-08', '+' || (i % 700) || ' days'),
+                       CASE WHEN i % 3 = 0 THEN 0 ELSE 100 END
+                FROM n
+            """);
+
+            StringBuilder stages = new StringBuilder();
+            for (String s : StageEnum.labels()) {
+                if (stages.length() > 0) stages.append(" UNION ALL ");
+                stages.append("SELECT '").append(s.replace("'", "''")).append("' AS name");
+            }
+            // Concatenated, not formatted(): the SQL has a literal % (modulo)
+            st.executeUpdate("""
+                INSERT OR IGNORE INTO order_stages (order_id, stage_name, employee_id, completed)
+                SELECT o.order_id, s.name,
+                       (SELECT MIN(user_id) FROM users) + ((o.order_id % 500) * 10 + 9),
+                       CASE WHEN o.progress >= 100 THEN 'Yes' ELSE 'No' END
+                FROM orders o CROSS JOIN (""" + stages + ") AS s");
+
+            st.execute("ANALYZE");
+            c.commit();
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+}
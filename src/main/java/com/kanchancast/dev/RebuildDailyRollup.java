@@ -0,0 +1,22 @@
+package com.kanchancast.dev;
+
+import com.jewelleryapp.dao.AnalyticsDAO;
+
+/**
+ * Recomputes order_daily_rollup and the dashboard counters (order_totals,
+ * products.order_count) from the orders table.
+ *
+ * The app keeps them current by itself (triggers on orders); run this after
+ * editing the DB by hand. Completed revenue keeps each order's price at completion.
+ */
+public class RebuildDailyRollup {
+
+    public static void main(String[] args) {
+        int rows = new AnalyticsDAO().rebuildDailyRollup();
+        if (rows < 0) {
+            System.out.println("❌ Rollup rebuild failed (see error above)");
+            System.exit(1);
+        }
+        System.out.println("✅ order_daily_rollup rebuilt: " + rows + " day/product row(s)");
+    }
+}
@@ -13,8 +13,6 @@ import java.util.*;
  * UserDAO – Handles authentication, creation, and listing of users.
  *
  * ✅ Teacher change supported: authenticateByCode(user_code + password)
- *
- * NOTE: This version does NOT use DOB because your current User model does not have setDob().
  */
 public class SeedUsers {
 
@@ -24,7 +22,7 @@ public class SeedUsers {
 
     /** Authenticate user by username + password (supports hashed or plaintext). */
     public Optional<User> authenticate(String username, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_name = ? LIMIT 1";
+        final String SQL = "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_name = ? LIMIT 1";
 
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(SQL)) {
@@ -33,7 +31,7 @@ public class SeedUsers {
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                String storedHash = rs.getString("password");
+                String storedHash = rs.getString(AUTH_PASSWORD);
                 boolean matches = storedHash != null && storedHash.equals(rawPassword);
 
                 if (!matches) {
@@ -53,7 +51,7 @@ public class SeedUsers {
 
     /** Authenticate using code + username + password (kept for backward compatibility). */
     public Optional<User> authenticateFull(String userCode, String userName, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_code = ? AND user_name = ? LIMIT 1";
+        final String SQL = "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_code = ? AND user_name = ? LIMIT 1";
 
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(SQL)) {
@@ -63,7 +61,7 @@ public class SeedUsers {
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                String storedHash = rs.getString("password");
+                String storedHash = rs.getString(AUTH_PASSWORD);
                 boolean matches = storedHash != null && storedHash.equals(rawPassword);
 
                 if (!matches) {
@@ -86,7 +84,7 @@ public class SeedUsers {
      * Username is still loaded from DB so it displays everywhere else unchanged.
      */
     public Optional<User> authenticateByCode(String userCode, String rawPassword) {
-        final String SQL = "SELECT * FROM users WHERE user_code = ? LIMIT 1";
+        final String SQL = "SELECT " + AUTH_COLUMNS + " FROM users WHERE user_code = ? LIMIT 1";
 
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(SQL)) {
@@ -95,7 +93,7 @@ public class SeedUsers {
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                String storedHash = rs.getString("password");
+                String storedHash = rs.getString(AUTH_PASSWORD);
                 boolean matches = storedHash != null && storedHash.equals(rawPassword);
 
                 if (!matches) {
@@ -182,7 +180,7 @@ public class SeedUsers {
     // ==============================
 
     public Optional<User> findByUsername(String username) {
-        String sql = "SELECT * FROM users WHERE user_name = ? LIMIT 1";
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE user_name = ? LIMIT 1";
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
@@ -199,7 +197,7 @@ public class SeedUsers {
 
     public List<User> listAll() {
         List<User> list = new ArrayList<>();
-        String sql = "SELECT user_id, user_code, user_name, user_type, gender, address, work_area, age FROM users ORDER BY user_id DESC";
+        String sql = "SELECT " + USER_COLUMNS + " FROM users ORDER BY user_id DESC";
 
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql);
@@ -216,7 +214,7 @@ public class SeedUsers {
 
     public List<User> listEmployeesOnly() {
         List<User> list = new ArrayList<>();
-        String sql = "SELECT * FROM users WHERE LOWER(user_type) = 'employee' ORDER BY user_id DESC";
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE LOWER(user_type) = 'employee' ORDER BY user_id DESC";
 
         try (Connection c = DatabaseConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql);
@@ -257,13 +255,13 @@ public class SeedUsers {
                 U.user_id,
                 U.user_name,
                 COALESCE(U.work_area, '') AS area,
-                COALESCE(U.age, 0) AS age,
+                U.dob,
                 COALESCE(SUM(
                     CASE WHEN LOWER(COALESCE(S.completed,'no')) = 'yes' THEN 1 ELSE 0 END), 0) AS orders_done
             FROM users U
             LEFT JOIN order_stages S ON S.employee_id = U.user_id
             WHERE LOWER(COALESCE(U.user_type, '')) = 'employee'
-            GROUP BY U.user_id, U.user_name, area, age
+            GROUP BY U.user_id
             ORDER BY U.user_id DESC
         """;
 
@@ -276,7 +274,7 @@ public class SeedUsers {
                 s.setUserId(rs.getInt("user_id"));
                 s.setUserName(rs.getString("user_name"));
                 s.setWorkArea(rs.getString("area"));
-                s.setAge(rs.getInt("age"));
+                s.setDob(rs.getString("dob"));
                 s.setOrdersDone(rs.getInt("orders_done"));
                 out.add(s);
             }
@@ -292,19 +290,21 @@ public class SeedUsers {
     // ⚙️ HELPERS
     // ==============================
 
+    // Explicit projections, read by position in mapUser (order must match)
+    private static final String USER_COLUMNS = "user_id, user_code, user_name, user_type, address, work_area, gender, dob";
+    private static final String AUTH_COLUMNS = USER_COLUMNS + ", password";
+    private static final int AUTH_PASSWORD = 9;
+
     private static User mapUser(ResultSet rs) throws SQLException {
         User u = new User();
-        u.setUserId(rs.getInt("user_id"));
-        u.setUserCode(rs.getString("user_code"));
-        u.setUserName(rs.getString("user_name"));
-        u.setUserType(rs.getString("user_type"));
-        u.setAddress(rs.getString("address"));
-
-        try { u.setArea(rs.getString("work_area")); } catch (SQLException ignored) {}
-        try { u.setGender(rs.getString("gender")); } catch (SQLException ignored) {}
-        try { u.setAge(rs.getInt("age")); } catch (SQLException ignored) {}
-
-        // ❌ No DOB here (User model doesn't support it)
+        u.setUserId(rs.getInt(1));
+        u.setUserCode(rs.getString(2));
+        u.setUserName(rs.getString(3));
+        u.setUserType(rs.getString(4));
+        u.setAddress(rs.getString(5));
+        u.setArea(rs.getString(6));
+        u.setGender(rs.getString(7));
+        u.setDob(rs.getString(8));
         return u;
     }
 
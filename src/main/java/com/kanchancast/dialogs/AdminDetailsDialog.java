@@ -3,6 +3,7 @@ package com.kanchancast.dialogs;
 import com.jewelleryapp.dao.UserDAO;
 import com.kanchancast.auth.PasswordUtil;
 import com.kanchancast.model.User;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -13,8 +14,6 @@ import javafx.scene.text.Font;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.util.Optional;
-
 /**
  * Owner popup to view admin details and RESET password.
  * Passwords are hashed, so we never display the original password.
@@ -24,13 +23,16 @@ public class AdminDetailsDialog {
     public static void show(Stage owner, UserDAO userDAO, int adminUserId) {
         if (owner == null || userDAO == null) return;
 
-        Optional<User> opt = userDAO.findById(adminUserId);
-        if (opt.isEmpty()) {
-            new Alert(Alert.AlertType.ERROR, "Admin not found.").showAndWait();
-            return;
-        }
-        User u = opt.get();
+        UiDataLoader.run(() -> userDAO.findById(adminUserId), opt -> {
+            if (opt.isEmpty()) {
+                new Alert(Alert.AlertType.ERROR, "Admin not found.").showAndWait();
+                return;
+            }
+            showDetails(owner, userDAO, opt.get());
+        });
+    }
 
+    private static void showDetails(Stage owner, UserDAO userDAO, User u) {
         Stage dlg = new Stage();
         dlg.initOwner(owner);
         dlg.initModality(Modality.WINDOW_MODAL);
@@ -153,11 +155,15 @@ public class AdminDetailsDialog {
                 return;
             }
 
-            boolean ok = dao.updateUserPassword(u.getUserId(), a);
-            if (!ok) {
-                showError("Failed to reset password (check console).");
-                ev.consume();
-            }
+            // Hashing + the write run in the background; the dialog closes once it is saved
+            ev.consume();
+            UiDataLoader.run(okBtn, () -> dao.updateUserPassword(u.getUserId(), a), ok -> {
+                if (ok) {
+                    d.setResult(ButtonType.OK);
+                } else {
+                    showError("Failed to reset password (check console).");
+                }
+            });
         });
 
         d.showAndWait();
@@ -4,6 +4,7 @@ import com.jewelleryapp.dao.EmployeeDAO;
 import com.kanchancast.auth.PasswordUtil;
 import com.kanchancast.model.StaffRow;
 import com.kanchancast.model.User;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -15,8 +16,6 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
-import java.util.Optional;
-
 /**
  * Admin popup to view employee details and RESET password.
  * Note: hashed passwords cannot be reversed, so we never "show" the original
@@ -28,9 +27,11 @@ public class EmployeeDetailsDialog {
         if (owner == null || employeeDAO == null || row == null)
             return;
 
-        Optional<User> opt = employeeDAO.findEmployeeById(row.getUserId());
-        User u = opt.orElseGet(() -> fallbackUser(row));
+        UiDataLoader.run(() -> employeeDAO.findEmployeeById(row.getUserId()),
+                opt -> showDetails(owner, employeeDAO, row, opt.orElseGet(() -> fallbackUser(row))));
+    }
 
+    private static void showDetails(Stage owner, EmployeeDAO employeeDAO, StaffRow row, User u) {
         Stage dlg = new Stage();
         dlg.initOwner(owner);
         dlg.initModality(Modality.WINDOW_MODAL);
@@ -60,8 +61,7 @@ public class EmployeeDetailsDialog {
         // ✅ NEW: Show DOB (if available)
         addRow(grid, r++, "Date of Birth", safe(u.getDob(), safe(row.getDob(), "N/A")));
 
-        // Age is now calculated from DOB in EmployeeDAO whenever DOB exists,
-        // otherwise falls back to stored age.
+        // Age is derived from DOB in the model (0 when DOB is unknown)
         addRow(grid, r++, "Age", String.valueOf((u.getAge() > 0) ? u.getAge() : row.getAge()));
 
         addRow(grid, r++, "Address", safe(u.getAddress(), safe(row.getAddress(), "N/A")));
@@ -160,11 +160,15 @@ public class EmployeeDetailsDialog {
                 return;
             }
 
-            boolean ok = dao.updateEmployeePassword(u.getUserId(), a);
-            if (!ok) {
-                showError(d.getDialogPane().getScene().getWindow(), "Failed to reset password (check console).");
-                ev.consume();
-            }
+            // Hashing + the write run in the background; the dialog closes once it is saved
+            ev.consume();
+            UiDataLoader.run(okBtn, () -> dao.updateEmployeePassword(u.getUserId(), a), ok -> {
+                if (ok) {
+                    d.setResult(ButtonType.OK);
+                } else {
+                    showError(d.getDialogPane().getScene().getWindow(), "Failed to reset password (check console).");
+                }
+            });
         });
 
         d.showAndWait();
@@ -185,8 +189,7 @@ public class EmployeeDetailsDialog {
         tmp.setUserId(row.getUserId());
         tmp.setUserName(row.getUserName());
         tmp.setGender(row.getGender());
-        tmp.setDob(row.getDob()); // ✅ NEW
-        tmp.setAge(row.getAge());
+        tmp.setDobDate(row.getDobDate());
         tmp.setAddress(row.getAddress());
         tmp.setArea(row.getWorkArea());
         tmp.setUserType("employee");
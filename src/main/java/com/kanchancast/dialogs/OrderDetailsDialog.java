@@ -1,10 +1,12 @@
 package com.kanchancast.dialogs;
 
+import com.jewelleryapp.dao.AssignmentEngine;
 import com.jewelleryapp.dao.EmployeeDAO;
 import com.jewelleryapp.dao.OrderDAO;
 import com.kanchancast.model.OrderSummary;
 import com.kanchancast.model.StaffRow;
 import com.kanchancast.model.StageEnum;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -16,6 +18,7 @@ import javafx.stage.Stage;
 import javafx.stage.Window;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,6 +28,7 @@ import java.util.stream.Collectors;
  * - Uses the same 11 official stages everywhere (StageEnum.labels()).
  * - Filters employees by their work_area to match the stage.
  * - Saves assignments into order_stages.
+ * - "Auto-assign" fills the stages nobody has yet via AssignmentEngine.
  */
 public class OrderDetailsDialog {
 
@@ -42,11 +46,7 @@ public class OrderDetailsDialog {
         }
         dlg.setTitle("Assign employees for order: " + order.getProductName());
 
-        // Fetch employees + existing assignments
-        List<StaffRow> allEmployees = employeeDAO.listAll();
-        Map<String, Integer> existingAssignments = orderDAO.getAssignedEmployeeIdsForOrder(order.getOrderId());
-
-        // --- Build Grid ---
+        // --- Build Grid (combos are filled once employees + assignments have loaded) ---
         GridPane gp = new GridPane();
         gp.setHgap(20);
         gp.setVgap(14);
@@ -59,13 +59,8 @@ public class OrderDetailsDialog {
             Label lbl = new Label(area + ":");
             lbl.setStyle("-fx-font-weight: 600; -fx-text-fill: #333333;");
 
-            // Filter employees by work area (must match the same stage name)
-            List<StaffRow> filtered = allEmployees.stream()
-                    .filter(emp -> emp.getWorkArea() != null && emp.getWorkArea().equalsIgnoreCase(area))
-                    .collect(Collectors.toList());
-
-            ComboBox<StaffRow> combo = new ComboBox<>(FXCollections.observableArrayList(filtered));
-            combo.setPromptText(filtered.isEmpty() ? "No employees available" : "Select employee");
+            ComboBox<StaffRow> combo = new ComboBox<>();
+            combo.setPromptText("Loading...");
             combo.setPrefWidth(280);
 
             // Dropdown formatting
@@ -85,16 +80,6 @@ public class OrderDetailsDialog {
                 }
             });
 
-            // Pre-fill existing assignment (if the assigned employee is in this filtered
-            // list)
-            Integer assignedId = existingAssignments.get(area);
-            if (assignedId != null) {
-                filtered.stream()
-                        .filter(e -> e.getUserId() == assignedId)
-                        .findFirst()
-                        .ifPresent(combo::setValue);
-            }
-
             gp.add(lbl, 0, row);
             gp.add(combo, 1, row);
 
@@ -127,36 +112,102 @@ public class OrderDetailsDialog {
                 """);
         btnCancel.setOnAction(e -> dlg.close());
 
-        btnSave.setOnAction(e -> {
-            boolean anyAssigned = false;
+        // ✅ Fill every stage nobody has yet with the least-loaded employee of that area (saved immediately)
+        Button btnAuto = new Button("⚡ Auto-assign Empty Stages");
+        btnAuto.setStyle("""
+                    -fx-background-color: #2e7d32;
+                    -fx-text-fill: white;
+                    -fx-font-weight: bold;
+                    -fx-background-radius: 8;
+                    -fx-padding: 6 14;
+                """);
+        btnAuto.setOnAction(e -> {
+            btnAuto.setDisable(true);
+            UiDataLoader.run(() -> {
+                AssignmentEngine.Result r = new AssignmentEngine()
+                        .assignOrder(order.getOrderId(), AssignmentEngine.Policy.LEAST_LOADED);
+                return Map.entry(r, orderDAO.getAssignedEmployeeIdsForOrder(order.getOrderId()));
+            }, done -> {
+                btnAuto.setDisable(false);
+                AssignmentEngine.Result r = done.getKey();
+                Map<String, Integer> now = done.getValue();
+
+                selectionMap.forEach((area, combo) -> {
+                    Integer id = now.get(area);
+                    if (id == null || combo.getValue() != null) return;
+                    combo.getItems().stream()
+                            .filter(emp -> emp.getUserId() == id)
+                            .findFirst()
+                            .ifPresent(combo::setValue);
+                });
+
+                String msg = "Assigned " + r.stagesAssigned() + " empty stage(s).";
+                if (!r.unstaffedStages().isEmpty()) {
+                    msg += "\nNo employees for: " + String.join(", ", r.unstaffedStages());
+                }
+                Alert a = new Alert(Alert.AlertType.INFORMATION, msg);
+                a.initOwner(dlg);
+                a.showAndWait();
+            });
+        });
 
-            for (Map.Entry<String, ComboBox<StaffRow>> entry : selectionMap.entrySet()) {
-                String area = entry.getKey();
-                StaffRow emp = entry.getValue().getValue();
+        btnSave.setOnAction(e -> {
+            // Only stages where the user selected an employee; saved together in one transaction
+            Map<String, Integer> picks = new LinkedHashMap<>();
+            for (String area : WORK_AREAS) {
+                StaffRow emp = selectionMap.get(area).getValue();
+                if (emp != null)
+                    picks.put(area, emp.getUserId());
+            }
 
-                // If user selected an employee, save it
-                if (emp != null) {
-                    boolean ok = orderDAO.assignEmployeeToStage(order.getOrderId(), area, emp.getUserId());
-                    if (ok)
-                        anyAssigned = true;
+            UiDataLoader.run(btnSave, () -> !picks.isEmpty()
+                    && orderDAO.assignStages(order.getOrderId(), picks).containsValue(true), anyAssigned -> {
+                if (anyAssigned) {
+                    Alert a = new Alert(Alert.AlertType.INFORMATION, "✅ Employee assignments saved successfully!");
+                    a.initOwner(dlg); // ✅ Fix: Attached to dialog
+                    a.showAndWait();
+                    dlg.close();
+                } else {
+                    Alert a = new Alert(Alert.AlertType.WARNING,
+                            "⚠️ No employees were assigned. Please select before saving.");
+                    a.initOwner(dlg); // ✅ Fix: Attached to dialog
+                    a.showAndWait();
                 }
-            }
+            });
+        });
 
-            if (anyAssigned) {
-                Alert a = new Alert(Alert.AlertType.INFORMATION, "✅ Employee assignments saved successfully!");
-                a.initOwner(dlg); // ✅ Fix: Attached to dialog
-                a.showAndWait();
-                dlg.close();
-            } else {
-                Alert a = new Alert(Alert.AlertType.WARNING,
-                        "⚠️ No employees were assigned. Please select before saving.");
-                a.initOwner(dlg); // ✅ Fix: Attached to dialog
-                a.showAndWait();
-            }
+        // Fetch employees + existing assignments; nothing can be saved until they are in
+        btnSave.setDisable(true);
+        btnAuto.setDisable(true);
+        UiDataLoader.run(() -> Map.entry(employeeDAO.listAll(),
+                orderDAO.getAssignedEmployeeIdsForOrder(order.getOrderId())), loaded -> {
+            List<StaffRow> allEmployees = loaded.getKey();
+            Map<String, Integer> existingAssignments = loaded.getValue();
+
+            selectionMap.forEach((area, combo) -> {
+                // Filter employees by work area (must match the same stage name)
+                List<StaffRow> filtered = allEmployees.stream()
+                        .filter(emp -> emp.getWorkArea() != null && emp.getWorkArea().equalsIgnoreCase(area))
+                        .collect(Collectors.toList());
+                combo.setItems(FXCollections.observableArrayList(filtered));
+                combo.setPromptText(filtered.isEmpty() ? "No employees available" : "Select employee");
+
+                // Pre-fill existing assignment (if the assigned employee is in this filtered
+                // list)
+                Integer assignedId = existingAssignments.get(area);
+                if (assignedId != null) {
+                    filtered.stream()
+                            .filter(emp -> emp.getUserId() == assignedId)
+                            .findFirst()
+                            .ifPresent(combo::setValue);
+                }
+            });
+            btnSave.setDisable(false);
+            btnAuto.setDisable(false);
         });
 
         // Footer
-        HBox footer = new HBox(10, btnSave, btnCancel);
+        HBox footer = new HBox(10, btnAuto, btnSave, btnCancel);
         footer.setAlignment(Pos.CENTER_RIGHT);
         footer.setPadding(new Insets(10, 20, 15, 20));
 
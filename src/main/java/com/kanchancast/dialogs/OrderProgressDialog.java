@@ -3,19 +3,18 @@ package com.kanchancast.dialogs;
 import com.jewelleryapp.dao.OrderDAO;
 import com.kanchancast.model.OrderSummary;
 import com.kanchancast.model.StageRow;
-import javafx.collections.FXCollections;
+import com.kanchancast.ui.UiDataLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
-import java.util.List;
-
 /**
  * Admin "View" popup for an order.
  * Shows each production stage, assigned employee, and completion state.
@@ -54,11 +53,7 @@ public class OrderProgressDialog {
 
         table.getColumns().addAll(cStage, cEmp, cDone);
 
-        Runnable refresh = () -> {
-            List<StageRow> rows = orderDAO.listStagesForOrder(order.getOrderId());
-            table.setItems(FXCollections.observableArrayList(rows));
-        };
-        refresh.run();
+        Runnable refresh = () -> UiDataLoader.loadInto(table, () -> orderDAO.listStagesForOrder(order.getOrderId()));
 
         Button refreshBtn = new Button("Refresh");
         refreshBtn.setOnAction(e -> refresh.run());
@@ -70,9 +65,12 @@ public class OrderProgressDialog {
         HBox actions = new HBox(10, refreshBtn, closeBtn);
         actions.setAlignment(Pos.CENTER_RIGHT);
 
-        VBox root = new VBox(10, title, subtitle, table, actions);
+        StackPane tableBox = UiDataLoader.withSpinner(table);
+        VBox root = new VBox(10, title, subtitle, tableBox, actions);
         root.setPadding(new Insets(14));
-        VBox.setVgrow(table, Priority.ALWAYS);
+        VBox.setVgrow(tableBox, Priority.ALWAYS);
+
+        refresh.run();
 
         dlg.setScene(new Scene(root, 860, 520));
         dlg.showAndWait();
@@ -0,0 +1,46 @@
+package com.kanchancast.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Forecast for one open order from ProductionScheduler: when the last stage
+ * should finish given everyone's queue, versus the promised delivery date.
+ */
+public class OrderEta {
+
+    private final int orderId;
+    private final String productName;
+    private final LocalDate deliveryDate;   // promised (orders.delivery_date), may be null
+    private final LocalDate eta;            // forecast completion day
+    private final int stagesLeft;
+    private final String bottleneckStage;   // stage this order waits longest for (null = no waiting)
+    private final double waitDays;          // total queueing time across its remaining stages
+
+    public OrderEta(int orderId, String productName, LocalDate deliveryDate, LocalDate eta,
+                    int stagesLeft, String bottleneckStage, double waitDays) {
+        this.orderId = orderId;
+        this.productName = productName;
+        this.deliveryDate = deliveryDate;
+        this.eta = eta;
+        this.stagesLeft = stagesLeft;
+        this.bottleneckStage = bottleneckStage;
+        this.waitDays = waitDays;
+    }
+
+    public int getOrderId() { return orderId; }
+    public String getProductName() { return productName; }
+    public LocalDate getDeliveryDate() { return deliveryDate; }
+    public LocalDate getEta() { return eta; }
+    public int getStagesLeft() { return stagesLeft; }
+    public String getBottleneckStage() { return bottleneckStage; }
+    public double getWaitDays() { return waitDays; }
+
+    /** Days past the promised date (negative = early); 0 if there is no promised date. */
+    public long getDaysLate() {
+        if (deliveryDate == null || eta == null) return 0;
+        return ChronoUnit.DAYS.between(deliveryDate, eta);
+    }
+
+    public boolean isLate() { return getDaysLate() > 0; }
+}
@@ -0,0 +1,42 @@
+package com.kanchancast.model;
+
+import java.util.List;
+
+/**
+ * One page of orders from OrderDAO.listPage().
+ * Pass getNextCursor() back in to fetch the following page (null = first page).
+ */
+public class OrderPage {
+
+    /** Server-side order of the listing (keyset pagination follows this). */
+    public enum Sort {
+        OPEN_FIRST,   // open orders first, then completed; newest first inside each group
+        NEWEST_FIRST  // plain order_id DESC
+    }
+
+    /** Keyset position: the last row of the previous page. */
+    public static final class Cursor {
+        private final boolean completed;
+        private final int orderId;
+
+        public Cursor(boolean completed, int orderId) {
+            this.completed = completed;
+            this.orderId = orderId;
+        }
+
+        public boolean isCompleted() { return completed; }
+        public int getOrderId() { return orderId; }
+    }
+
+    private final List<OrderSummary> items;
+    private final Cursor nextCursor;
+
+    public OrderPage(List<OrderSummary> items, Cursor nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderSummary> getItems() { return items; }
+    public Cursor getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,27 @@
+package com.kanchancast.model;
+
+/**
+ * One stage tick for OrderDAO.setStagesCompletion(): set {@code stage} of
+ * {@code orderId} to completed / not completed.
+ */
+public class OrderUpdate {
+
+    private final int orderId;
+    private final String stage;
+    private final boolean completed;
+
+    public OrderUpdate(int orderId, String stage, boolean completed) {
+        this.orderId = orderId;
+        this.stage = stage;
+        this.completed = completed;
+    }
+
+    public int getOrderId() { return orderId; }
+    public String getStage() { return stage; }
+    public boolean isCompleted() { return completed; }
+
+    @Override
+    public String toString() {
+        return "Order #" + orderId + " / " + stage + " -> " + (completed ? "Yes" : "No");
+    }
+}
@@ -1,5 +1,9 @@
 package com.kanchancast.model;
 
+import com.kanchancast.util.DobUtil;
+
+import java.time.LocalDate;
+
 public class StaffRow {
 
     private int userId;
@@ -7,22 +11,22 @@ public class StaffRow {
     private String workArea;
     private String gender;
     private String address;
-    private int age;
     private int ordersDone;
+    private int activeProducts;
 
-    // ✅ NEW
-    private String dob;
+    // Date of birth (null = unknown); age is derived from it
+    private LocalDate dob;
 
     public StaffRow() {}
 
     public StaffRow(int userId, String userName, String workArea,
-                    String gender, String address, int age, int ordersDone) {
+                    String gender, String address, LocalDate dob, int ordersDone) {
         this.userId = userId;
         this.userName = userName;
         this.workArea = workArea;
         this.gender = gender;
         this.address = address;
-        this.age = age;
+        this.dob = dob;
         this.ordersDone = ordersDone;
     }
 
@@ -41,15 +45,21 @@ public class StaffRow {
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
 
-    public int getAge() { return age; }
-    public void setAge(int age) { this.age = age; }
+    public int getAge() { return DobUtil.age(dob); }
 
     public int getOrdersDone() { return ordersDone; }
     public void setOrdersDone(int ordersDone) { this.ordersDone = ordersDone; }
 
-    // ✅ NEW
-    public String getDob() { return dob; }
-    public void setDob(String dob) { this.dob = dob; }
+    // Open (not completed) stages assigned to this employee; filled by the admin table loader
+    public int getActiveProducts() { return activeProducts; }
+    public void setActiveProducts(int activeProducts) { this.activeProducts = activeProducts; }
+
+    /** ISO YYYY-MM-DD, or null if unknown. */
+    public String getDob() { return dob == null ? null : dob.toString(); }
+    public void setDob(String dobIso) { this.dob = DobUtil.parse(dobIso); }
+
+    public LocalDate getDobDate() { return dob; }
+    public void setDobDate(LocalDate dob) { this.dob = dob; }
 
     public String getRole() {
         return (workArea != null && !workArea.isBlank()) ? workArea : "Employee";
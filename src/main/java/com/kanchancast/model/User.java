@@ -1,5 +1,9 @@
 package com.kanchancast.model;
 
+import com.kanchancast.util.DobUtil;
+
+import java.time.LocalDate;
+
 public class User {
 
     private int userId;
@@ -10,10 +14,9 @@ public class User {
     private String area;
 
     private String gender;
-    private int age;
 
-    // ✅ NEW: store DOB in ISO format YYYY-MM-DD
-    private String dob;
+    // Date of birth (null = unknown); age is derived from it, never stored
+    private LocalDate dob;
 
     private String phone;
     private String password;
@@ -39,12 +42,14 @@ public class User {
     public String getGender() { return gender; }
     public void setGender(String gender) { this.gender = gender; }
 
-    public int getAge() { return age; }
-    public void setAge(int age) { this.age = age; }
+    public int getAge() { return DobUtil.age(dob); }
+
+    /** ISO YYYY-MM-DD, or null if unknown. */
+    public String getDob() { return dob == null ? null : dob.toString(); }
+    public void setDob(String dobIso) { this.dob = DobUtil.parse(dobIso); }
 
-    // ✅ NEW
-    public String getDob() { return dob; }
-    public void setDob(String dob) { this.dob = dob; }
+    public LocalDate getDobDate() { return dob; }
+    public void setDobDate(LocalDate dob) { this.dob = dob; }
 
     public String getPhone() { return phone; }
     public void setPhone(String phone) { this.phone = phone; }
@@ -1,7 +1,6 @@
 package com.kanchancast.ui;
 
 import com.jewelleryapp.dao.ProductDAO;
-import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,8 +12,6 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
-import java.util.List;
-
 /**
  * Simple dialog to manage product categories.
  * Allows viewing, adding, and deleting categories with basic validation.
@@ -34,8 +31,6 @@ public class CategoryManagerDialog {
         nameCol.setPrefWidth(250);
         table.getColumns().add(nameCol);
 
-        refreshTable(table, productDAO);
-
         // --- Input Fields ---
         TextField tfNewCat = new TextField();
         tfNewCat.setPromptText("Enter new category name");
@@ -52,21 +47,21 @@ public class CategoryManagerDialog {
                 return;
             }
 
-            // ✅ Prevent duplicates
-            List<String> existing = productDAO.listAllCategories();
-            if (existing.stream().anyMatch(c -> c.equalsIgnoreCase(newCat))) {
-                showAlert(dlg, Alert.AlertType.WARNING, "Duplicate Category", "This category already exists.");
-                return;
-            }
-
-            boolean ok = productDAO.addCategory(newCat);
-            if (ok) {
-                showAlert(dlg, Alert.AlertType.INFORMATION, "Success", "Category added successfully!");
-                tfNewCat.clear();
-                refreshTable(table, productDAO);
-            } else {
-                showAlert(dlg, Alert.AlertType.ERROR, "Error", "Could not add category.");
-            }
+            // ✅ Prevent duplicates (null = already exists)
+            UiDataLoader.run(btnAdd, () -> {
+                boolean exists = productDAO.listAllCategories().stream().anyMatch(c -> c.equalsIgnoreCase(newCat));
+                return exists ? null : productDAO.addCategory(newCat);
+            }, ok -> {
+                if (ok == null) {
+                    showAlert(dlg, Alert.AlertType.WARNING, "Duplicate Category", "This category already exists.");
+                } else if (ok) {
+                    showAlert(dlg, Alert.AlertType.INFORMATION, "Success", "Category added successfully!");
+                    tfNewCat.clear();
+                    refreshTable(table, productDAO);
+                } else {
+                    showAlert(dlg, Alert.AlertType.ERROR, "Error", "Could not add category.");
+                }
+            });
         });
 
         btnDelete.setOnAction(e -> {
@@ -85,14 +80,15 @@ public class CategoryManagerDialog {
             confirm.initModality(Modality.WINDOW_MODAL);
             confirm.showAndWait().ifPresent(res -> {
                 if (res == ButtonType.YES) {
-                    boolean ok = productDAO.deleteCategory(selected);
-                    if (ok) {
-                        showAlert(dlg, Alert.AlertType.INFORMATION, "Deleted", "Category deleted successfully!");
-                        refreshTable(table, productDAO);
-                    } else {
-                        showAlert(dlg, Alert.AlertType.ERROR, "Error",
-                                "Failed to delete category. Check DB constraints.");
-                    }
+                    UiDataLoader.run(btnDelete, () -> productDAO.deleteCategory(selected), ok -> {
+                        if (ok) {
+                            showAlert(dlg, Alert.AlertType.INFORMATION, "Deleted", "Category deleted successfully!");
+                            refreshTable(table, productDAO);
+                        } else {
+                            showAlert(dlg, Alert.AlertType.ERROR, "Error",
+                                    "Failed to delete category. Check DB constraints.");
+                        }
+                    });
                 }
             });
         });
@@ -112,10 +108,12 @@ public class CategoryManagerDialog {
 
         BorderPane root = new BorderPane();
         root.setTop(inputBox);
-        root.setCenter(table);
+        root.setCenter(UiDataLoader.withSpinner(table));
         root.setBottom(footer);
         root.setPadding(new Insets(10));
 
+        refreshTable(table, productDAO);
+
         Scene scene = new Scene(root, 400, 400);
         dlg.setScene(scene);
         dlg.showAndWait();
@@ -123,7 +121,7 @@ public class CategoryManagerDialog {
 
     // Helper: refresh table contents
     private static void refreshTable(TableView<String> table, ProductDAO productDAO) {
-        table.setItems(FXCollections.observableArrayList(productDAO.listAllCategories()));
+        UiDataLoader.loadInto(table, productDAO::listAllCategories);
     }
 
     // Helper: show alert
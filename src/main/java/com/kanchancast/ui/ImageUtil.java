@@ -5,15 +5,48 @@ import javafx.scene.image.ImageView;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
+import javafx.stage.Screen;
 
 import java.io.File;
+import java.lang.ref.SoftReference;
 import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public final class ImageUtil {
 
     // classpath fallback
     private static final String PLACEHOLDER_CLASSPATH = "/images/placeholder.png";
 
+    // Decoded-pixel budget for the thumbnail cache (4 bytes per pixel), override with -Dkanchancast.images.cacheMb=
+    private static final long CACHE_BUDGET_BYTES =
+            Math.max(8, Long.getLong("kanchancast.images.cacheMb", 64)) * 1024 * 1024;
+
+    // ---------- Size-keyed LRU cache ----------
+    // Key = (path, decoded width, decoded height): the same file shown at 300x160 and 95x60
+    // is two small decodes, never one full-resolution decode scaled twice.
+    // Values are soft so the GC can still reclaim them under memory pressure.
+    private record Key(String path, int w, int h) {}
+
+    private static final class Entry {
+        final SoftReference<Image> ref;
+        final long bytes;
+
+        Entry(Image img, long bytes) {
+            this.ref = new SoftReference<>(img);
+            this.bytes = bytes;
+        }
+    }
+
+    private static final LinkedHashMap<Key, Entry> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes;
+
+    private static Image placeholder;
+
+    // ImageView property holding the Image it was last pointed at
+    private static final String REQUEST_KEY = "imageUtil.request";
+
     // folder where we will store selected product images
     public static Path appImagesDir() {
         String home = System.getProperty("user.home");
@@ -26,64 +59,191 @@ public final class ImageUtil {
      *  - Absolute file paths
      *  - file: URIs
      *  - Relative file names saved into user.home/KanchanCast/images/products/
+     *
+     * A matching thumbnail from ThumbnailStore is used when one covers the requested size.
+     * The file is decoded in the background at (about) the requested size and cached.
+     * Until it is ready - or if it fails - the view shows the shared placeholder.
      */
     public static ImageView getProductImage(String imagePath, double fitW, double fitH) {
-        Image img = null;
-
-        if (imagePath != null && !imagePath.isBlank()) {
-            try {
-                String path = imagePath.trim();
-
-                // If it's already a file: URI
-                if (path.startsWith("file:")) {
-                    img = new Image(path, false);
-                } else {
-                    File f = new File(path);
-
-                    // Absolute/relative direct path
-                    if (f.exists()) {
-                        img = new Image(f.toURI().toString(), false);
-                    } else {
-                        // Try resolving relative name inside app images folder
-                        File inside = appImagesDir().resolve(path).toFile();
-                        if (inside.exists()) {
-                            img = new Image(inside.toURI().toString(), false);
-                        }
-                    }
-                }
-            } catch (Exception ignore) {
-                img = null;
+        ImageView iv = new ImageView();
+        if (fitW > 0) iv.setFitWidth(fitW);
+        if (fitH > 0) iv.setFitHeight(fitH);
+        iv.setPreserveRatio(false);
+        iv.setSmooth(true);
+        iv.setCache(true);
+
+        showProductImage(iv, imagePath, fitW, fitH);
+        return iv;
+    }
+
+    /**
+     * Points an existing ImageView at a product image (same rules as getProductImage).
+     * Used by recycled cells: if the view is re-pointed before a background decode
+     * finishes, the late image is ignored instead of overwriting the newer one.
+     */
+    public static void showProductImage(ImageView iv, String imagePath, double fitW, double fitH) {
+        Image img = loadCached(imagePath, fitW, fitH);
+        iv.getProperties().put(REQUEST_KEY, img);
+
+        if (img == null) {
+            iv.setImage(placeholder());
+            return;
+        }
+
+        if (img.getProgress() >= 1.0 && !img.isError()) {
+            iv.setImage(img);
+            return;
+        }
+
+        // Still decoding: show the placeholder, swap when done (listeners fire on the FX thread)
+        iv.setImage(placeholder());
+        img.progressProperty().addListener((obs, oldP, newP) -> {
+            if (newP.doubleValue() >= 1.0 && !img.isError() && iv.getProperties().get(REQUEST_KEY) == img) {
+                iv.setImage(img);
+            }
+        });
+        img.errorProperty().addListener((obs, wasError, isError) -> {
+            if (isError) {
+                evict(img);
+                if (iv.getProperties().get(REQUEST_KEY) == img) iv.setImage(placeholder());
             }
+        });
+    }
+
+    /** Drops every cached decode (e.g. after bulk image changes). */
+    public static synchronized void clearCache() {
+        CACHE.clear();
+        cachedBytes = 0;
+    }
+
+    // ---------------- internals ----------------
+
+    private static synchronized Image loadCached(String imagePath, double fitW, double fitH) {
+        if (imagePath == null || imagePath.isBlank()) return null;
+
+        // Decode at device pixels so HiDPI screens stay sharp (capped at 2x)
+        double scale = Math.min(2.0, Math.max(1.0, outputScale()));
+        int w = (int) Math.ceil(Math.max(1, fitW > 0 ? fitW : 300) * scale);
+        int h = (int) Math.ceil(Math.max(1, fitH > 0 ? fitH : 160) * scale);
+
+        Key key = new Key(imagePath.trim(), w, h);
+
+        Entry hit = CACHE.get(key);
+        if (hit != null) {
+            Image img = hit.ref.get();
+            if (img != null && !img.isError()) return img;
+            remove(key); // collected by the GC or failed earlier
         }
 
-        // Fallback to bundled placeholder
-        if (img == null || img.isError()) {
-            try {
-                var in = ImageUtil.class.getResourceAsStream(PLACEHOLDER_CLASSPATH);
-                if (in != null) img = new Image(in);
-            } catch (Exception ignore) {
-                img = null;
+        String uri = resolveUri(key.path(), w, h);
+        if (uri == null) return null;
+
+        Image img;
+        try {
+            // requested size + backgroundLoading=true: decode off the FX thread, at thumbnail size
+            img = new Image(uri, w, h, false, true, true);
+        } catch (Exception e) {
+            return null;
+        }
+
+        long bytes = (long) w * h * 4;
+        CACHE.put(key, new Entry(img, bytes));
+        cachedBytes += bytes;
+        trimToBudget();
+        return img;
+    }
+
+    // w x h in device pixels, so a 2x screen gets a 2x thumbnail instead of an upscaled 1x one
+    private static String resolveUri(String path, int w, int h) {
+        // If it's already a file: URI
+        if (path.startsWith("file:")) return path;
+
+        // Pre-sized thumbnail written at import time: kilobytes instead of the full original
+        Path thumb = ThumbnailStore.closest(path, w, h);
+        if (thumb != null) return thumb.toUri().toString();
+
+        Path original = resolveFile(path);
+        return (original == null) ? null : original.toUri().toString();
+    }
+
+    /** Original image file for a products.image_path value, or null if it cannot be found. */
+    static Path resolveFile(String path) {
+        try {
+            File f = new File(path);
+
+            // Absolute/relative direct path
+            if (f.exists()) return f.toPath();
+
+            // Try resolving relative name inside app images folder
+            File inside = appImagesDir().resolve(path).toFile();
+            if (inside.exists()) return inside.toPath();
+
+        } catch (Exception ignore) {
+            // invalid path -> placeholder
+        }
+        return null;
+    }
+
+    private static void trimToBudget() {
+        Iterator<Map.Entry<Key, Entry>> it = CACHE.entrySet().iterator();
+        while (cachedBytes > CACHE_BUDGET_BYTES && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            cachedBytes -= eldest.getValue().bytes;
+            it.remove();
+        }
+    }
+
+    private static synchronized void evict(Image img) {
+        Iterator<Map.Entry<Key, Entry>> it = CACHE.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getValue().ref.get() == img) {
+                cachedBytes -= e.getValue().bytes;
+                it.remove();
+                return;
             }
         }
+    }
 
-        // Last-ditch: draw a solid gray rect so UI never breaks
-        if (img == null || img.isError()) {
-            int w = (int) Math.max(1, fitW > 0 ? fitW : 300);
-            int h = (int) Math.max(1, fitH > 0 ? fitH : 160);
-            WritableImage wi = new WritableImage(w, h);
+    private static void remove(Key key) {
+        Entry e = CACHE.remove(key);
+        if (e != null) cachedBytes -= e.bytes;
+    }
+
+    private static double outputScale() {
+        try {
+            return Screen.getPrimary().getOutputScaleX();
+        } catch (Exception e) {
+            return 1.0;
+        }
+    }
+
+    /** One shared placeholder for every miss (bundled PNG, else a flat gray tile). */
+    private static synchronized Image placeholder() {
+        if (placeholder != null) return placeholder;
+
+        try {
+            var in = ImageUtil.class.getResourceAsStream(PLACEHOLDER_CLASSPATH);
+            if (in != null) {
+                try (in) {
+                    Image img = new Image(in);
+                    if (!img.isError()) placeholder = img;
+                }
+            }
+        } catch (Exception ignore) {
+            // fall through to the drawn tile
+        }
+
+        // Last-ditch: a small gray tile (ImageView stretches it) so UI never breaks
+        if (placeholder == null) {
+            int size = 16;
+            WritableImage wi = new WritableImage(size, size);
             PixelWriter pw = wi.getPixelWriter();
             Color c = Color.web("#D1D5DB");
-            for (int y = 0; y < h; y++) for (int x = 0; x < w; x++) pw.setColor(x, y, c);
-            img = wi;
+            for (int y = 0; y < size; y++) for (int x = 0; x < size; x++) pw.setColor(x, y, c);
+            placeholder = wi;
         }
-
-        ImageView iv = new ImageView(img);
-        if (fitW > 0) iv.setFitWidth(fitW);
-        if (fitH > 0) iv.setFitHeight(fitH);
-        iv.setPreserveRatio(false);
-        iv.setSmooth(true);
-        iv.setCache(true);
-        return iv;
+        return placeholder;
     }
 
     private ImageUtil() {}
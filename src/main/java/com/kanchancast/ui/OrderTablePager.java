@@ -0,0 +1,136 @@
+package com.kanchancast.ui;
+
+import com.jewelleryapp.dao.OrderDAO;
+import com.kanchancast.model.OrderPage;
+import com.kanchancast.model.OrderSummary;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Feeds an orders TableView page by page (OrderDAO.listPage) as the user scrolls.
+ * Only the pages actually scrolled to are ever held in memory.
+ * Pages are fetched in the background through UiDataLoader; wrap the table with
+ * UiDataLoader.withSpinner() to show a loading indicator.
+ *
+ * Row order comes from the DB, so column header sorting is switched off
+ * (sorting a half-loaded list would be misleading).
+ */
+public final class OrderTablePager {
+
+    // Start fetching the next page when the scrollbar is this close to the bottom
+    private static final double PREFETCH_AT = 0.85;
+
+    private final TableView<OrderSummary> table;
+    private final OrderDAO orderDAO;
+    private final int pageSize;
+    private final ObservableList<OrderSummary> rows = FXCollections.observableArrayList();
+
+    private String statusFilter = "ALL";
+    private OrderPage.Sort sort = OrderPage.Sort.OPEN_FIRST;
+
+    private OrderPage.Cursor cursor;
+    private boolean hasMore = true;
+    private boolean loading;
+    private ScrollBar vbar;
+
+    private OrderTablePager(TableView<OrderSummary> table, OrderDAO orderDAO, int pageSize) {
+        this.table = table;
+        this.orderDAO = orderDAO;
+        this.pageSize = pageSize;
+    }
+
+    /** Wires the pager into the table and loads the first page. */
+    public static OrderTablePager attach(TableView<OrderSummary> table, OrderDAO orderDAO) {
+        return attach(table, orderDAO, OrderDAO.DEFAULT_PAGE_SIZE);
+    }
+
+    public static OrderTablePager attach(TableView<OrderSummary> table, OrderDAO orderDAO, int pageSize) {
+        OrderTablePager pager = new OrderTablePager(table, orderDAO, pageSize);
+
+        for (TableColumn<OrderSummary, ?> col : table.getColumns()) col.setSortable(false);
+        table.setItems(pager.rows);
+
+        // The scrollbar only exists once the skin is built
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> Platform.runLater(pager::fillViewport));
+
+        pager.reload();
+        return pager;
+    }
+
+    /** Drops everything loaded so far and starts again from the first page. */
+    public void reload() {
+        rows.clear();
+        cursor = null;
+        hasMore = true;
+        loading = false; // a page still in flight is cancelled by the keyed load below
+        loadNextPage();
+    }
+
+    public void setStatusFilter(String status) {
+        this.statusFilter = (status == null) ? "ALL" : status;
+        reload();
+    }
+
+    public void setSort(OrderPage.Sort sort) {
+        this.sort = (sort == null) ? OrderPage.Sort.OPEN_FIRST : sort;
+        reload();
+    }
+
+    public int loadedCount() { return rows.size(); }
+
+    // ---------------- internals ----------------
+
+    private void loadNextPage() {
+        if (loading || !hasMore) return;
+        loading = true;
+
+        OrderPage.Cursor after = cursor;
+        String status = statusFilter;
+        OrderPage.Sort order = sort;
+
+        UiDataLoader.load(this, table,
+                () -> orderDAO.listPage(after, pageSize, status, order),
+                page -> {
+                    loading = false;
+                    rows.addAll(page.getItems());
+                    cursor = page.getNextCursor();
+                    hasMore = page.hasMore();
+
+                    // First page shorter than the viewport: there is nothing to scroll, so keep filling
+                    if (hasMore) Platform.runLater(this::fillViewport);
+                },
+                ex -> {
+                    loading = false;
+                    System.err.println("❌ Order page load failed: " + ex.getMessage());
+                });
+    }
+
+    private void fillViewport() {
+        if (table.getSkin() == null) return; // not on screen yet; the skin listener calls back
+        hookScrollBar();
+        if (vbar != null && !vbar.isVisible()) loadNextPage();
+    }
+
+    private void hookScrollBar() {
+        if (vbar != null) return;
+
+        for (Node n : table.lookupAll(".scroll-bar")) {
+            if (n instanceof ScrollBar sb && sb.getOrientation() == Orientation.VERTICAL) {
+                vbar = sb;
+                sb.valueProperty().addListener((obs, oldV, newV) -> {
+                    double range = sb.getMax() - sb.getMin();
+                    if (range > 0 && (newV.doubleValue() - sb.getMin()) / range >= PREFETCH_AT) {
+                        loadNextPage();
+                    }
+                });
+                return;
+            }
+        }
+    }
+}
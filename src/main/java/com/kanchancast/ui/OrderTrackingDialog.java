@@ -3,7 +3,6 @@ package com.kanchancast.ui;
 import com.jewelleryapp.dao.OrderDAO;
 import com.kanchancast.model.OrderSummary;
 import com.kanchancast.model.StageRow;
-import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -30,20 +29,18 @@ public class OrderTrackingDialog extends Stage {
 
         table.getColumns().addAll(stageCol, completedCol);
 
-        // Customer should always see all 11 stages, even if no one is assigned.
-        table.setItems(FXCollections.observableArrayList(
-                orderDAO.listStagesForCustomerTracking(summary.getOrderId())
-        ));
-
         Button closeBtn = new Button("Close");
         closeBtn.setOnAction(e -> close());
 
         HBox footer = new HBox(closeBtn);
         footer.setAlignment(Pos.CENTER_RIGHT);
 
-        VBox root = new VBox(10, table, footer);
+        VBox root = new VBox(10, UiDataLoader.withSpinner(table), footer);
         root.setPadding(new Insets(12));
 
+        // Customer should always see all 11 stages, even if no one is assigned.
+        UiDataLoader.loadInto(table, () -> orderDAO.listStagesForCustomerTracking(summary.getOrderId()));
+
         Scene scene = new Scene(root, 520, 420);
         UIKit.apply(scene);
         setScene(scene);
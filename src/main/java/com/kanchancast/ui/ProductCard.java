@@ -16,13 +16,22 @@ import java.util.function.Consumer;
  * ProductCard component.
  * Displays product image, name, and price.
  * On click, opens a simple Product Details dialog with option to order.
+ *
+ * Cards are recycled by ProductGrid: setProduct() re-points an existing card
+ * at another product instead of building a new one.
  */
 public class ProductCard extends VBox {
-    private final Product product;
+    private Product product;
 
-    public ProductCard(Product product, Consumer<Product> onOpen) {
-        this.product = product;
+    private final ImageView img;
+    private final Label name = new Label();
+    private final Label price = new Label();
+
+    public ProductCard(Consumer<Product> onOpen) {
+        this(null, onOpen);
+    }
 
+    public ProductCard(Product product, Consumer<Product> onOpen) {
         // ---- Layout styling ----
         setPadding(new Insets(10));
         setSpacing(8);
@@ -30,37 +39,54 @@ public class ProductCard extends VBox {
         getStyleClass().add("product-card");
 
         // ---- Image ----
-        ImageView img = ImageUtil.getProductImage(product.getImagePath(), 300, 160);
+        img = ImageUtil.getProductImage(null, 300, 160);
         img.setPreserveRatio(false);
         img.setFitWidth(300);
         img.setFitHeight(160);
 
         // ---- Name ----
-        Label name = new Label(product.getName());
         name.getStyleClass().add("product-name");
 
         // ---- Price ----
-        Label price = new Label(PriceFmt.inr(product.getPrice()));
         price.getStyleClass().add("product-price");
 
         getChildren().addAll(img, name, price);
 
         // ---- Click handler ----
         setOnMouseClicked(e -> {
+            if (this.product == null) return;
             if (onOpen != null) {
                 // Use custom handler if provided (e.g., Dashboard)
-                onOpen.accept(product);
+                onOpen.accept(this.product);
             } else {
                 // Default behavior: show details popup
-                showProductDetails(product);
+                showProductDetails(this.product);
             }
         });
+
+        setProduct(product);
     }
 
     public Product getProduct() {
         return product;
     }
 
+    /** Shows another product in this card (null = blank card). */
+    public void setProduct(Product product) {
+        this.product = product;
+
+        if (product == null) {
+            ImageUtil.showProductImage(img, null, 300, 160);
+            name.setText("");
+            price.setText("");
+            return;
+        }
+
+        ImageUtil.showProductImage(img, product.getImagePath(), 300, 160);
+        name.setText(product.getName());
+        price.setText(PriceFmt.inr(product.getPrice()));
+    }
+
     /** Default product details popup (used if no custom onOpen handler provided). */
     private void showProductDetails(Product product) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -87,34 +87,37 @@ public class ProductDetailsDialog extends Dialog<Boolean> {
                 buyBtn.setDefaultButton(true);
 
                 buyBtn.addEventFilter(ActionEvent.ACTION, ev -> {
+                    // The dialog closes from the callback, once the order is in
+                    ev.consume();
                     if (product == null || user == null) {
                         UIKit.toastWarn("Cannot place order", "Missing user/product.");
-                        ev.consume();
                         return;
                     }
 
-                    boolean ok = orderDAO.createOrder(user.getUserId(), product.getProductId(), "PENDING");
-                    if (!ok) {
-                        UIKit.toastWarn("Order Failed", "Could not place the order. Please try again.");
-                        ev.consume();
-                        return;
-                    }
+                    int userId = user.getUserId();
+                    int productId = product.getProductId();
+                    UiDataLoader.run(buyBtn, () -> orderDAO.createOrder(userId, productId, "PENDING"), ok -> {
+                        if (!ok) {
+                            UIKit.toastWarn("Order Failed", "Could not place the order. Please try again.");
+                            return;
+                        }
 
-                    Alert a = new Alert(Alert.AlertType.INFORMATION);
-                    a.setTitle("Order Placed");
-                    a.setHeaderText(null);
-                    a.setContentText("Your order has been placed successfully.");
-                    a.initOwner(getDialogPane().getScene().getWindow());
-                    a.showAndWait();
-
-                    if (onOrderPlaced != null) {
-                        try {
-                            onOrderPlaced.run();
-                        } catch (Exception ignored) {
+                        Alert a = new Alert(Alert.AlertType.INFORMATION);
+                        a.setTitle("Order Placed");
+                        a.setHeaderText(null);
+                        a.setContentText("Your order has been placed successfully.");
+                        a.initOwner(getDialogPane().getScene().getWindow());
+                        a.showAndWait();
+
+                        if (onOrderPlaced != null) {
+                            try {
+                                onOrderPlaced.run();
+                            } catch (Exception ignored) {
+                            }
                         }
-                    }
 
-                    setResult(Boolean.TRUE);
+                        setResult(Boolean.TRUE);
+                    });
                 });
             }
 
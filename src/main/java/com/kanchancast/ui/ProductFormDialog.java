@@ -39,11 +39,15 @@ public class ProductFormDialog extends Dialog<Boolean> {
         initModality(Modality.WINDOW_MODAL);
 
         ProductDAO dao = new ProductDAO();
-        List<String> categories = dao.listAllCategories();
-        if (categories.isEmpty())
-            categories.addAll(List.of("ring", "necklace", "bracelet", "earrings", "other"));
-        category.getItems().addAll(categories);
-        category.setValue(categories.get(0));
+        category.setPromptText("Loading...");
+        UiDataLoader.run(dao::listAllCategories, loaded -> {
+            List<String> categories = loaded.isEmpty()
+                    ? List.of("ring", "necklace", "bracelet", "earrings", "other")
+                    : loaded;
+            category.getItems().setAll(categories);
+            if (category.getValue() == null)
+                category.setValue(categories.get(0));
+        });
 
         description.setPromptText("Description");
         description.setPrefRowCount(3);
@@ -85,8 +89,9 @@ public class ProductFormDialog extends Dialog<Boolean> {
                 Files.copy(chosen.toPath(), dest, StandardCopyOption.REPLACE_EXISTING);
                 imagePath.setText(newName);
 
-                ImageView newPrev = ImageUtil.getProductImage(newName, 220, 130);
-                preview.setImage(newPrev.getImage());
+                // ✅ Write the card/table/preview thumbnails off the FX thread, then show the preview
+                UiDataLoader.run(() -> ThumbnailStore.generate(newName, dest),
+                        ok -> ImageUtil.showProductImage(preview, newName, 220, 130));
 
             } catch (Exception ex) {
                 new Alert(Alert.AlertType.ERROR, "Could not save image: " + ex.getMessage(), ButtonType.OK)
@@ -229,14 +234,16 @@ public class ProductFormDialog extends Dialog<Boolean> {
                 };
 
                 // ✅ FIX: pass stoneWeight (sw) into DAO
-                boolean saved = dao.createProduct(n, t, gw, dw, sw, p, img, desc, durAmt, dbUnit);
-
-                if (!saved) {
-                    showError("Could not save product. Check console for details.");
-                    ev.consume();
-                } else {
-                    setResult(Boolean.TRUE);
-                }
+                // Saved in the background; the dialog closes once the product is in
+                ev.consume();
+                UiDataLoader.run(okBtn,
+                        () -> dao.createProduct(n, t, gw, dw, sw, p, img, desc, durAmt, dbUnit), saved -> {
+                    if (!saved) {
+                        showError("Could not save product. Check console for details.");
+                    } else {
+                        setResult(Boolean.TRUE);
+                    }
+                });
             } catch (NumberFormatException ex) {
                 showError("Please check inputs: Price/weights must be numbers, duration must be a whole number.");
                 ev.consume();
@@ -2,32 +2,101 @@ package com.kanchancast.ui;
 
 import com.kanchancast.model.Product;
 import javafx.geometry.Insets;
-import javafx.scene.control.ScrollPane;
-import javafx.scene.layout.FlowPane;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
-public class ProductGrid extends ScrollPane {
-    private final FlowPane flow = new FlowPane();
+/**
+ * Virtualized product gallery.
+ *
+ * A ListView whose rows are "as many cards as fit across". The ListView only builds
+ * cells for the rows on screen and recycles them while scrolling, so the scene graph
+ * holds a few dozen ProductCards whether the catalog has 20 pieces or 10k.
+ * Resizing only re-chunks the rows when the number of columns actually changes.
+ */
+public class ProductGrid extends ListView<List<Product>> {
+
+    private static final double CARD_WIDTH = 326; // 300 image + .product-card padding/border
+    private static final double HGAP = 16;
+    private static final double VGAP = 16;
+    private static final double SCROLLBAR_ALLOWANCE = 18;
+
     private final Consumer<Product> onOpen;
+    private List<Product> products = new ArrayList<>();
+    private int columns = 1;
 
     public ProductGrid(Consumer<Product> onOpen) {
         this.onOpen = (onOpen != null) ? onOpen : p -> {};
-        flow.setHgap(16); flow.setVgap(16);
-        flow.setPadding(new Insets(12));
-        flow.setPrefWrapLength(680);
 
-        setFitToWidth(true);
-        setContent(flow);
-        getStyleClass().add("card");
+        getStyleClass().addAll("card", "product-grid");
         setPadding(new Insets(8));
-        setHbarPolicy(ScrollBarPolicy.NEVER);
+        setFocusTraversable(false);
+        setPlaceholder(new Label("No products to show."));
+        setCellFactory(lv -> new CardRowCell());
+
+        widthProperty().addListener((obs, oldW, newW) -> {
+            int cols = columnsFor(newW.doubleValue());
+            if (cols != columns) {
+                columns = cols;
+                rechunk();
+            }
+        });
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = (products == null) ? new ArrayList<>() : products;
+        columns = columnsFor(getWidth());
+        rechunk();
+        scrollTo(0);
+    }
+
+    // ---------------- internals ----------------
+
+    private static int columnsFor(double width) {
+        double usable = width - 2 * 12 - SCROLLBAR_ALLOWANCE;
+        return Math.max(1, (int) Math.floor((usable + HGAP) / (CARD_WIDTH + HGAP)));
     }
 
-    public void setItems(List<Product> products) {
-        if (products == null) products = new ArrayList<>();
-        flow.getChildren().clear();
-        for (Product p : products) flow.getChildren().add(new ProductCard(p, onOpen));
+    private void rechunk() {
+        List<List<Product>> rows = new ArrayList<>((products.size() + columns - 1) / columns);
+        for (int i = 0; i < products.size(); i += columns) {
+            rows.add(products.subList(i, Math.min(products.size(), i + columns)));
+        }
+        getItems().setAll(rows);
+    }
+
+    /** One row of cards; the cards themselves are reused across updateItem calls. */
+    private final class CardRowCell extends ListCell<List<Product>> {
+        private final HBox row = new HBox(HGAP);
+        private final List<ProductCard> cards = new ArrayList<>();
+
+        CardRowCell() {
+            row.setPadding(new Insets(VGAP / 2, 12, VGAP / 2, 12));
+            getStyleClass().add("product-grid-row");
+        }
+
+        @Override
+        protected void updateItem(List<Product> items, boolean empty) {
+            super.updateItem(items, empty);
+            setText(null);
+
+            if (empty || items == null) {
+                setGraphic(null);
+                return;
+            }
+
+            // Grow the pool only up to the widest row seen; never rebuild cards
+            while (cards.size() < items.size()) cards.add(new ProductCard(onOpen));
+
+            for (int i = 0; i < items.size(); i++) cards.get(i).setProduct(items.get(i));
+            if (row.getChildren().size() != items.size()) {
+                row.getChildren().setAll(cards.subList(0, items.size()));
+            }
+            setGraphic(row);
+        }
     }
 }
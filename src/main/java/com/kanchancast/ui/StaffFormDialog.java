@@ -86,31 +86,14 @@ public class StaffFormDialog extends Dialog<Boolean> {
                 return Boolean.FALSE;
             }
 
-            boolean ok = new UserDAO()
-                    .createStaffReturn(username.getText().trim(),
-                            password.getText(),
-                            rRole,
-                            address.getText().trim(),
-                            gender.getValue(),
-                            area.getValue())
-                    .isPresent();
-
-            // ✅ store dob after creating the user (since UserDAO createStaffReturn doesn't include it)
-            if (ok) {
-                tryUpdateDob(username.getText().trim(), dob.toString());
-            }
-
-            return ok;
+            // dob goes in with the insert; createUser validates and normalizes it (DobUtil)
+            return new UserDAO().createUser(rRole,
+                    username.getText().trim(),
+                    password.getText(),
+                    address.getText().trim(),
+                    gender.getValue(),
+                    area.getValue(),
+                    dob.toString());
         });
     }
-
-    private void tryUpdateDob(String username, String dobIso) {
-        final String SQL = "UPDATE users SET dob=? WHERE user_name=?";
-        try (java.sql.Connection c = com.jewelleryapp.dao.DatabaseConnection.getConnection();
-             java.sql.PreparedStatement ps = c.prepareStatement(SQL)) {
-            ps.setString(1, dobIso);
-            ps.setString(2, username);
-            ps.executeUpdate();
-        } catch (Exception ignore) {}
-    }
 }
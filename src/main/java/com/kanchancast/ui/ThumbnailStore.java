@@ -0,0 +1,314 @@
+package com.kanchancast.ui;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Pre-sized product thumbnails, written once when an image is imported.
+ *
+ * Layout (sibling of ImageUtil.appImagesDir()):
+ *   ~/KanchanCast/images/thumbs/<hash>_300x160.jpg   (ProductCard)
+ *   ~/KanchanCast/images/thumbs/<hash>_220x130.jpg   (ProductFormDialog preview)
+ *   ~/KanchanCast/images/thumbs/<hash>_95x60.jpg     (AdminTabs image column)
+ *   ~/KanchanCast/images/thumbs/<hash>_600x320.jpg   (... and each of them again at 2x for HiDPI)
+ *   ~/KanchanCast/images/thumbs/index.properties     (image_path -> hash)
+ *
+ * File names are in device pixels. <hash> is the SHA-256 of the original file contents, so
+ * re-importing the same picture reuses the same thumbnails. Images with transparency are
+ * stored as .png instead of .jpg.
+ *
+ * The index and the list of files on disk are read once by load() (at startup, off the FX
+ * thread) and kept in memory, so closest() never touches the disk.
+ */
+public final class ThumbnailStore {
+
+    /** Sizes the UI actually shows (logical px); keep in sync with the getProductImage() callers. */
+    private static final int[][] VIEW_SIZES = { {95, 60}, {220, 130}, {300, 160} };
+
+    /** Output scales written per view size; ImageUtil decodes at up to 2x on HiDPI screens. */
+    private static final int[] SCALES = { 1, 2 };
+
+    /** Stored thumbnail sizes in device pixels, smallest first. */
+    private static final int[][] SIZES = pixelSizes();
+
+    private static final String INDEX_FILE = "index.properties";
+
+    // Persistent copy of the index; read and written under the class lock, never on the FX thread
+    private static Properties index;
+
+    // In-memory view for closest(): image_path -> hash, and hash -> stored file per SIZES slot
+    private static final Map<String, String> HASHES = new ConcurrentHashMap<>();
+    private static final Map<String, Path[]> STORED = new ConcurrentHashMap<>();
+    private static volatile boolean loaded = false;
+
+    private ThumbnailStore() {}
+
+    public static Path thumbsDir() {
+        return ImageUtil.appImagesDir().resolveSibling("thumbs");
+    }
+
+    /**
+     * Reads the index and lists the thumbnails on disk (once; later calls return at once).
+     * Call at startup off the FX thread; until it has run, closest() finds nothing.
+     */
+    public static synchronized void load() {
+        if (loaded) return;
+
+        index();
+        for (String path : index.stringPropertyNames()) HASHES.put(path, index.getProperty(path));
+
+        Path dir = thumbsDir();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.forEach(ThumbnailStore::remember);
+            } catch (IOException e) {
+                System.err.println("⚠️ Thumbnail folder unreadable: " + e.getMessage());
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * Writes every thumbnail size for an imported original and records it under imagePath
+     * (the value stored in products.image_path). Safe to call again; existing files are kept.
+     */
+    public static boolean generate(String imagePath, Path original) {
+        try {
+            load();
+            String hash = contentHash(original);
+            Path dir = thumbsDir();
+            Files.createDirectories(dir);
+
+            BufferedImage src = null;
+            for (int[] size : SIZES) {
+                if (stored(hash, size) != null) continue;
+
+                if (src == null) {
+                    src = ImageIO.read(original.toFile());
+                    if (src == null) {
+                        System.err.println("⚠️ Thumbnail skipped (unsupported image): " + original);
+                        return false;
+                    }
+                }
+                writeThumb(src, dir, hash, size[0], size[1]);
+            }
+
+            record(imagePath, hash);
+            return true;
+
+        } catch (Exception e) {
+            System.err.println("❌ Thumbnail generation failed for " + original + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Smallest stored thumbnail that covers w x h device pixels (the size ImageUtil decodes at),
+     * or null if there is none (not generated yet, or bigger than every thumbnail -> use the original).
+     * Memory only: safe to call on the FX thread.
+     */
+    public static Path closest(String imagePath, double w, double h) {
+        String hash = hashFor(imagePath);
+        if (hash == null) return null;
+
+        for (int[] size : SIZES) {
+            if (size[0] < w || size[1] < h) continue;
+            Path p = stored(hash, size);
+            if (p != null) return p;
+        }
+        return null;
+    }
+
+    /**
+     * Generates thumbnails for products imported before this store existed.
+     * Runs on one low-priority daemon thread so it never competes with the UI.
+     */
+    public static void backfillInBackground(Supplier<List<String>> imagePaths) {
+        Thread t = new Thread(() -> {
+            int made = 0;
+            try {
+                load();
+                for (String path : imagePaths.get()) {
+                    if (path == null || path.isBlank() || complete(hashFor(path))) continue;
+
+                    Path original = ImageUtil.resolveFile(path);
+                    if (original != null && generate(path, original)) made++;
+                }
+            } catch (Exception e) {
+                System.err.println("❌ Thumbnail backfill failed: " + e.getMessage());
+            }
+            if (made > 0) System.out.println("✅ Thumbnail backfill: " + made + " image(s)");
+        }, "thumb-backfill");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    // ---------------- internals ----------------
+
+    private static int[][] pixelSizes() {
+        List<int[]> sizes = new ArrayList<>();
+        for (int scale : SCALES) {
+            for (int[] v : VIEW_SIZES) sizes.add(new int[] {v[0] * scale, v[1] * scale});
+        }
+        sizes.sort(Comparator.comparingInt((int[] s) -> s[0] * s[1]));
+        return sizes.toArray(new int[0][]);
+    }
+
+    // Every size on disk (imports from before the 2x sizes only have the 1x ones)
+    private static boolean complete(String hash) {
+        if (hash == null) return false;
+        for (int[] size : SIZES) {
+            if (stored(hash, size) == null) return false;
+        }
+        return true;
+    }
+
+    private static Path stored(String hash, int[] size) {
+        Path[] files = STORED.get(hash);
+        return (files == null) ? null : files[slot(size[0], size[1])];
+    }
+
+    private static int slot(int w, int h) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (SIZES[i][0] == w && SIZES[i][1] == h) return i;
+        }
+        return -1;
+    }
+
+    // Notes a file named <hash>_<w>x<h>.<ext> as stored; anything else in the folder is ignored
+    private static void remember(Path file) {
+        String name = file.getFileName().toString();
+        int us = name.lastIndexOf('_');
+        int x = name.lastIndexOf('x');
+        int dot = name.lastIndexOf('.');
+        if (us <= 0 || x < us || dot < x || !(name.endsWith(".jpg") || name.endsWith(".png"))) return;
+
+        int slot;
+        try {
+            slot = slot(Integer.parseInt(name.substring(us + 1, x)), Integer.parseInt(name.substring(x + 1, dot)));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (slot < 0) return;
+
+        STORED.compute(name.substring(0, us), (hash, cur) -> {
+            Path[] next = (cur == null) ? new Path[SIZES.length] : cur.clone();
+            next[slot] = file;
+            return next;
+        });
+    }
+
+    private static void writeThumb(BufferedImage src, Path dir, String hash, int w, int h) throws IOException {
+        boolean alpha = src.getColorModel().hasAlpha();
+        String ext = alpha ? "png" : "jpg";
+
+        // Same stretch as the ImageViews (preserveRatio=false), so the thumb is drawn 1:1
+        BufferedImage out = scale(src, w, h, alpha);
+
+        Path target = dir.resolve(hash + "_" + w + "x" + h + "." + ext);
+        Path tmp = Files.createTempFile(dir, hash, ".tmp");
+        try {
+            if (!ImageIO.write(out, ext, tmp.toFile())) {
+                throw new IOException("no ImageIO writer for " + ext);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        remember(target);
+    }
+
+    // Halve repeatedly, then one bilinear pass: close to area-averaging quality, much faster
+    private static BufferedImage scale(BufferedImage src, int w, int h, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage cur = src;
+        int cw = src.getWidth();
+        int ch = src.getHeight();
+
+        do {
+            cw = Math.max(w, cw / 2);
+            ch = Math.max(h, ch / 2);
+            if (cw == w && ch == h) break;
+            cur = draw(cur, cw, ch, type);
+        } while (cw > w || ch > h);
+
+        return draw(cur, w, h, type);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int w, int h, int type) {
+        BufferedImage dst = new BufferedImage(w, h, type);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    private static String contentHash(Path file) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), md)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(md.digest()).substring(0, 32);
+    }
+
+    // ---------- index (image_path -> hash) ----------
+
+    private static String hashFor(String imagePath) {
+        if (imagePath == null || imagePath.isBlank()) return null;
+        return HASHES.get(imagePath.trim());
+    }
+
+    private static synchronized void record(String imagePath, String hash) throws IOException {
+        Properties idx = index();
+        HASHES.put(imagePath.trim(), hash);
+        if (hash.equals(idx.getProperty(imagePath.trim()))) return;
+        idx.setProperty(imagePath.trim(), hash);
+
+        Path dir = thumbsDir();
+        Path tmp = Files.createTempFile(dir, "index", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            idx.store(out, "product image_path -> thumbnail hash");
+        }
+        Files.move(tmp, dir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Properties index() {
+        if (index != null) return index;
+
+        index = new Properties();
+        Path file = thumbsDir().resolve(INDEX_FILE);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                index.load(in);
+            } catch (IOException e) {
+                System.err.println("⚠️ Thumbnail index unreadable, rebuilding: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,162 @@
+package com.kanchancast.ui;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.StackPane;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs DAO work off the JavaFX Application Thread.
+ *
+ * - Every load is a javafx.concurrent.Task on a shared virtual-thread executor.
+ * - Loads are keyed: starting a load for a key cancels the previous one for that key,
+ *   and a stale result is never applied (clicking Refresh twice only paints once).
+ * - Results/errors are delivered on the FX thread (Task handlers run via Platform.runLater).
+ * - withSpinner(node) wraps a table/pane so its loads show a ProgressIndicator on top.
+ *
+ * All public methods must be called on the FX thread.
+ */
+public final class UiDataLoader {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ui-loader-", 0).factory());
+
+    private static final String SPINNER_KEY = "uiDataLoader.spinner";
+    private static final String BUSY_KEY = "uiDataLoader.busy";
+
+    // Latest task per key (FX thread only)
+    private static final Map<Object, Task<?>> IN_FLIGHT = new HashMap<>();
+
+    private UiDataLoader() {}
+
+    /** Load with default error reporting (console). */
+    public static <T> Task<T> load(Object key, Callable<T> work, Consumer<T> onSuccess) {
+        return load(key, null, work, onSuccess, null);
+    }
+
+    /**
+     * @param key        loads with the same key replace each other (use the table, or a string)
+     * @param busyNode   node wrapped by withSpinner() to show progress on (may be null)
+     * @param work       runs on a background thread; may call DAOs
+     * @param onSuccess  runs on the FX thread with the result, only if this is still the latest load
+     * @param onError    runs on the FX thread on failure (null = log to console)
+     */
+    public static <T> Task<T> load(Object key, Node busyNode, Callable<T> work,
+                                   Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        Task<?> previous = IN_FLIGHT.remove(key);
+        if (previous != null) previous.cancel(true);
+
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        setBusy(busyNode, +1);
+
+        task.setOnSucceeded(e -> {
+            setBusy(busyNode, -1);
+            if (IN_FLIGHT.get(key) != task) return; // superseded while running
+            IN_FLIGHT.remove(key);
+            if (onSuccess != null) onSuccess.accept(task.getValue());
+        });
+
+        task.setOnFailed(e -> {
+            setBusy(busyNode, -1);
+            if (IN_FLIGHT.get(key) != task) return;
+            IN_FLIGHT.remove(key);
+            Throwable ex = task.getException();
+            if (onError != null) {
+                onError.accept(ex);
+            } else {
+                System.err.println("❌ Background load failed (" + key + "): " + (ex == null ? "?" : ex.getMessage()));
+                if (ex != null) ex.printStackTrace();
+            }
+        });
+
+        task.setOnCancelled(e -> setBusy(busyNode, -1));
+
+        IN_FLIGHT.put(key, task);
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /** Loads rows for a table (keyed on the table itself) and swaps them in on success. */
+    public static <T> Task<List<T>> loadInto(TableView<T> table, Callable<List<T>> work) {
+        return load(table, table, work,
+                rows -> table.setItems(FXCollections.observableArrayList(rows)), null);
+    }
+
+    /** Fire-and-forget background work (e.g. a write) with an FX-thread callback. */
+    public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess) {
+        return load(new Object(), null, work, onSuccess, null);
+    }
+
+    /**
+     * run() for a button's action (a save, a create): {@code trigger} is disabled until the
+     * work finishes either way, so a slow write can't be submitted twice.
+     */
+    public static <T> Task<T> run(Node trigger, Callable<T> work, Consumer<T> onSuccess) {
+        trigger.setDisable(true);
+        return load(new Object(), null, work, result -> {
+            trigger.setDisable(false);
+            if (onSuccess != null) onSuccess.accept(result);
+        }, ex -> {
+            trigger.setDisable(false);
+            System.err.println("❌ Background task failed: " + (ex == null ? "?" : ex.getMessage()));
+            if (ex != null) ex.printStackTrace();
+        });
+    }
+
+    /**
+     * Wraps a node in a StackPane with a centered ProgressIndicator that is shown while
+     * any load passing this node as busyNode is running. Put the returned pane in the layout.
+     */
+    public static StackPane withSpinner(Node content) {
+        ProgressIndicator spinner = new ProgressIndicator();
+        spinner.setMaxSize(48, 48);
+        spinner.setMouseTransparent(true);
+        spinner.setVisible(false);
+
+        content.getProperties().put(SPINNER_KEY, spinner);
+
+        StackPane pane = new StackPane(content, spinner);
+        StackPane.setAlignment(spinner, Pos.CENTER);
+        return pane;
+    }
+
+    /** Called from MainApp.stop(). */
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    // ---------------- internals ----------------
+
+    private static void setBusy(Node node, int delta) {
+        if (node == null) return;
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> setBusy(node, delta));
+            return;
+        }
+
+        Object current = node.getProperties().get(BUSY_KEY);
+        int busy = Math.max(0, (current instanceof Integer i ? i : 0) + delta);
+        node.getProperties().put(BUSY_KEY, busy);
+
+        Object spinner = node.getProperties().get(SPINNER_KEY);
+        if (spinner instanceof ProgressIndicator pi) pi.setVisible(busy > 0);
+    }
+}
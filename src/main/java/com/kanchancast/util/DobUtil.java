@@ -0,0 +1,63 @@
+package com.kanchancast.util;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Date of birth rules shared by the model (age) and the DAOs (validation on write).
+ *
+ * users.dob is the only stored birth data (ISO YYYY-MM-DD or NULL); age is always
+ * derived from it in Java, never stored or computed in SQL.
+ */
+public final class DobUtil {
+
+    public static final int MIN_AGE = 10;
+    public static final int MAX_AGE = 120;
+
+    private DobUtil() {}
+
+    /** Parse an ISO date; null for null/blank/unparseable. */
+    public static LocalDate parse(String iso) {
+        if (iso == null || iso.isBlank()) return null;
+        try {
+            return LocalDate.parse(iso.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Age in full years today; 0 if unknown or in the future. */
+    public static int age(LocalDate dob) {
+        if (dob == null) return 0;
+        LocalDate today = LocalDate.now();
+        if (dob.isAfter(today)) return 0;
+        return Period.between(dob, today).getYears();
+    }
+
+    /** Why this DOB can't be stored, or null if it's fine. */
+    public static String problem(LocalDate dob) {
+        if (dob == null) return null;
+        if (dob.isAfter(LocalDate.now())) return "DOB cannot be in the future.";
+        int years = age(dob);
+        if (years < MIN_AGE || years > MAX_AGE) {
+            return "Please enter a realistic DOB (age " + MIN_AGE + " to " + MAX_AGE + ").";
+        }
+        return null;
+    }
+
+    /**
+     * Normalizes a DOB for INSERT/UPDATE: blank -> null, otherwise canonical ISO.
+     * @throws IllegalArgumentException if the value isn't a date or fails {@link #problem}
+     */
+    public static String normalizeForWrite(String raw) {
+        if (raw == null || raw.isBlank()) return null;
+
+        LocalDate dob = parse(raw);
+        if (dob == null) throw new IllegalArgumentException("DOB must be YYYY-MM-DD: " + raw);
+
+        String problem = problem(dob);
+        if (problem != null) throw new IllegalArgumentException(problem);
+        return dob.toString();
+    }
+}